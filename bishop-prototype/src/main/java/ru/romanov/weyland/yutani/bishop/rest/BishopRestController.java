@@ -10,7 +10,9 @@ import ru.romanov.weyland.yutani.bishop.service.BishopPrototypeService;
 import ru.romanov.weyland.yutani.synthetic.audit.WeylandWatchingYou;
 import ru.romanov.weyland.yutani.synthetic.exception.CommandQueueOverflowException;
 import ru.romanov.weyland.yutani.synthetic.exception.CommandValidationException;
+import ru.romanov.weyland.yutani.synthetic.dto.response.SyntheticMetricsResponseDTO;
 import ru.romanov.weyland.yutani.synthetic.service.CommandService;
+import ru.romanov.weyland.yutani.synthetic.service.SyntheticMetricsSnapshotService;
 import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
 
 import java.time.LocalDateTime;
@@ -26,6 +28,7 @@ public class BishopRestController {
 
     BishopPrototypeService bishopService;
     CommandService commandService;
+    SyntheticMetricsSnapshotService metricsSnapshotService;
 
     @GetMapping("/info")
     @WeylandWatchingYou(description = "Получение информации о Bishop", level = AuditLevel.STANDARD)
@@ -133,12 +136,14 @@ public class BishopRestController {
 
         log.info("Bishop: Получение метрик через интеграцию со стартером");
 
+        SyntheticMetricsResponseDTO snapshot = metricsSnapshotService.current();
         Map<String, Object> metrics = Map.of(
                 "starterMetrics", Map.of(
-                        "queueSize", commandService.getCurrentQueueSize(),
-                        "totalCommands", commandService.getTotalCommandsCount(),
-                        "activeCommands", commandService.getActiveCommandsCount(),
-                        "authorStats", commandService.getCommandStatsByAuthor()
+                        "queueSize", snapshot.currentQueueSize(),
+                        "totalCommands", snapshot.totalCommandsProcessed(),
+                        "activeCommands", snapshot.activeCommands(),
+                        "authorStats", snapshot.commandsByAuthor(),
+                        "capturedAt", snapshot.capturedAt()
                 ),
                 "integration", "SUCCESS",
                 "timestamp", LocalDateTime.now(),
@@ -209,12 +214,14 @@ public class BishopRestController {
         Map<String, Object> integration;
 
         if (commandService != null) {
+            SyntheticMetricsResponseDTO snapshot = metricsSnapshotService.current();
             integration = Map.of(
                     "commandServiceAvailable", true,
-                    "currentQueueSize", commandService.getCurrentQueueSize(),
-                    "totalCommands", commandService.getTotalCommandsCount(),
-                    "activeCommands", commandService.getActiveCommandsCount(),
-                    "authorStats", commandService.getCommandStatsByAuthor(),
+                    "currentQueueSize", snapshot.currentQueueSize(),
+                    "totalCommands", snapshot.totalCommandsProcessed(),
+                    "activeCommands", snapshot.activeCommands(),
+                    "authorStats", snapshot.commandsByAuthor(),
+                    "capturedAt", snapshot.capturedAt(),
                     "integration", "SUCCESS"
             );
         } else {
@@ -7,7 +7,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.romanov.weyland.yutani.synthetic.audit.WeylandWatchingYou;
 import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.dto.response.SyntheticMetricsResponseDTO;
 import ru.romanov.weyland.yutani.synthetic.service.CommandService;
+import ru.romanov.weyland.yutani.synthetic.service.SyntheticMetricsSnapshotService;
 import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
 import ru.romanov.weyland.yutani.synthetic.model.Priority;
 
@@ -25,6 +27,7 @@ public class BishopPrototypeService {
     Random random = new Random();
 
     CommandService commandService;
+    SyntheticMetricsSnapshotService metricsSnapshotService;
 
     @WeylandWatchingYou(description = "Bishop: Диагностика энергоблока", level = AuditLevel.HIGH)
     public String checkPowerCore(String shipName) {
@@ -177,6 +180,9 @@ public class BishopPrototypeService {
 
         long totalTime = System.currentTimeMillis() - startTime;
 
+        // Снимок обновляется сразу, чтобы итог отражал только что выполненные команды
+        metricsSnapshotService.refresh();
+        SyntheticMetricsResponseDTO snapshot = metricsSnapshotService.current();
         Map<String, Object> results = Map.of(
                 "iterations", iterations,
                 "successfulCommands", successfulCommands,
@@ -184,10 +190,11 @@ public class BishopPrototypeService {
                 "totalTimeMs", totalTime,
                 "averageTimeMs", totalTime / iterations,
                 "starterMetrics", Map.of(
-                        "queueSize", commandService.getCurrentQueueSize(),
-                        "totalCommands", commandService.getTotalCommandsCount(),
-                        "activeCommands", commandService.getActiveCommandsCount(),
-                        "authorStats", commandService.getCommandStatsByAuthor()
+                        "queueSize", snapshot.currentQueueSize(),
+                        "totalCommands", snapshot.totalCommandsProcessed(),
+                        "activeCommands", snapshot.activeCommands(),
+                        "authorStats", snapshot.commandsByAuthor(),
+                        "capturedAt", snapshot.capturedAt()
                 )
         );
 
@@ -0,0 +1,79 @@
+package ru.romanov.weyland.yutani.synthetic.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+import ru.romanov.weyland.yutani.synthetic.scheduler.CommandScheduler;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AdmissionController {
+
+    private static final Duration MIN_RETRY_AFTER = Duration.ofSeconds(1);
+
+    CommandScheduler scheduler;
+    boolean enabled;
+    Map<Priority, Duration> drainTimeSlo = new EnumMap<>(Priority.class);
+    Map<Priority, Counter> admittedCounters = new EnumMap<>(Priority.class);
+    Map<Priority, Counter> rejectedCounters = new EnumMap<>(Priority.class);
+
+    public AdmissionController(CommandScheduler scheduler,
+                               boolean enabled,
+                               Duration commonDrainTimeSlo,
+                               Duration criticalDrainTimeSlo,
+                               MeterRegistry meterRegistry) {
+        this.scheduler = scheduler;
+        this.enabled = enabled;
+        drainTimeSlo.put(Priority.COMMON, commonDrainTimeSlo);
+        drainTimeSlo.put(Priority.CRITICAL, criticalDrainTimeSlo);
+
+        for (Priority priority : Priority.values()) {
+            String lane = priority.name().toLowerCase();
+
+            admittedCounters.put(priority, Counter.builder("synthetic.admission.decisions")
+                    .description("Решения контроля допуска команд")
+                    .tag("lane", lane)
+                    .tag("decision", "admitted")
+                    .register(meterRegistry));
+            rejectedCounters.put(priority, Counter.builder("synthetic.admission.decisions")
+                    .description("Решения контроля допуска команд")
+                    .tag("lane", lane)
+                    .tag("decision", "rejected")
+                    .register(meterRegistry));
+
+            Gauge.builder("synthetic.admission.drain.estimate", scheduler,
+                            s -> s.estimateDrainTime(priority, 0).toMillis() / 1000.0)
+                    .description("Оценка времени разбора очереди полосы, секунды")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+        }
+    }
+
+    public AdmissionDecision evaluate(Priority priority, int alreadyAdmitted) {
+        Duration drainTime = scheduler.estimateDrainTime(priority, alreadyAdmitted + 1);
+        Duration slo = drainTimeSlo.get(priority);
+
+        if (!enabled || drainTime.compareTo(slo) <= 0) {
+            admittedCounters.get(priority).increment();
+            return AdmissionDecision.admit(drainTime);
+        }
+
+        rejectedCounters.get(priority).increment();
+        return AdmissionDecision.reject(drainTime, retryAfter(drainTime.minus(slo)));
+    }
+
+    public Duration retryAfter(Priority priority) {
+        return retryAfter(scheduler.estimateDrainTime(priority, 0).minus(drainTimeSlo.get(priority)));
+    }
+
+    private static Duration retryAfter(Duration excess) {
+        long seconds = Math.ceilDiv(excess.toMillis(), 1000L);
+        return seconds < MIN_RETRY_AFTER.toSeconds() ? MIN_RETRY_AFTER : Duration.ofSeconds(seconds);
+    }
+}
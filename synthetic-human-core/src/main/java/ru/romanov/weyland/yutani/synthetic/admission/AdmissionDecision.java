@@ -0,0 +1,17 @@
+package ru.romanov.weyland.yutani.synthetic.admission;
+
+import java.time.Duration;
+
+public record AdmissionDecision(boolean admitted,
+                                Duration estimatedDrainTime,
+                                Duration retryAfter
+) {
+
+    public static AdmissionDecision admit(Duration estimatedDrainTime) {
+        return new AdmissionDecision(true, estimatedDrainTime, Duration.ZERO);
+    }
+
+    public static AdmissionDecision reject(Duration estimatedDrainTime, Duration retryAfter) {
+        return new AdmissionDecision(false, estimatedDrainTime, retryAfter);
+    }
+}
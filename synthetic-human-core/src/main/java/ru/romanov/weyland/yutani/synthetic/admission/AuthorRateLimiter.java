@@ -0,0 +1,225 @@
+package ru.romanov.weyland.yutani.synthetic.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import ru.romanov.weyland.yutani.synthetic.dto.response.AuthorRateUsageDTO;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AuthorRateLimiter implements AutoCloseable {
+
+    boolean enabled;
+    int defaultLimit;
+    Map<String, Integer> overrides;
+    long windowNanos;
+    long idleTtlNanos;
+
+    Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    Counter allowedCounter;
+    Counter limitedCounter;
+
+    @NonFinal
+    ScheduledExecutorService sweeper;
+
+    public AuthorRateLimiter(boolean enabled,
+                             int defaultLimit,
+                             Map<String, Integer> overrides,
+                             Duration window,
+                             Duration idleTtl,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.defaultLimit = defaultLimit;
+        this.overrides = Map.copyOf(overrides);
+        this.windowNanos = window.toNanos();
+        this.idleTtlNanos = Math.max(idleTtl.toNanos(), 2 * windowNanos);
+
+        this.allowedCounter = Counter.builder("synthetic.ratelimit.decisions")
+                .description("Решения ограничителя частоты команд по авторам")
+                .tag("decision", "allowed")
+                .register(meterRegistry);
+        this.limitedCounter = Counter.builder("synthetic.ratelimit.decisions")
+                .description("Решения ограничителя частоты команд по авторам")
+                .tag("decision", "limited")
+                .register(meterRegistry);
+
+        Gauge.builder("synthetic.ratelimit.authors", buckets, Map::size)
+                .description("Количество авторов с активным окном ограничения")
+                .register(meterRegistry);
+    }
+
+    public Duration tryAcquire(String author) {
+        return tryAcquire(author, System.nanoTime());
+    }
+
+    Duration tryAcquire(String author, long now) {
+        int limit = limitFor(author);
+        if (!enabled || limit <= 0) {
+            return Duration.ZERO;
+        }
+
+        long retryNanos;
+        while (true) {
+            Bucket bucket = buckets.computeIfAbsent(author, _ -> new Bucket(now));
+            retryNanos = bucket.tryAcquire(now, windowNanos, limit);
+            if (retryNanos != Bucket.RETIRED) {
+                break;
+            }
+            // Окно выведено очисткой между поиском и захватом: убираем его и берем новое
+            buckets.remove(author, bucket);
+        }
+
+        if (retryNanos == 0) {
+            allowedCounter.increment();
+            return Duration.ZERO;
+        }
+        limitedCounter.increment();
+        return Duration.ofNanos(retryNanos);
+    }
+
+    // Возвращает разрешение команды, которая после захвата так и не попала в очередь
+    public void refund(String author) {
+        Bucket bucket = buckets.get(author);
+        if (bucket != null) {
+            bucket.refund();
+        }
+    }
+
+    public AuthorRateUsageDTO getUsage(String author) {
+        Bucket bucket = buckets.get(author);
+        double used = bucket == null ? 0 : bucket.estimate(System.nanoTime(), windowNanos);
+        return new AuthorRateUsageDTO(author, (int) Math.ceil(used), limitFor(author), Duration.ofNanos(windowNanos).toSeconds());
+    }
+
+    public List<AuthorRateUsageDTO> getUsage() {
+        return buckets.keySet().stream()
+                .map(this::getUsage)
+                .filter(usage -> usage.used() > 0)
+                .sorted(Comparator.comparingInt(AuthorRateUsageDTO::used).reversed())
+                .toList();
+    }
+
+    private int limitFor(String author) {
+        return overrides.getOrDefault(author, defaultLimit);
+    }
+
+    public void startSweeper(Duration interval) {
+        sweeper = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("synthetic-ratelimit-sweeper")
+                .daemon()
+                .factory());
+        long intervalMillis = interval.toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweepSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void sweep() {
+        sweep(System.nanoTime());
+    }
+
+    // Окно удаляется только после вывода под его блокировкой, поэтому параллельный захват не теряется
+    void sweep(long now) {
+        int removed = 0;
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            if (bucket.retireIfIdle(now, idleTtlNanos) && buckets.remove(entry.getKey(), bucket)) {
+                removed++;
+            }
+        }
+        log.debug("Очищено неактивных окон ограничения авторов: {}", removed);
+    }
+
+    @Override
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            log.error("Ошибка очистки окон ограничения авторов: {}", e.getMessage(), e);
+        }
+    }
+
+    private static final class Bucket {
+
+        static final long RETIRED = -1;
+
+        private long windowStartNanos;
+        private int current;
+        private int previous;
+        private long lastSeenNanos;
+        private boolean retired;
+
+        Bucket(long now) {
+            this.windowStartNanos = now;
+            this.lastSeenNanos = now;
+        }
+
+        synchronized long tryAcquire(long now, long windowNanos, int limit) {
+            if (retired) {
+                return RETIRED;
+            }
+            roll(now, windowNanos);
+            lastSeenNanos = now;
+
+            long elapsed = now - windowStartNanos;
+            double previousWeight = 1.0 - (double) elapsed / windowNanos;
+            if (previous * previousWeight + current + 1 <= limit) {
+                current++;
+                return 0;
+            }
+
+            if (current + 1 > limit) {
+                return windowNanos - elapsed;
+            }
+            // Счетчик текущего окна еще свободен: ждем, пока вклад предыдущего окна затухнет
+            double requiredWeight = (double) (limit - current - 1) / previous;
+            return Math.max(1, (long) ((1.0 - requiredWeight) * windowNanos) - elapsed);
+        }
+
+        synchronized void refund() {
+            if (current > 0) {
+                current--;
+            }
+        }
+
+        synchronized boolean retireIfIdle(long now, long idleTtlNanos) {
+            if (now - lastSeenNanos > idleTtlNanos) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        synchronized double estimate(long now, long windowNanos) {
+            roll(now, windowNanos);
+            double previousWeight = 1.0 - (double) (now - windowStartNanos) / windowNanos;
+            return previous * previousWeight + current;
+        }
+
+        private void roll(long now, long windowNanos) {
+            long windowsPassed = (now - windowStartNanos) / windowNanos;
+            if (windowsPassed == 0) {
+                return;
+            }
+            previous = windowsPassed == 1 ? current : 0;
+            current = 0;
+            windowStartNanos += windowsPassed * windowNanos;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ru.romanov.weyland.yutani.synthetic.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class IdempotencyCache {
+
+    int maxSize;
+    long ttlNanos;
+
+    Map<String, Entry> entries = new ConcurrentHashMap<>();
+    Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    ReentrantLock evictionLock = new ReentrantLock();
+
+    Counter hitsCounter;
+    Counter missesCounter;
+
+    public IdempotencyCache(int maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+
+        this.hitsCounter = Counter.builder("synthetic.idempotency.lookups")
+                .description("Повторные отправки команд с известным ключом идемпотентности")
+                .tag("result", "duplicate")
+                .register(meterRegistry);
+        this.missesCounter = Counter.builder("synthetic.idempotency.lookups")
+                .description("Первые отправки команд с ключом идемпотентности")
+                .tag("result", "new")
+                .register(meterRegistry);
+
+        Gauge.builder("synthetic.idempotency.size", entries, Map::size)
+                .description("Количество ключей идемпотентности в кэше")
+                .register(meterRegistry);
+    }
+
+    public Command putIfAbsent(String key, Command command) {
+        long now = System.nanoTime();
+        Entry[] existing = new Entry[1];
+
+        Entry stored = entries.compute(key, (_, current) -> {
+            if (current != null && now - current.createdAtNanos() < ttlNanos) {
+                existing[0] = current;
+                return current;
+            }
+            return new Entry(key, command, now);
+        });
+
+        if (existing[0] != null) {
+            hitsCounter.increment();
+            return existing[0].command();
+        }
+
+        missesCounter.increment();
+        insertionOrder.add(stored);
+        evictIfNeeded(now);
+        return null;
+    }
+
+    public void remove(String key, Command command) {
+        entries.computeIfPresent(key, (_, current) -> current.command() == command ? null : current);
+    }
+
+    private void evictIfNeeded(long now) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+
+        try {
+            Entry oldest;
+            while ((oldest = insertionOrder.peek()) != null) {
+                boolean expired = now - oldest.createdAtNanos() >= ttlNanos;
+                if (!expired && entries.size() <= maxSize) {
+                    break;
+                }
+                insertionOrder.poll();
+                entries.remove(oldest.key(), oldest);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private record Entry(String key, Command command, long createdAtNanos) {}
+}
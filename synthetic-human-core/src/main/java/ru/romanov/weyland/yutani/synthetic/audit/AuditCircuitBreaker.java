@@ -0,0 +1,81 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AuditCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    String name;
+    int failureThreshold;
+    long openNanos;
+    AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    @NonFinal
+    volatile long openedAtNanos;
+
+    public AuditCircuitBreaker(String name, int failureThreshold, Duration openDuration, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+
+        Gauge.builder("synthetic.audit.breaker.state", state, s -> s.get().ordinal())
+                .description("Состояние предохранителя приемника аудита: 0 - закрыт, 1 - открыт, 2 - пробный вызов")
+                .tag("sink", name)
+                .register(meterRegistry);
+    }
+
+    public boolean isClosed() {
+        return state.get() == State.CLOSED;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public boolean tryAcquire() {
+        return switch (state.get()) {
+            case CLOSED -> true;
+            case HALF_OPEN -> false;
+            case OPEN -> System.nanoTime() - openedAtNanos >= openNanos
+                    && state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        };
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        State previous = state.getAndSet(State.CLOSED);
+        if (previous != State.CLOSED) {
+            log.info("Предохранитель приемника аудита {} закрыт", name);
+        }
+    }
+
+    public void onFailure() {
+        if (state.compareAndSet(State.HALF_OPEN, State.OPEN)) {
+            openedAtNanos = System.nanoTime();
+            log.warn("Пробный вызов приемника аудита {} не удался, предохранитель снова открыт", name);
+            return;
+        }
+
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold && state.compareAndSet(State.CLOSED, State.OPEN)) {
+            openedAtNanos = System.nanoTime();
+            log.warn("Предохранитель приемника аудита {} открыт после {} ошибок подряд", name, failureThreshold);
+        }
+    }
+}
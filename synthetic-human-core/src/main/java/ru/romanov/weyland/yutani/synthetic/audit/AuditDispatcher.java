@@ -0,0 +1,310 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+import ru.romanov.weyland.yutani.synthetic.model.AuditOverflowPolicy;
+import ru.romanov.weyland.yutani.synthetic.service.AuditService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor
+@Component
+public class AuditDispatcher {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    @NonFinal
+    @Value("${spring.weyland.audit.dispatcher.enabled:true}")
+    boolean enabled;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.dispatcher.buffer-size:8192}")
+    int bufferSize;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.dispatcher.batch-size:256}")
+    int batchSize;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.dispatcher.overflow-policy:DROP_LOW}")
+    AuditOverflowPolicy overflowPolicy;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.dispatcher.low-drop-threshold:0.75}")
+    double lowDropThreshold;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.dispatcher.block-timeout:100ms}")
+    Duration blockTimeout;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.dispatcher.spool.directory:audit-spool}")
+    String spoolDirectory;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.dispatcher.spool.segment-size:16MB}")
+    DataSize spoolSegmentSize;
+
+    AuditService auditService;
+    AuditSerializer auditSerializer;
+    AuditSummaryAggregator auditSummaryAggregator;
+    ObjectMapper objectMapper;
+    MeterRegistry meterRegistry;
+    Map<DropReason, Map<AuditLevel, Counter>> droppedCounters = new EnumMap<>(DropReason.class);
+
+    @NonFinal
+    AuditRingBuffer<PendingAudit> buffer;
+
+    @NonFinal
+    AuditSpool spool;
+
+    @NonFinal
+    Thread consumer;
+
+    @NonFinal
+    Timer lagTimer;
+
+    @NonFinal
+    Counter spilledCounter;
+
+    @NonFinal
+    int lowDropDepth;
+
+    @NonFinal
+    volatile boolean consumerParked;
+
+    @NonFinal
+    volatile boolean running;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            log.info("Асинхронная отправка аудита отключена");
+            return;
+        }
+
+        buffer = new AuditRingBuffer<>(bufferSize);
+        lowDropDepth = (int) (buffer.capacity() * lowDropThreshold);
+
+        if (overflowPolicy == AuditOverflowPolicy.SPILL) {
+            spool = new AuditSpool("dispatcher", Path.of(spoolDirectory), Math.toIntExact(spoolSegmentSize.toBytes()),
+                    objectMapper, meterRegistry);
+        }
+
+        Gauge.builder("synthetic.audit.buffer.size", buffer, AuditRingBuffer::size)
+                .description("Количество записей аудита в буфере отправки")
+                .register(meterRegistry);
+        lagTimer = Timer.builder("synthetic.audit.lag")
+                .description("Время от создания записи аудита до передачи в приемник")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        spilledCounter = Counter.builder("synthetic.audit.spilled")
+                .description("Количество записей аудита, сброшенных в файловый буфер")
+                .register(meterRegistry);
+        for (DropReason reason : DropReason.values()) {
+            Map<AuditLevel, Counter> byLevel = new EnumMap<>(AuditLevel.class);
+            for (AuditLevel level : AuditLevel.values()) {
+                byLevel.put(level, Counter.builder("synthetic.audit.dropped")
+                        .description("Количество отброшенных записей аудита")
+                        .tag("reason", reason.tag)
+                        .tag("level", level.name())
+                        .register(meterRegistry));
+            }
+            droppedCounters.put(reason, byLevel);
+        }
+
+        running = true;
+        consumer = Thread.ofPlatform()
+                .name("synthetic-audit-dispatcher")
+                .daemon()
+                .start(this::consumeLoop);
+
+        log.info("Асинхронная отправка аудита запущена: буфер {}, пачка {}, политика {}",
+                buffer.capacity(), batchSize, overflowPolicy);
+    }
+
+    public void publish(AuditDTO record) {
+        publish(record, null);
+    }
+
+    public void publish(AuditDTO record, AuditPayload payload) {
+        if (!running) {
+            if (!auditSummaryAggregator.fold(record)) {
+                auditService.sendAuditRecord(auditSerializer.complete(record, payload));
+            }
+            return;
+        }
+
+        PendingAudit pending = new PendingAudit(record, payload, System.nanoTime());
+        boolean published = switch (overflowPolicy) {
+            case DROP_LOW -> publishDroppingLow(pending);
+            case BLOCK -> publishBlocking(pending);
+            case SPILL -> publishSpilling(pending);
+        };
+
+        if (published && consumerParked) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private boolean publishDroppingLow(PendingAudit pending) {
+        if (pending.record().level() == AuditLevel.LOW && buffer.size() >= lowDropDepth) {
+            countDropped(pending.record(), DropReason.LOW_PRIORITY);
+            return false;
+        }
+        if (!buffer.offer(pending)) {
+            countDropped(pending.record(), DropReason.OVERFLOW);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean publishBlocking(PendingAudit pending) {
+        long deadline = pending.publishedAtNanos() + blockTimeout.toNanos();
+        while (!buffer.offer(pending)) {
+            if (System.nanoTime() - deadline >= 0) {
+                countDropped(pending.record(), DropReason.BLOCK_TIMEOUT);
+                return false;
+            }
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        return true;
+    }
+
+    private boolean publishSpilling(PendingAudit pending) {
+        if (buffer.offer(pending)) {
+            return true;
+        }
+
+        try {
+            spool.append(auditSerializer.complete(pending.record(), pending.payload()));
+            spilledCounter.increment();
+        } catch (RuntimeException e) {
+            log.error("Не удалось сбросить запись аудита в файловый буфер: {}", e.getMessage());
+            countDropped(pending.record(), DropReason.SPILL_FAILED);
+        }
+        return false;
+    }
+
+    private void countDropped(AuditDTO record, DropReason reason) {
+        droppedCounters.get(reason).get(record.level()).increment();
+    }
+
+    private void consumeLoop() {
+        List<PendingAudit> batch = new ArrayList<>(batchSize);
+
+        while (running || !buffer.isEmpty()) {
+            try {
+                if (buffer.drainTo(batch, batchSize) > 0) {
+                    dispatchBatch(batch);
+                } else if (spool != null && !spool.isEmpty()) {
+                    drainSpool();
+                } else {
+                    consumerParked = true;
+                    if (buffer.isEmpty() && running) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    consumerParked = false;
+                }
+            } catch (RuntimeException e) {
+                log.error("Ошибка асинхронной отправки аудита: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatchBatch(List<PendingAudit> batch) {
+        // Вызовы, учтенные только в сводке, не сериализуются вовсе
+        List<AuditDTO> records = new ArrayList<>(batch.size());
+        for (PendingAudit pending : batch) {
+            if (!auditSummaryAggregator.fold(pending.record())) {
+                records.add(auditSerializer.complete(pending.record(), pending.payload()));
+            }
+        }
+        if (!records.isEmpty()) {
+            auditService.sendAuditRecords(records);
+        }
+
+        long now = System.nanoTime();
+        for (PendingAudit pending : batch) {
+            lagTimer.record(now - pending.publishedAtNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void drainSpool() {
+        List<AuditDTO> spooled = spool.peek(batchSize);
+        List<AuditDTO> records = new ArrayList<>(spooled.size());
+        for (AuditDTO record : spooled) {
+            if (!auditSummaryAggregator.fold(record)) {
+                records.add(record);
+            }
+        }
+        if (!records.isEmpty()) {
+            auditService.sendAuditRecords(records);
+        }
+        spool.acknowledge();
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (spool != null) {
+            spool.close();
+        }
+        log.info("Асинхронная отправка аудита остановлена, необработанных записей: {}", buffer.size());
+    }
+
+    private record PendingAudit(AuditDTO record, AuditPayload payload, long publishedAtNanos) {}
+
+    private enum DropReason {
+        LOW_PRIORITY("low_priority"),
+        OVERFLOW("overflow"),
+        BLOCK_TIMEOUT("block_timeout"),
+        SPILL_FAILED("spill_failed");
+
+        private final String tag;
+
+        DropReason(String tag) {
+            this.tag = tag;
+        }
+    }
+}
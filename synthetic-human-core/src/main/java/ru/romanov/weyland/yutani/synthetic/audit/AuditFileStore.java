@@ -0,0 +1,411 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+import ru.romanov.weyland.yutani.synthetic.storage.MappedSegment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Локальное хранилище аудита для режима FILE: запись [время][уровень][длина имени][имя метода][JSON],
+// фильтры проверяются по заголовку, а блоки по indexInterval записей пропускаются по диапазону времени
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AuditFileStore implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "audit";
+    private static final int TIMESTAMP_OFFSET = 0;
+    private static final int LEVEL_OFFSET = Long.BYTES;
+    private static final int METHOD_LENGTH_OFFSET = LEVEL_OFFSET + Byte.BYTES;
+    private static final int METHOD_OFFSET = METHOD_LENGTH_OFFSET + Short.BYTES;
+    private static final int MAX_METHOD_LENGTH = 0xFFFF;
+    private static final byte NO_LEVEL = -1;
+    private static final int COPY_CHUNK_SIZE = 8192;
+    private static final long RETENTION_CHECK_INTERVAL_MILLIS = 60_000;
+
+    Path directory;
+    int segmentSize;
+    long maxTotalBytes;
+    long retentionMillis;
+    int indexInterval;
+    int maxQueryRecords;
+    ObjectMapper objectMapper;
+    Deque<IndexedSegment> segments = new ArrayDeque<>();
+    AtomicInteger segmentCount = new AtomicInteger();
+    Counter writtenCounter;
+    Counter sizeDeletedCounter;
+    Counter retentionDeletedCounter;
+
+    @NonFinal
+    IndexedSegment active;
+
+    @NonFinal
+    long nextSegmentId;
+
+    @NonFinal
+    long nextRetentionCheck;
+
+    @Builder
+    public AuditFileStore(Path directory,
+                          int segmentSize,
+                          long maxTotalBytes,
+                          Duration retention,
+                          int indexInterval,
+                          int maxQueryRecords,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.maxTotalBytes = Math.max(maxTotalBytes, segmentSize);
+        this.retentionMillis = retention.toMillis();
+        this.indexInterval = Math.max(1, indexInterval);
+        this.maxQueryRecords = maxQueryRecords;
+        this.objectMapper = objectMapper;
+
+        long records = 0;
+        for (Path path : MappedSegment.list(this.directory, SEGMENT_PREFIX)) {
+            IndexedSegment segment = new IndexedSegment(MappedSegment.open(path), this.indexInterval);
+            segment.segment.scan(0, (position, payload) -> {
+                segment.record(position, payload.getLong(TIMESTAMP_OFFSET),
+                        position + MappedSegment.RECORD_HEADER_SIZE + payload.remaining());
+                return true;
+            });
+            segments.addLast(segment);
+            records += segment.recordCount;
+        }
+        this.active = segments.peekLast();
+        this.nextSegmentId = active == null ? 1 : active.segment.getId() + 1;
+        segmentCount.set(segments.size());
+
+        Gauge.builder("synthetic.audit.file.segments", segmentCount, AtomicInteger::get)
+                .description("Количество сегментов локального хранилища аудита")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("synthetic.audit.file.records")
+                .description("Количество записей, сохраненных в локальное хранилище аудита")
+                .register(meterRegistry);
+        this.sizeDeletedCounter = deletedCounter("size", meterRegistry);
+        this.retentionDeletedCounter = deletedCounter("retention", meterRegistry);
+
+        log.info("Локальное хранилище аудита открыто: {}, сегментов {}, записей {}",
+                this.directory, segments.size(), records);
+    }
+
+    public synchronized void append(List<AuditDTO> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (AuditDTO record : records) {
+                appendRecord(record);
+            }
+            if (active != null) {
+                active.segment.force();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        writtenCounter.increment(records.size());
+
+        long now = System.currentTimeMillis();
+        if (now >= nextRetentionCheck) {
+            nextRetentionCheck = now + RETENTION_CHECK_INTERVAL_MILLIS;
+            enforceRetention();
+        }
+    }
+
+    public int query(@Nullable LocalDateTime from,
+                     @Nullable LocalDateTime to,
+                     @Nullable AuditLevel minLevel,
+                     @Nullable String methodName,
+                     @Nullable Integer limit,
+                     OutputStream out) throws IOException {
+        long fromMillis = from != null ? epochMillis(from) : Long.MIN_VALUE;
+        long toMillis = to != null ? epochMillis(to) : Long.MAX_VALUE;
+        if (fromMillis > toMillis) {
+            return 0;
+        }
+
+        RecordFilter filter = new RecordFilter(fromMillis, toMillis,
+                minLevel != null ? minLevel.ordinal() : NO_LEVEL,
+                methodName != null ? methodName.getBytes(StandardCharsets.UTF_8) : null);
+        int maxRecords = limit != null ? Math.clamp(limit, 1, maxQueryRecords) : maxQueryRecords;
+        RecordWriter writer = new RecordWriter(out, maxRecords);
+
+        for (IndexSnapshot snapshot : snapshot()) {
+            if (snapshot.maxTimestamp() < fromMillis || snapshot.minTimestamp() > toMillis) {
+                continue;
+            }
+
+            for (int block = 0; block < snapshot.positions().length && !writer.isFull(); block++) {
+                if (snapshot.blockMax()[block] < fromMillis || snapshot.blockMin()[block] > toMillis) {
+                    continue;
+                }
+
+                int blockEnd = block + 1 < snapshot.positions().length
+                        ? snapshot.positions()[block + 1]
+                        : snapshot.endPosition();
+                snapshot.segment().scan(snapshot.positions()[block], (position, payload) -> {
+                    if (position >= blockEnd) {
+                        return false;
+                    }
+                    if (filter.matches(payload)) {
+                        writer.write(payload);
+                    }
+                    return !writer.isFull();
+                });
+            }
+            if (writer.isFull()) {
+                break;
+            }
+        }
+
+        out.flush();
+        return writer.written;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (IndexedSegment segment : segments) {
+            segment.segment.close();
+        }
+    }
+
+    private void appendRecord(AuditDTO record) throws IOException {
+        byte[] payload = encode(record);
+        if (payload.length + MappedSegment.RECORD_HEADER_SIZE > segmentSize) {
+            log.warn("Запись аудита {} больше сегмента хранилища ({} байт) и не сохранена",
+                    record.methodName(), payload.length);
+            return;
+        }
+
+        if (active == null) {
+            roll();
+        }
+        int position = active.segment.append(payload);
+        if (position < 0) {
+            roll();
+            position = active.segment.append(payload);
+        }
+        active.record(position, epochMillis(record.timestamp()), active.segment.getWritePosition());
+    }
+
+    private byte[] encode(AuditDTO record) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(record);
+        byte[] method = record.methodName() != null
+                ? record.methodName().getBytes(StandardCharsets.UTF_8)
+                : new byte[0];
+        if (method.length > MAX_METHOD_LENGTH) {
+            method = Arrays.copyOf(method, MAX_METHOD_LENGTH);
+        }
+
+        return ByteBuffer.allocate(METHOD_OFFSET + method.length + json.length)
+                .putLong(epochMillis(record.timestamp()))
+                .put(record.level() != null ? (byte) record.level().ordinal() : NO_LEVEL)
+                .putShort((short) method.length)
+                .put(method)
+                .put(json)
+                .array();
+    }
+
+    private void roll() throws IOException {
+        if (active != null) {
+            active.segment.force();
+        }
+        active = new IndexedSegment(MappedSegment.create(directory, SEGMENT_PREFIX, nextSegmentId++, segmentSize),
+                indexInterval);
+        segments.addLast(active);
+        segmentCount.set(segments.size());
+        enforceRetention();
+    }
+
+    // Активный сегмент не удаляется никогда, даже если он один превышает лимиты
+    private void enforceRetention() {
+        long expiredBefore = epochMillis(LocalDateTime.now()) - retentionMillis;
+
+        while (segments.size() > 1) {
+            IndexedSegment oldest = segments.peekFirst();
+            boolean overSize = (long) segments.size() * segmentSize > maxTotalBytes;
+            boolean expired = oldest.maxTimestamp < expiredBefore;
+            if (!overSize && !expired) {
+                break;
+            }
+
+            segments.pollFirst();
+            segmentCount.set(segments.size());
+            (overSize ? sizeDeletedCounter : retentionDeletedCounter).increment();
+            try {
+                oldest.segment.delete();
+                log.info("Удален сегмент хранилища аудита {} ({})", oldest.segment.getPath(),
+                        overSize ? "превышен размер" : "истек срок хранения");
+            } catch (IOException e) {
+                log.error("Не удалось удалить сегмент хранилища аудита {}: {}", oldest.segment.getPath(), e.getMessage());
+            }
+        }
+    }
+
+    private synchronized List<IndexSnapshot> snapshot() {
+        List<IndexSnapshot> snapshots = new ArrayList<>(segments.size());
+        for (IndexedSegment segment : segments) {
+            snapshots.add(segment.snapshot());
+        }
+        return snapshots;
+    }
+
+    private static Counter deletedCounter(String reason, MeterRegistry meterRegistry) {
+        return Counter.builder("synthetic.audit.file.deleted.segments")
+                .description("Количество удаленных сегментов локального хранилища аудита")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static long epochMillis(LocalDateTime timestamp) {
+        return (timestamp != null ? timestamp : LocalDateTime.now()).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class IndexedSegment {
+
+        final MappedSegment segment;
+        final int indexInterval;
+        int[] positions = new int[64];
+        long[] blockMin = new long[64];
+        long[] blockMax = new long[64];
+        int blockCount;
+        int recordCount;
+        int endPosition;
+        long minTimestamp = Long.MAX_VALUE;
+        long maxTimestamp = Long.MIN_VALUE;
+
+        IndexedSegment(MappedSegment segment, int indexInterval) {
+            this.segment = segment;
+            this.indexInterval = indexInterval;
+        }
+
+        void record(int position, long timestamp, int end) {
+            if (recordCount % indexInterval == 0) {
+                if (blockCount == positions.length) {
+                    positions = Arrays.copyOf(positions, blockCount * 2);
+                    blockMin = Arrays.copyOf(blockMin, blockCount * 2);
+                    blockMax = Arrays.copyOf(blockMax, blockCount * 2);
+                }
+                positions[blockCount] = position;
+                blockMin[blockCount] = timestamp;
+                blockMax[blockCount] = timestamp;
+                blockCount++;
+            }
+
+            int block = blockCount - 1;
+            blockMin[block] = Math.min(blockMin[block], timestamp);
+            blockMax[block] = Math.max(blockMax[block], timestamp);
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+            recordCount++;
+            endPosition = end;
+        }
+
+        IndexSnapshot snapshot() {
+            return new IndexSnapshot(segment,
+                    Arrays.copyOf(positions, blockCount),
+                    Arrays.copyOf(blockMin, blockCount),
+                    Arrays.copyOf(blockMax, blockCount),
+                    endPosition, minTimestamp, maxTimestamp);
+        }
+    }
+
+    // Граница endPosition снята под блокировкой записи, поэтому чтение за ней не заходит
+    // и видит только полностью записанные записи
+    private record IndexSnapshot(MappedSegment segment,
+                                 int[] positions,
+                                 long[] blockMin,
+                                 long[] blockMax,
+                                 int endPosition,
+                                 long minTimestamp,
+                                 long maxTimestamp) {}
+
+    private record RecordFilter(long fromMillis, long toMillis, int minLevel, byte[] method) {
+
+        boolean matches(ByteBuffer payload) {
+            long timestamp = payload.getLong(TIMESTAMP_OFFSET);
+            if (timestamp < fromMillis || timestamp > toMillis) {
+                return false;
+            }
+            if (minLevel != NO_LEVEL && payload.get(LEVEL_OFFSET) < minLevel) {
+                return false;
+            }
+            if (method == null) {
+                return true;
+            }
+
+            int length = Short.toUnsignedInt(payload.getShort(METHOD_LENGTH_OFFSET));
+            if (length != method.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (payload.get(METHOD_OFFSET + i) != method[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class RecordWriter {
+
+        final OutputStream out;
+        final int maxRecords;
+        final byte[] chunk = new byte[COPY_CHUNK_SIZE];
+        int written;
+
+        RecordWriter(OutputStream out, int maxRecords) {
+            this.out = out;
+            this.maxRecords = maxRecords;
+        }
+
+        void write(ByteBuffer payload) {
+            ByteBuffer json = payload.duplicate()
+                    .position(METHOD_OFFSET + Short.toUnsignedInt(payload.getShort(METHOD_LENGTH_OFFSET)));
+            try {
+                while (json.hasRemaining()) {
+                    int length = Math.min(chunk.length, json.remaining());
+                    json.get(chunk, 0, length);
+                    out.write(chunk, 0, length);
+                }
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            written++;
+        }
+
+        boolean isFull() {
+            return written >= maxRecords;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.trace.TraceContext;
+import ru.romanov.weyland.yutani.synthetic.trace.TraceContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor
+@Component
+public class AuditInterceptor {
+
+    AuditDispatcher auditDispatcher;
+    AuditPolicyResolver auditPolicyResolver;
+    AuditSerializer auditSerializer;
+    ThreadLocal<AuditSpanNode> currentSpan = new ThreadLocal<>();
+
+    @NonFinal
+    @Value("${spring.weyland.audit.spans.coalesce:false}")
+    boolean coalesceSpans;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.spans.max-spans:64}")
+    int maxSpans;
+
+    public Object intercept(ProceedingJoinPoint joinPoint, WeylandWatchingYou weylandWatchingYou) throws Throwable {
+        AuditMethodPolicy policy = auditPolicyResolver.policyFor(joinPoint, weylandWatchingYou);
+        if (coalesceSpans) {
+            AuditSpanNode parent = currentSpan.get();
+            if (parent != null) {
+                return proceedAsSpan(joinPoint, policy, parent);
+            }
+        }
+        if (!auditPolicyResolver.shouldAudit(policy)) {
+            return coalesceSpans ? proceedSuppressed(joinPoint, policy) : proceedTimed(joinPoint, policy);
+        }
+
+        boolean deferred = auditSerializer.isDeferred();
+        String parameters = null;
+        AuditPayload payload = deferred ? new AuditPayload(null, null) : null;
+        if (policy.includeParameters()) {
+            Object[] args = joinPoint.getArgs();
+            if (args != null && args.length > 0) {
+                if (deferred) {
+                    payload = new AuditPayload(auditSerializer.snapshotArguments(args), null);
+                } else {
+                    parameters = auditSerializer.serializeArguments(args);
+                }
+            }
+        }
+
+        long startNanos = System.nanoTime();
+        Object result;
+        String status = null;
+        String resultStr = null;
+        String errorMessage = null;
+
+        AuditSpanNode root = coalesceSpans ? AuditSpanNode.root(startNanos, maxSpans) : null;
+        if (root != null) {
+            currentSpan.set(root);
+        }
+
+        try {
+            result = joinPoint.proceed();
+            status = "SUCCESS";
+
+            if (policy.includeResult() && result != null && auditSerializer.isAuditableResult(result)) {
+                if (deferred) {
+                    payload = payload.withResult(auditSerializer.snapshotResult(result));
+                } else {
+                    resultStr = auditSerializer.serialize(result);
+                }
+            }
+
+            return result;
+
+        } catch (Exception e) {
+            status = "FAILED";
+            errorMessage = e.getMessage();
+            throw e;
+
+        } finally {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            if (root != null) {
+                currentSpan.remove();
+            }
+            recordTime(policy, "SUCCESS".equals(status), elapsedNanos);
+            long executionTime = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            TraceContext trace = TraceContextHolder.current();
+
+            AuditDTO auditDto = AuditDTO.builder()
+                    .timestamp(LocalDateTime.now())
+                    .methodName(policy.methodName())
+                    .description(policy.description())
+                    .parameters(parameters)
+                    .result(resultStr)
+                    .status(status)
+                    .errorMessage(errorMessage)
+                    .executionTimeMs(executionTime)
+                    .level(policy.level())
+                    .spans(root != null ? root.children() : null)
+                    .traceId(trace != null ? trace.traceId() : null)
+                    .spanId(trace != null ? trace.spanId() : null)
+                    .build();
+
+            auditDispatcher.publish(auditDto, payload);
+
+            log.info("SYNTHETIC AUDIT: {} - {} в {} мс", policy.shortName(), auditDto.status(), executionTime);
+        }
+    }
+
+    // Вложенный вызов становится дочерним узлом внешней записи: аргументы не сериализуются,
+    // сохраняются только имя, статус и время относительно начала внешнего вызова
+    private Object proceedAsSpan(ProceedingJoinPoint joinPoint, AuditMethodPolicy policy, AuditSpanNode parent)
+            throws Throwable {
+        if (policy.belowThreshold()) {
+            return proceedTimed(joinPoint, policy);
+        }
+
+        AuditSpanNode node = parent.child();
+        currentSpan.set(node);
+        long startNanos = System.nanoTime();
+        String status = "FAILED";
+        String errorMessage = null;
+        try {
+            Object result = joinPoint.proceed();
+            status = "SUCCESS";
+            return result;
+        } catch (Throwable e) {
+            errorMessage = e.getMessage();
+            throw e;
+        } finally {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            currentSpan.set(parent);
+            recordTime(policy, "SUCCESS".equals(status), elapsedNanos);
+            parent.addChild(node, policy.methodName(), status, errorMessage, startNanos, elapsedNanos);
+        }
+    }
+
+    // Внешний вызов пропущен выборкой или порогом: без корня вложенные вызовы стали бы отдельными записями
+    private Object proceedSuppressed(ProceedingJoinPoint joinPoint, AuditMethodPolicy policy) throws Throwable {
+        currentSpan.set(AuditSpanNode.SUPPRESSED);
+        try {
+            return proceedTimed(joinPoint, policy);
+        } finally {
+            currentSpan.remove();
+        }
+    }
+
+    // Таймеры учитывают все вызовы, в том числе не попавшие в аудит из-за порога или выборки
+    private Object proceedTimed(ProceedingJoinPoint joinPoint, AuditMethodPolicy policy) throws Throwable {
+        long startNanos = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = joinPoint.proceed();
+            success = true;
+            return result;
+        } finally {
+            recordTime(policy, success, System.nanoTime() - startNanos);
+        }
+    }
+
+    private static void recordTime(AuditMethodPolicy policy, boolean success, long elapsedNanos) {
+        Timer timer = success ? policy.successTimer() : policy.failureTimer();
+        if (timer != null) {
+            timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.http.HttpStatusCode;
+import ru.romanov.weyland.yutani.synthetic.dto.response.CommandResponseDTO;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+// Сериализаторы аудита для известных типов пишут те же поля, что Jackson для исходных классов, без отражения
+public class AuditJacksonModule extends SimpleModule {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy'T'HH:mm:ss");
+
+    public AuditJacksonModule() {
+        super("synthetic-audit");
+        addSerializer(Command.class, new CommandSerializer());
+        addSerializer(CommandSnapshot.class, new CommandSnapshotSerializer());
+        addSerializer(CommandResponseDTO.class, new CommandResponseSerializer());
+        addSerializer(ResponseSnapshot.class, new ResponseSnapshotSerializer());
+        addSerializer(RawJson.class, new RawJsonSerializer());
+    }
+
+    record RawJson(String json) {}
+
+    record ResponseSnapshot(Map<String, List<String>> headers, Object body, HttpStatusCode statusCode) {}
+
+    private static void writeCommand(JsonGenerator gen, String id, String description, Enum<?> priority, String author,
+                                     LocalDateTime time, Enum<?> status, LocalDateTime executedAt,
+                                     String executionResult) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("id", id);
+        gen.writeStringField("description", description);
+        writeEnum(gen, "priority", priority);
+        gen.writeStringField("author", author);
+        writeDateTime(gen, "time", time);
+        writeEnum(gen, "status", status);
+        writeDateTime(gen, "executedAt", executedAt);
+        gen.writeStringField("executionResult", executionResult);
+        gen.writeEndObject();
+    }
+
+    private static void writeEnum(JsonGenerator gen, String field, Enum<?> value) throws IOException {
+        gen.writeStringField(field, value != null ? value.name() : null);
+    }
+
+    private static void writeDateTime(JsonGenerator gen, String field, LocalDateTime value) throws IOException {
+        gen.writeStringField(field, value != null ? DATE_TIME_FORMATTER.format(value) : null);
+    }
+
+    private static class CommandSerializer extends StdSerializer<Command> {
+
+        CommandSerializer() {
+            super(Command.class);
+        }
+
+        @Override
+        public void serialize(Command value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeCommand(gen, value.getId(), value.getDescription(), value.getPriority(), value.getAuthor(),
+                    value.getTime(), value.getStatus(), value.getExecutedAt(), value.getExecutionResult());
+        }
+    }
+
+    private static class CommandSnapshotSerializer extends StdSerializer<CommandSnapshot> {
+
+        CommandSnapshotSerializer() {
+            super(CommandSnapshot.class);
+        }
+
+        @Override
+        public void serialize(CommandSnapshot value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeCommand(gen, value.id(), value.description(), value.priority(), value.author(),
+                    value.time(), value.status(), value.executedAt(), value.executionResult());
+        }
+    }
+
+    private static class CommandResponseSerializer extends StdSerializer<CommandResponseDTO> {
+
+        CommandResponseSerializer() {
+            super(CommandResponseDTO.class);
+        }
+
+        @Override
+        public void serialize(CommandResponseDTO value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("commandId", value.commandId());
+            gen.writeStringField("status", value.status());
+            gen.writeStringField("message", value.message());
+            writeDateTime(gen, "timestamp", value.timestamp());
+            gen.writeEndObject();
+        }
+    }
+
+    private static class ResponseSnapshotSerializer extends StdSerializer<ResponseSnapshot> {
+
+        ResponseSnapshotSerializer() {
+            super(ResponseSnapshot.class);
+        }
+
+        @Override
+        public void serialize(ResponseSnapshot value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeFieldName("headers");
+            provider.defaultSerializeValue(value.headers(), gen);
+            gen.writeFieldName("body");
+            provider.defaultSerializeValue(value.body(), gen);
+            gen.writeFieldName("statusCode");
+            provider.defaultSerializeValue(value.statusCode(), gen);
+            gen.writeNumberField("statusCodeValue", value.statusCode().value());
+            gen.writeEndObject();
+        }
+    }
+
+    private static class RawJsonSerializer extends StdSerializer<RawJson> {
+
+        RawJsonSerializer() {
+            super(RawJson.class);
+        }
+
+        @Override
+        public void serialize(RawJson value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeRawValue(value.json());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+
+public record AuditMethodPolicy(String methodName,
+                                String shortName,
+                                String description,
+                                AuditLevel level,
+                                boolean includeParameters,
+                                boolean includeResult,
+                                boolean belowThreshold,
+                                double sampleRate,
+                                Counter auditedCounter,
+                                Counter belowLevelCounter,
+                                Counter sampledOutCounter,
+                                Timer successTimer,
+                                Timer failureTimer
+) {}
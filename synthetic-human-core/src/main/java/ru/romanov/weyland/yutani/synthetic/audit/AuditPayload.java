@@ -0,0 +1,12 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import java.util.List;
+
+public record AuditPayload(List<Object> arguments,
+                           Object result
+) {
+
+    public AuditPayload withResult(Object result) {
+        return new AuditPayload(arguments, result);
+    }
+}
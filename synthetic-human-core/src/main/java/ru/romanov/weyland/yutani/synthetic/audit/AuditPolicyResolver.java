@@ -0,0 +1,179 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor
+@Component
+public class AuditPolicyResolver {
+
+    @NonFinal
+    @Value("${spring.weyland.audit.min-level:LOW}")
+    AuditLevel minLevel;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.sampling.low:1.0}")
+    double lowSampleRate;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.sampling.standard:1.0}")
+    double standardSampleRate;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.sampling.high:1.0}")
+    double highSampleRate;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.sampling.critical:1.0}")
+    double criticalSampleRate;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.sampling.method-overrides:}")
+    String methodOverrides;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.metrics.enabled:true}")
+    boolean timersEnabled;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.metrics.percentiles:0.5,0.95,0.99}")
+    double[] timerPercentiles;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.metrics.percentile-histogram:false}")
+    boolean timerPercentileHistogram;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.metrics.slo:}")
+    Duration[] timerSlo;
+
+    MeterRegistry meterRegistry;
+    Map<AuditLevel, Double> sampleRates = new EnumMap<>(AuditLevel.class);
+    Map<String, Double> overrides = new HashMap<>();
+    Map<Method, AuditMethodPolicy> policies = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        sampleRates.put(AuditLevel.LOW, lowSampleRate);
+        sampleRates.put(AuditLevel.STANDARD, standardSampleRate);
+        sampleRates.put(AuditLevel.HIGH, highSampleRate);
+        sampleRates.put(AuditLevel.CRITICAL, criticalSampleRate);
+
+        for (String entry : methodOverrides.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Некорректное переопределение выборки аудита: " + entry);
+            }
+            overrides.put(entry.substring(0, separator).trim(), Double.parseDouble(entry.substring(separator + 1).trim()));
+        }
+
+        log.info("Аудит: минимальный уровень {}, доли выборки {}, переопределений методов {}, таймеры методов {}",
+                minLevel, sampleRates, overrides.size(), timersEnabled ? "включены" : "отключены");
+    }
+
+    public AuditMethodPolicy policyFor(ProceedingJoinPoint joinPoint, WeylandWatchingYou weylandWatchingYou) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        AuditMethodPolicy policy = policies.get(method);
+        if (policy == null) {
+            policy = policies.computeIfAbsent(method, _ -> createPolicy(joinPoint, weylandWatchingYou));
+        }
+        return policy;
+    }
+
+    public boolean shouldAudit(AuditMethodPolicy policy) {
+        if (policy.belowThreshold()) {
+            policy.belowLevelCounter().increment();
+            return false;
+        }
+
+        double rate = policy.sampleRate();
+        if (rate < 1.0 && (rate <= 0.0 || ThreadLocalRandom.current().nextDouble() >= rate)) {
+            policy.sampledOutCounter().increment();
+            return false;
+        }
+
+        policy.auditedCounter().increment();
+        return true;
+    }
+
+    // Переопределение метода задает долю выборки явно и действует независимо от минимального уровня
+    private AuditMethodPolicy createPolicy(ProceedingJoinPoint joinPoint, WeylandWatchingYou weylandWatchingYou) {
+        String shortName = joinPoint.getSignature().getName();
+        Object target = joinPoint.getTarget();
+        Class<?> type = target != null ? target.getClass() : joinPoint.getSignature().getDeclaringType();
+        String className = type.getSimpleName();
+        String methodName = String.format("%s.%s", className, shortName);
+        AuditLevel level = weylandWatchingYou.level();
+
+        Double override = overrides.get(methodName);
+        boolean belowThreshold = override == null && level.compareTo(minLevel) < 0;
+        double sampleRate = override != null ? override : sampleRates.get(level);
+
+        return new AuditMethodPolicy(
+                methodName,
+                shortName,
+                weylandWatchingYou.description().isEmpty() ?
+                        String.format("Выполнение метода %s", shortName) : weylandWatchingYou.description(),
+                level,
+                weylandWatchingYou.includeParameters(),
+                weylandWatchingYou.includeResult(),
+                belowThreshold,
+                sampleRate,
+                decisionCounter(methodName, level, "audited"),
+                decisionCounter(methodName, level, "below_level"),
+                decisionCounter(methodName, level, "sampled_out"),
+                methodTimer(className, shortName, level, "success"),
+                methodTimer(className, shortName, level, "failure")
+        );
+    }
+
+    private Counter decisionCounter(String methodName, AuditLevel level, String decision) {
+        return Counter.builder("synthetic.audit.invocations")
+                .description("Вызовы аудируемых методов по решению аудита")
+                .tag("method", methodName)
+                .tag("level", level.name())
+                .tag("decision", decision)
+                .register(meterRegistry);
+    }
+
+    private Timer methodTimer(String className, String shortName, AuditLevel level, String outcome) {
+        if (!timersEnabled) {
+            return null;
+        }
+        return Timer.builder("synthetic.audit.method.time")
+                .description("Время выполнения аудируемых методов")
+                .tag("class", className)
+                .tag("method", shortName)
+                .tag("level", level.name())
+                .tag("outcome", outcome)
+                .publishPercentiles(timerPercentiles)
+                .publishPercentileHistogram(timerPercentileHistogram)
+                .serviceLevelObjectives(timerSlo)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Кольцевой буфер без блокировок: много производителей резервируют слоты CAS-ом, один потребитель читает по порядку
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AuditRingBuffer<T> {
+
+    int capacity;
+    int mask;
+    AtomicReferenceArray<T> slots;
+    AtomicLong tail = new AtomicLong();
+    AtomicLong head = new AtomicLong();
+
+    public AuditRingBuffer(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public boolean offer(T item) {
+        while (true) {
+            long currentTail = tail.get();
+            if (currentTail - head.get() >= capacity) {
+                return false;
+            }
+            if (tail.compareAndSet(currentTail, currentTail + 1)) {
+                slots.lazySet((int) currentTail & mask, item);
+                return true;
+            }
+        }
+    }
+
+    public int drainTo(List<T> target, int maxItems) {
+        long currentHead = head.get();
+        int drained = 0;
+
+        while (drained < maxItems) {
+            int index = (int) currentHead & mask;
+            T item = slots.get(index);
+            if (item == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            target.add(item);
+            currentHead++;
+            drained++;
+        }
+
+        if (drained > 0) {
+            head.lazySet(currentHead);
+        }
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
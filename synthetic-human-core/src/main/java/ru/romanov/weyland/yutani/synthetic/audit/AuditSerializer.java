@@ -0,0 +1,172 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditSerializationMode;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+
+import java.lang.reflect.RecordComponent;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Component
+public class AuditSerializer {
+
+    private static final int MAX_SNAPSHOT_DEPTH = 4;
+    private static final ClassValue<Boolean> VALUE_RECORDS = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return isValueRecord(type, 0);
+        }
+    };
+
+    @Getter
+    AuditSerializationMode mode;
+
+    ObjectMapper auditMapper;
+
+    public AuditSerializer(ObjectMapper objectMapper,
+                           @Value("${spring.weyland.audit.serialization:EAGER}") AuditSerializationMode mode) {
+        this.mode = mode;
+        this.auditMapper = objectMapper.copy().registerModule(new AuditJacksonModule());
+    }
+
+    public boolean isDeferred() {
+        return mode == AuditSerializationMode.DEFERRED;
+    }
+
+    public String serializeArguments(Object[] args) throws JsonProcessingException {
+        return auditMapper.writeValueAsString(Arrays.asList(args));
+    }
+
+    public String serialize(Object value) throws JsonProcessingException {
+        return auditMapper.writeValueAsString(value);
+    }
+
+    // Ответы из кэша уже сериализованы в байты, а у 304 нет тела: результат таких ответов в аудит не пишется
+    public boolean isAuditableResult(Object result) {
+        if (result instanceof ResponseEntity<?> response) {
+            return response.getStatusCode().value() != HttpStatus.NOT_MODIFIED.value()
+                    && !(response.getBody() instanceof byte[]);
+        }
+        return true;
+    }
+
+    public List<Object> snapshotArguments(Object[] args) {
+        List<Object> snapshots = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            snapshots.add(snapshot(arg, 0));
+        }
+        return snapshots;
+    }
+
+    public Object snapshotResult(Object result) {
+        return snapshot(result, 0);
+    }
+
+    public AuditDTO complete(AuditDTO record, AuditPayload payload) {
+        if (payload == null) {
+            return record;
+        }
+
+        AuditDTO.AuditDTOBuilder builder = record.toBuilder();
+        try {
+            if (payload.arguments() != null) {
+                builder.parameters(auditMapper.writeValueAsString(payload.arguments()));
+            }
+            if (payload.result() != null) {
+                builder.result(auditMapper.writeValueAsString(payload.result()));
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Не удалось сериализовать данные аудита {}: {}", record.methodName(), e.getOriginalMessage());
+        }
+        return builder.build();
+    }
+
+    // Неизменяемые значения сохраняются по ссылке, изменяемые копируются; неизвестные типы, в том числе записи
+    // с изменяемыми компонентами, сериализуются сразу, чтобы зафиксировать их состояние на момент вызова
+    private Object snapshot(Object value, int depth) {
+        if (value == null || isImmutable(value)) {
+            return value;
+        }
+        if (value instanceof Command command) {
+            return CommandSnapshot.of(command);
+        }
+        if (depth < MAX_SNAPSHOT_DEPTH) {
+            if (value instanceof ResponseEntity<?> response) {
+                Map<String, List<String>> headers = new LinkedHashMap<>();
+                response.getHeaders().forEach((name, values) -> headers.put(name, new ArrayList<>(values)));
+                return new AuditJacksonModule.ResponseSnapshot(headers, snapshot(response.getBody(), depth + 1),
+                        response.getStatusCode());
+            }
+            if (value instanceof Map<?, ?> map) {
+                Map<Object, Object> copy = new LinkedHashMap<>(Math.max(4, map.size() * 2));
+                map.forEach((key, item) -> copy.put(key, snapshot(item, depth + 1)));
+                return copy;
+            }
+            if (value instanceof Collection<?> collection) {
+                List<Object> copy = new ArrayList<>(collection.size());
+                collection.forEach(item -> copy.add(snapshot(item, depth + 1)));
+                return copy;
+            }
+        }
+
+        try {
+            return new AuditJacksonModule.RawJson(auditMapper.writeValueAsString(value));
+        } catch (JsonProcessingException e) {
+            return String.valueOf(value);
+        }
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value instanceof String
+                || value instanceof Number && value.getClass().getName().startsWith("java.lang.")
+                || value instanceof Boolean
+                || value instanceof Character
+                || value instanceof Enum<?>
+                || value instanceof TemporalAccessor && value.getClass().getName().startsWith("java.time.")
+                || value instanceof UUID
+                || value instanceof Record && VALUE_RECORDS.get(value.getClass());
+    }
+
+    // Запись хранится по ссылке, только если все ее компоненты объявлены неизменяемыми типами
+    private static boolean isValueRecord(Class<?> type, int depth) {
+        if (depth >= MAX_SNAPSHOT_DEPTH) {
+            return false;
+        }
+        for (RecordComponent component : type.getRecordComponents()) {
+            if (!isImmutableType(component.getType(), depth)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isImmutableType(Class<?> type, int depth) {
+        return type.isPrimitive()
+                || type == String.class
+                || type.isEnum()
+                || type == UUID.class
+                || type.getName().startsWith("java.lang.")
+                        && (Number.class.isAssignableFrom(type) || type == Boolean.class || type == Character.class)
+                || type.getName().startsWith("java.time.") && TemporalAccessor.class.isAssignableFrom(type)
+                || type.isRecord() && isValueRecord(type, depth + 1);
+    }
+}
@@ -0,0 +1,54 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import ru.romanov.weyland.yutani.synthetic.dto.AuditSpanDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Узел дерева вложенных аудируемых вызовов одного потока; лимит дочерних вызовов общий для всего дерева
+final class AuditSpanNode {
+
+    // Корень с нулевым лимитом узлов: вложенные вызовы под ним не попадают в аудит; дерево не меняется, поэтому он общий
+    static final AuditSpanNode SUPPRESSED = root(0, 0);
+
+    private final long rootStartNanos;
+    private final int[] remainingSpans;
+    private List<AuditSpanDTO> children;
+
+    private AuditSpanNode(long rootStartNanos, int[] remainingSpans) {
+        this.rootStartNanos = rootStartNanos;
+        this.remainingSpans = remainingSpans;
+    }
+
+    static AuditSpanNode root(long startNanos, int maxSpans) {
+        return new AuditSpanNode(startNanos, new int[]{maxSpans});
+    }
+
+    AuditSpanNode child() {
+        return new AuditSpanNode(rootStartNanos, remainingSpans);
+    }
+
+    void addChild(AuditSpanNode child, String methodName, String status, String errorMessage,
+                  long startNanos, long elapsedNanos) {
+        if (remainingSpans[0] <= 0) {
+            return;
+        }
+        remainingSpans[0]--;
+
+        if (children == null) {
+            children = new ArrayList<>(4);
+        }
+        children.add(new AuditSpanDTO(
+                methodName,
+                status,
+                errorMessage,
+                TimeUnit.NANOSECONDS.toMicros(startNanos - rootStartNanos),
+                TimeUnit.NANOSECONDS.toMicros(elapsedNanos),
+                child.children));
+    }
+
+    List<AuditSpanDTO> children() {
+        return children;
+    }
+}
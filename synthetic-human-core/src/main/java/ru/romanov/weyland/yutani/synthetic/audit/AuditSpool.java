@@ -0,0 +1,179 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.storage.MappedSegment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Файловый буфер аудита: peek читает пачку в порядке добавления, acknowledge подтверждает ее доставку
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AuditSpool implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "audit";
+
+    Path directory;
+    int segmentSize;
+    ObjectMapper objectMapper;
+    Deque<MappedSegment> segments = new ArrayDeque<>();
+    AtomicLong pendingRecords = new AtomicLong();
+
+    @NonFinal
+    MappedSegment active;
+
+    @NonFinal
+    long nextSegmentId;
+
+    @NonFinal
+    int readPosition;
+
+    @NonFinal
+    int peekedPosition = -1;
+
+    @NonFinal
+    int peekedCount;
+
+    public AuditSpool(String name, Path directory, int segmentSize, ObjectMapper objectMapper, MeterRegistry meterRegistry)
+            throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.objectMapper = objectMapper;
+
+        for (Path path : MappedSegment.list(this.directory, SEGMENT_PREFIX)) {
+            MappedSegment segment = MappedSegment.open(path);
+            segments.addLast(segment);
+            segment.scan(0, (_, _) -> {
+                pendingRecords.incrementAndGet();
+                return true;
+            });
+        }
+        this.nextSegmentId = segments.isEmpty() ? 1 : segments.peekLast().getId() + 1;
+
+        Gauge.builder("synthetic.audit.spool.records", pendingRecords, AtomicLong::get)
+                .description("Количество записей аудита, ожидающих доставки в файловом буфере")
+                .tag("spool", name)
+                .register(meterRegistry);
+
+        if (pendingRecords.get() > 0) {
+            log.warn("В файловом буфере аудита найдено недоставленных записей: {}", pendingRecords.get());
+        }
+    }
+
+    public synchronized void append(AuditDTO record) {
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(record);
+            if (active == null || active.append(payload) < 0) {
+                roll();
+                if (active.append(payload) < 0) {
+                    throw new IllegalArgumentException("Запись аудита больше сегмента файлового буфера");
+                }
+            }
+            pendingRecords.incrementAndGet();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized List<AuditDTO> peek(int maxRecords) {
+        List<AuditDTO> records = new ArrayList<>(Math.min(maxRecords, 256));
+
+        MappedSegment head = segments.peekFirst();
+        while (head != null && head != active && readPosition >= head.getWritePosition()) {
+            dropHead();
+            head = segments.peekFirst();
+        }
+        if (head == null) {
+            return records;
+        }
+
+        int[] end = {readPosition};
+        head.scan(readPosition, (position, payload) -> {
+            end[0] = position + MappedSegment.RECORD_HEADER_SIZE + payload.remaining();
+            records.add(decode(payload));
+            return records.size() < maxRecords;
+        });
+
+        peekedPosition = end[0];
+        peekedCount = records.size();
+        return records;
+    }
+
+    public synchronized void acknowledge() {
+        if (peekedPosition < 0) {
+            return;
+        }
+
+        readPosition = peekedPosition;
+        pendingRecords.addAndGet(-peekedCount);
+        peekedPosition = -1;
+        peekedCount = 0;
+
+        MappedSegment head = segments.peekFirst();
+        if (head != null && readPosition >= head.getWritePosition()) {
+            dropHead();
+        }
+    }
+
+    public boolean isEmpty() {
+        return pendingRecords.get() == 0;
+    }
+
+    public long size() {
+        return pendingRecords.get();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (MappedSegment segment : segments) {
+            segment.close();
+        }
+    }
+
+    private void roll() throws IOException {
+        if (active != null) {
+            active.force();
+        }
+        active = MappedSegment.create(directory, SEGMENT_PREFIX, nextSegmentId++, segmentSize);
+        segments.addLast(active);
+    }
+
+    private void dropHead() {
+        MappedSegment head = segments.pollFirst();
+        if (head == active) {
+            active = null;
+        }
+        readPosition = 0;
+        try {
+            head.delete();
+        } catch (IOException e) {
+            log.error("Не удалось удалить сегмент файлового буфера аудита {}: {}", head.getPath(), e.getMessage());
+        }
+    }
+
+    private AuditDTO decode(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        try {
+            return objectMapper.readValue(bytes, AuditDTO.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditSummaryDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditAggregationMode;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+import ru.romanov.weyland.yutani.synthetic.service.AuditService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor
+@Component
+public class AuditSummaryAggregator {
+
+    private static final String SUMMARY_STATUS = "SUMMARY";
+    private static final String UNKNOWN = "UNKNOWN";
+
+    @NonFinal
+    @Value("${spring.weyland.audit.aggregation:RECORDS}")
+    AuditAggregationMode aggregationMode;
+
+    @NonFinal
+    @Value("${spring.weyland.audit.summary.flush-interval:10s}")
+    Duration flushInterval;
+
+    AuditService auditService;
+    ObjectMapper objectMapper;
+    MeterRegistry meterRegistry;
+    Map<String, MethodSummary> summaries = new ConcurrentHashMap<>();
+
+    @NonFinal
+    ScheduledExecutorService flusher;
+
+    @NonFinal
+    Counter foldedCounter;
+
+    @NonFinal
+    volatile LocalDateTime windowStart;
+
+    @PostConstruct
+    public void init() {
+        if (aggregationMode != AuditAggregationMode.SUMMARY) {
+            return;
+        }
+
+        foldedCounter = Counter.builder("synthetic.audit.summary.folded")
+                .description("Количество вызовов, учтенных только в сводке аудита")
+                .register(meterRegistry);
+        Gauge.builder("synthetic.audit.summary.methods", summaries, Map::size)
+                .description("Количество методов в сводке аудита")
+                .register(meterRegistry);
+
+        windowStart = LocalDateTime.now();
+        flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("synthetic-audit-summary")
+                .daemon()
+                .factory());
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleAtFixedRate(this::flushSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+
+        log.info("Сводный аудит включен: период {} с", flushInterval.toSeconds());
+    }
+
+    // Учитывает вызов в сводке; true означает, что отдельная запись не нужна.
+    // Неуспешные и CRITICAL вызовы попадают в сводку и все равно отправляются по одному
+    public boolean fold(AuditDTO record) {
+        if (flusher == null) {
+            return false;
+        }
+
+        String methodName = record.methodName() != null ? record.methodName() : UNKNOWN;
+        summaries.computeIfAbsent(methodName, _ -> new MethodSummary()).record(record);
+
+        boolean folded = "SUCCESS".equals(record.status()) && record.level() != AuditLevel.CRITICAL;
+        if (folded) {
+            foldedCounter.increment();
+        }
+        return folded;
+    }
+
+    public void flush() {
+        LocalDateTime start = windowStart;
+        LocalDateTime end = LocalDateTime.now();
+        windowStart = end;
+
+        List<AuditDTO> records = new ArrayList<>(summaries.size());
+        summaries.forEach((methodName, summary) -> {
+            AuditDTO record = summary.drain(methodName, start, end);
+            if (record != null) {
+                records.add(record);
+            }
+        });
+
+        if (!records.isEmpty()) {
+            auditService.sendAuditRecords(records);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (flusher == null) {
+            return;
+        }
+
+        flusher.shutdownNow();
+        flushSafely();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Ошибка отправки сводки аудита: {}", e.getMessage(), e);
+        }
+    }
+
+    private String toJson(AuditSummaryDTO summary) {
+        try {
+            return objectMapper.writeValueAsString(summary);
+        } catch (JsonProcessingException e) {
+            log.warn("Не удалось сериализовать сводку аудита: {}", e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private final class MethodSummary {
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final long[] levelCounts = new long[AuditLevel.values().length];
+        final Map<String, long[]> statusCounts = new HashMap<>();
+        String description;
+        AuditLevel highestLevel;
+        long errors;
+
+        synchronized void record(AuditDTO record) {
+            histogram.record(record.executionTimeMs());
+            if (record.level() != null) {
+                levelCounts[record.level().ordinal()]++;
+                if (highestLevel == null || record.level().compareTo(highestLevel) > 0) {
+                    highestLevel = record.level();
+                }
+            }
+
+            String status = record.status() != null ? record.status() : UNKNOWN;
+            statusCounts.computeIfAbsent(status, _ -> new long[1])[0]++;
+            if (!"SUCCESS".equals(status)) {
+                errors++;
+            }
+            description = record.description();
+        }
+
+        synchronized AuditDTO drain(String methodName, LocalDateTime start, LocalDateTime end) {
+            long count = histogram.getTotalCount();
+            if (count == 0) {
+                return null;
+            }
+
+            Map<AuditLevel, Long> byLevel = new EnumMap<>(AuditLevel.class);
+            for (AuditLevel level : AuditLevel.values()) {
+                if (levelCounts[level.ordinal()] > 0) {
+                    byLevel.put(level, levelCounts[level.ordinal()]);
+                }
+            }
+            Map<String, Long> byStatus = new HashMap<>();
+            statusCounts.forEach((status, counter) -> {
+                if (counter[0] > 0) {
+                    byStatus.put(status, counter[0]);
+                }
+            });
+
+            AuditSummaryDTO.Latency latency = histogram.toLatency();
+            AuditSummaryDTO summary = new AuditSummaryDTO(start, end, count, errors, (double) errors / count,
+                    byLevel, byStatus, latency);
+
+            AuditDTO record = AuditDTO.builder()
+                    .timestamp(end)
+                    .methodName(methodName)
+                    .description(description)
+                    .result(toJson(summary))
+                    .status(SUMMARY_STATUS)
+                    .executionTimeMs(latency.max())
+                    .level(highestLevel != null ? highestLevel : AuditLevel.LOW)
+                    .build();
+
+            histogram.reset();
+            statusCounts.values().forEach(counter -> counter[0] = 0);
+            Arrays.fill(levelCounts, 0);
+            highestLevel = null;
+            errors = 0;
+            return record;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.model.CommandStatus;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+
+import java.time.LocalDateTime;
+
+public record CommandSnapshot(String id,
+                              String description,
+                              Priority priority,
+                              String author,
+                              LocalDateTime time,
+                              CommandStatus status,
+                              LocalDateTime executedAt,
+                              String executionResult
+) {
+
+    public static CommandSnapshot of(Command command) {
+        return new CommandSnapshot(
+                command.getId(),
+                command.getDescription(),
+                command.getPriority(),
+                command.getAuthor(),
+                command.getTime(),
+                command.getStatus(),
+                command.getExecutedAt(),
+                command.getExecutionResult()
+        );
+    }
+}
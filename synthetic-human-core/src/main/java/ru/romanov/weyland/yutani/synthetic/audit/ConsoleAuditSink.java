@@ -0,0 +1,35 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditConsoleFormat;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Component
+public class ConsoleAuditSink {
+
+    public static final String AUDIT_LOGGER = "ru.romanov.weyland.yutani.synthetic.audit.records";
+
+    private static final Logger auditLog = LoggerFactory.getLogger(AUDIT_LOGGER);
+
+    StructuredAuditEncoder encoder;
+
+    public ConsoleAuditSink(@Value("${spring.weyland.audit.console.format:TEXT}") AuditConsoleFormat format) {
+        this.encoder = new StructuredAuditEncoder(format);
+    }
+
+    public void write(AuditDTO auditDto) {
+        if (auditLog.isInfoEnabled()) {
+            auditLog.info(encoder.encode(auditDto));
+        }
+    }
+
+    public AuditConsoleFormat getFormat() {
+        return encoder.getFormat();
+    }
+}
@@ -0,0 +1,215 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Пока Kafka недоступна, записи копятся в файловом буфере в порядке публикации и возвращаются фоновым потоком
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class KafkaAuditRelay implements Closeable {
+
+    KafkaAuditSink sink;
+    AuditCircuitBreaker circuitBreaker;
+    AuditSpool spool;
+    int replayBatchSize;
+    long replayIntervalNanos;
+    Duration replayTimeout;
+    Thread replayer;
+
+    // Порядковые номера связывают прямые отправки и записи, ожидающие переноса в буфер
+    AtomicLong sequence = new AtomicLong();
+    ConcurrentSkipListSet<Long> unresolvedSends = new ConcurrentSkipListSet<>();
+    ConcurrentSkipListMap<Long, AuditDTO> pendingSpool = new ConcurrentSkipListMap<>();
+
+    Counter spooledCounter;
+    Counter replayedCounter;
+
+    @NonFinal
+    volatile boolean replayerParked;
+
+    @NonFinal
+    volatile boolean running;
+
+    @Builder
+    public KafkaAuditRelay(KafkaAuditSink sink,
+                           AuditCircuitBreaker circuitBreaker,
+                           AuditSpool spool,
+                           int replayBatchSize,
+                           Duration replayInterval,
+                           Duration replayTimeout,
+                           MeterRegistry meterRegistry) {
+        this.sink = sink;
+        this.circuitBreaker = circuitBreaker;
+        this.spool = spool;
+        this.replayBatchSize = replayBatchSize;
+        this.replayIntervalNanos = replayInterval.toNanos();
+        this.replayTimeout = replayTimeout;
+
+        this.spooledCounter = Counter.builder("synthetic.audit.kafka.spooled")
+                .description("Записи аудита, отложенные в файловый буфер из-за недоступности Kafka")
+                .register(meterRegistry);
+        this.replayedCounter = Counter.builder("synthetic.audit.kafka.replayed")
+                .description("Записи аудита, доставленные в Kafka из файлового буфера")
+                .register(meterRegistry);
+
+        this.replayer = Thread.ofPlatform()
+                .name("synthetic-audit-kafka-replayer")
+                .daemon()
+                .unstarted(this::replayLoop);
+    }
+
+    public void start() {
+        running = true;
+        replayer.start();
+    }
+
+    public void publish(AuditDTO auditDto) {
+        long seq = sequence.incrementAndGet();
+        if (!spool.isEmpty() || !pendingSpool.isEmpty() || !circuitBreaker.isClosed()) {
+            deferToSpool(seq, auditDto);
+            return;
+        }
+
+        unresolvedSends.add(seq);
+        try {
+            sink.send(auditDto).whenComplete((_, ex) -> {
+                if (ex == null) {
+                    circuitBreaker.onSuccess();
+                    unresolvedSends.remove(seq);
+                    if (!pendingSpool.isEmpty()) {
+                        wakeReplayer();
+                    }
+                } else {
+                    circuitBreaker.onFailure();
+                    resolveFailed(seq, auditDto);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Kafka не приняла запись аудита: {}", e.getMessage());
+            circuitBreaker.onFailure();
+            resolveFailed(seq, auditDto);
+        }
+    }
+
+    public String getTopic() {
+        return sink.getTopic();
+    }
+
+    // Вызывается и из потока продюсера: сама запись в буфер выполняется только потоком повторной доставки
+    private void resolveFailed(long seq, AuditDTO auditDto) {
+        pendingSpool.put(seq, auditDto);
+        unresolvedSends.remove(seq);
+        wakeReplayer();
+    }
+
+    private void deferToSpool(long seq, AuditDTO auditDto) {
+        pendingSpool.put(seq, auditDto);
+        wakeReplayer();
+    }
+
+    private void wakeReplayer() {
+        if (replayerParked) {
+            LockSupport.unpark(replayer);
+        }
+    }
+
+    // Запись переносится в буфер, только когда все более ранние отправки завершены
+    private void drainPendingSpool(boolean force) {
+        Map.Entry<Long, AuditDTO> next;
+        while ((next = pendingSpool.firstEntry()) != null && (force || isReadyToSpool(next.getKey()))) {
+            pendingSpool.remove(next.getKey());
+            spool.append(next.getValue());
+            spooledCounter.increment();
+        }
+    }
+
+    private boolean isReadyToSpool(long seq) {
+        Long earliestUnresolved = unresolvedSends.ceiling(Long.MIN_VALUE);
+        return earliestUnresolved == null || earliestUnresolved > seq;
+    }
+
+    private boolean hasReadyPendingSpool() {
+        Map.Entry<Long, AuditDTO> first = pendingSpool.firstEntry();
+        return first != null && isReadyToSpool(first.getKey());
+    }
+
+    private void replayLoop() {
+        while (running) {
+            try {
+                drainPendingSpool(false);
+                if (spool.isEmpty() || !replayBatch()) {
+                    replayerParked = true;
+                    if (!hasReadyPendingSpool() && running) {
+                        LockSupport.parkNanos(replayIntervalNanos);
+                    }
+                    replayerParked = false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Ошибка повторной доставки аудита в Kafka: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private boolean replayBatch() throws InterruptedException {
+        List<AuditDTO> batch = spool.peek(replayBatchSize);
+        if (batch.isEmpty() || !circuitBreaker.tryAcquire()) {
+            return false;
+        }
+
+        try {
+            CompletableFuture<?>[] sends = new CompletableFuture<?>[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                sends[i] = sink.send(batch.get(i));
+            }
+            sink.flush();
+            CompletableFuture.allOf(sends).get(replayTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            log.warn("Повторная доставка {} записей аудита не удалась: {}", batch.size(), e.getMessage());
+            circuitBreaker.onFailure();
+            return false;
+        }
+
+        spool.acknowledge();
+        circuitBreaker.onSuccess();
+        replayedCounter.increment(batch.size());
+        log.debug("Из файлового буфера в Kafka доставлено записей аудита: {}", batch.size());
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        replayer.interrupt();
+        try {
+            replayer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Незавершенные отправки уже не дождаться: отложенные записи сохраняются, чтобы не потерять их
+        drainPendingSpool(true);
+        spool.close();
+    }
+}
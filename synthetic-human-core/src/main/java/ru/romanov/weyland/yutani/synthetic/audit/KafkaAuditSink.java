@@ -0,0 +1,88 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import ru.romanov.weyland.yutani.synthetic.audit.codec.AuditRecordEncoder;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.trace.TraceContext;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class KafkaAuditSink {
+
+    public static final String FORMAT_HEADER = "audit-format";
+
+    KafkaTemplate<String, byte[]> kafkaTemplate;
+    String topic;
+    AuditRecordEncoder encoder;
+    byte[] formatHeader;
+
+    Counter successCounter;
+    Counter failureCounter;
+    Timer sendLatencyTimer;
+
+    public KafkaAuditSink(KafkaTemplate<String, byte[]> kafkaTemplate,
+                          String topic,
+                          AuditRecordEncoder encoder,
+                          MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+        this.encoder = encoder;
+        this.formatHeader = encoder.format().getBytes(StandardCharsets.UTF_8);
+
+        this.successCounter = Counter.builder("synthetic.audit.kafka.sends")
+                .description("Записи аудита, подтвержденные Kafka")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("synthetic.audit.kafka.sends")
+                .description("Записи аудита, не доставленные в Kafka")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+        this.sendLatencyTimer = Timer.builder("synthetic.audit.kafka.latency")
+                .description("Время от отправки записи аудита до подтверждения Kafka")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    // Ключ - имя метода: записи одного метода попадают в одну партицию и сохраняют порядок
+    public CompletableFuture<SendResult<String, byte[]>> send(AuditDTO auditDto) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, auditDto.methodName(), encoder.encode(auditDto));
+        record.headers().add(FORMAT_HEADER, formatHeader);
+        if (auditDto.traceId() != null && auditDto.spanId() != null) {
+            record.headers().add(TraceContext.TRACEPARENT_HEADER,
+                    TraceContext.traceparent(auditDto.traceId(), auditDto.spanId(), true).getBytes(StandardCharsets.US_ASCII));
+        }
+        long start = System.nanoTime();
+
+        return kafkaTemplate.send(record)
+                .whenComplete((_, ex) -> {
+                    sendLatencyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    if (ex == null) {
+                        successCounter.increment();
+                    } else {
+                        failureCounter.increment();
+                        log.warn("Запись аудита {} не доставлена в Kafka: {}", auditDto.methodName(), ex.getMessage());
+                    }
+                });
+    }
+
+    public void flush() {
+        kafkaTemplate.flush();
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+}
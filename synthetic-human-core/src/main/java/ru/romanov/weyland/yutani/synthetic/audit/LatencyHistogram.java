@@ -0,0 +1,95 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditSummaryDTO;
+
+import java.util.Arrays;
+
+// Лог-линейная гистограмма задержек: до 128 точно, дальше погрешность не более 1/64. Не потокобезопасна
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final long MAX_VALUE = Integer.MAX_VALUE;
+    private static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+    final long[] counts = new long[BUCKET_COUNT];
+    long totalCount;
+    long sum;
+    long min = Long.MAX_VALUE;
+    long max;
+
+    public void record(long value) {
+        long clamped = Math.clamp(value, 0, MAX_VALUE);
+        counts[indexOf(clamped)]++;
+        totalCount++;
+        sum += clamped;
+        min = Math.min(min, clamped);
+        max = Math.max(max, clamped);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int index = 0; index < counts.length; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(index), max);
+            }
+        }
+        return max;
+    }
+
+    public AuditSummaryDTO.Latency toLatency() {
+        if (totalCount == 0) {
+            return new AuditSummaryDTO.Latency(0, 0, 0, 0, 0, 0, 0);
+        }
+        return new AuditSummaryDTO.Latency(
+                min,
+                (double) sum / totalCount,
+                valueAtPercentile(50),
+                valueAtPercentile(90),
+                valueAtPercentile(99),
+                valueAtPercentile(99.9),
+                max);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // Сдвиг, при котором значение попадает в верхнюю половину корзин [64, 128)
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift);
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT + (subBucket - SUB_BUCKET_HALF_COUNT);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int offset = index - SUB_BUCKET_COUNT;
+        int shift = offset / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = offset % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return (subBucket << shift) + (1L << shift) - 1;
+    }
+}
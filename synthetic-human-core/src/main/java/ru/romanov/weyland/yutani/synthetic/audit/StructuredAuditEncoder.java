@@ -0,0 +1,280 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditSpanDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditConsoleFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Кодирует запись аудита в переиспользуемый буфер потока без String.format; параметры и результат уже JSON
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class StructuredAuditEncoder {
+
+    private static final int INITIAL_BUFFER_SIZE = 512;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+    private static final String TEXT_SEPARATOR = "----------------------------------------------------------";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Getter
+    AuditConsoleFormat format;
+
+    ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_SIZE));
+
+    public StructuredAuditEncoder(AuditConsoleFormat format) {
+        this.format = format;
+    }
+
+    public String encode(AuditDTO auditDto) {
+        StringBuilder sb = buffers.get();
+        sb.setLength(0);
+        encodeTo(auditDto, sb);
+        String line = sb.toString();
+
+        // Одна огромная запись не должна навсегда закрепить за потоком большой буфер
+        if (sb.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            buffers.remove();
+        }
+        return line;
+    }
+
+    public void encodeTo(AuditDTO auditDto, StringBuilder sb) {
+        switch (format) {
+            case JSON -> encodeJson(auditDto, sb);
+            case LOGFMT -> encodeLogfmt(auditDto, sb);
+            case TEXT -> encodeText(auditDto, sb);
+        }
+    }
+
+    private static void encodeJson(AuditDTO auditDto, StringBuilder sb) {
+        sb.append("{\"timestamp\":\"");
+        appendTimestamp(auditDto.timestamp(), sb);
+        sb.append('"');
+        jsonField("level", auditDto.level() != null ? auditDto.level().name() : null, sb);
+        jsonField("methodName", auditDto.methodName(), sb);
+        jsonField("status", auditDto.status(), sb);
+        jsonField("traceId", auditDto.traceId(), sb);
+        jsonField("spanId", auditDto.spanId(), sb);
+        sb.append(",\"executionTimeMs\":").append(auditDto.executionTimeMs());
+        jsonField("description", auditDto.description(), sb);
+        jsonRawField("parameters", auditDto.parameters(), sb);
+        jsonRawField("result", auditDto.result(), sb);
+        jsonField("errorMessage", auditDto.errorMessage(), sb);
+        if (auditDto.spans() != null) {
+            sb.append(",\"spans\":");
+            appendJsonSpans(auditDto.spans(), sb);
+        }
+        sb.append('}');
+    }
+
+    private static void appendJsonSpans(List<AuditSpanDTO> spans, StringBuilder sb) {
+        sb.append('[');
+        for (int i = 0; i < spans.size(); i++) {
+            AuditSpanDTO span = spans.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"methodName\":\"");
+            appendJsonEscaped(String.valueOf(span.methodName()), sb);
+            sb.append('"');
+            jsonField("status", span.status(), sb);
+            jsonField("errorMessage", span.errorMessage(), sb);
+            sb.append(",\"offsetMicros\":").append(span.offsetMicros());
+            sb.append(",\"durationMicros\":").append(span.durationMicros());
+            if (span.children() != null) {
+                sb.append(",\"children\":");
+                appendJsonSpans(span.children(), sb);
+            }
+            sb.append('}');
+        }
+        sb.append(']');
+    }
+
+    private static void jsonField(String name, String value, StringBuilder sb) {
+        if (value == null) {
+            return;
+        }
+        sb.append(",\"").append(name).append("\":\"");
+        appendJsonEscaped(value, sb);
+        sb.append('"');
+    }
+
+    private static void jsonRawField(String name, String json, StringBuilder sb) {
+        if (json == null) {
+            return;
+        }
+        sb.append(",\"").append(name).append("\":").append(json);
+    }
+
+    private static void appendJsonEscaped(String value, StringBuilder sb) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void encodeLogfmt(AuditDTO auditDto, StringBuilder sb) {
+        sb.append("timestamp=");
+        appendTimestamp(auditDto.timestamp(), sb);
+        logfmtField("level", auditDto.level() != null ? auditDto.level().name() : null, sb);
+        logfmtField("method", auditDto.methodName(), sb);
+        logfmtField("status", auditDto.status(), sb);
+        logfmtField("trace_id", auditDto.traceId(), sb);
+        logfmtField("span_id", auditDto.spanId(), sb);
+        sb.append(" duration_ms=").append(auditDto.executionTimeMs());
+        logfmtField("description", auditDto.description(), sb);
+        logfmtField("parameters", auditDto.parameters(), sb);
+        logfmtField("result", auditDto.result(), sb);
+        logfmtField("error", auditDto.errorMessage(), sb);
+        if (auditDto.spans() != null) {
+            sb.append(" spans=\"");
+            appendCompactSpans(auditDto.spans(), sb);
+            sb.append('"');
+        }
+    }
+
+    // Компактная запись дерева для logfmt: Метод:СТАТУС:длительность_мкс{вложенные},...
+    private static void appendCompactSpans(List<AuditSpanDTO> spans, StringBuilder sb) {
+        for (int i = 0; i < spans.size(); i++) {
+            AuditSpanDTO span = spans.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(span.methodName()).append(':').append(span.status()).append(':').append(span.durationMicros());
+            if (span.children() != null) {
+                sb.append('{');
+                appendCompactSpans(span.children(), sb);
+                sb.append('}');
+            }
+        }
+    }
+
+    private static void logfmtField(String name, String value, StringBuilder sb) {
+        if (value == null) {
+            return;
+        }
+        sb.append(' ').append(name).append('=');
+        if (!needsQuoting(value)) {
+            sb.append(value);
+            return;
+        }
+
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                default -> sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    private static boolean needsQuoting(String value) {
+        if (value.isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c <= ' ' || c == '=' || c == '"' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void encodeText(AuditDTO auditDto, StringBuilder sb) {
+        sb.append('\n').append(TEXT_SEPARATOR);
+        sb.append("\nВремя: ");
+        appendTimestamp(auditDto.timestamp(), sb);
+        sb.append("\nМетод: ").append(auditDto.methodName());
+        sb.append("\nОписание: ").append(auditDto.description());
+        sb.append("\nСтатус: ").append(auditDto.status());
+        sb.append("\nВремя выполнения: ").append(auditDto.executionTimeMs()).append(" мс");
+        sb.append("\nУровень: ").append(auditDto.level());
+        if (auditDto.traceId() != null) {
+            sb.append("\nТрассировка: ").append(auditDto.traceId()).append('/').append(auditDto.spanId());
+        }
+
+        if (auditDto.parameters() != null) {
+            sb.append("\nПараметры: ").append(auditDto.parameters());
+        }
+        if (auditDto.result() != null) {
+            sb.append("\nРезультат: ").append(auditDto.result());
+        }
+        if (auditDto.errorMessage() != null) {
+            sb.append("\nОшибка: ").append(auditDto.errorMessage());
+        }
+        if (auditDto.spans() != null) {
+            sb.append("\nВложенные вызовы:");
+            appendTextSpans(auditDto.spans(), 1, sb);
+        }
+        sb.append('\n').append(TEXT_SEPARATOR);
+    }
+
+    private static void appendTextSpans(List<AuditSpanDTO> spans, int depth, StringBuilder sb) {
+        for (AuditSpanDTO span : spans) {
+            sb.append('\n');
+            for (int i = 0; i < depth; i++) {
+                sb.append("  ");
+            }
+            sb.append(span.methodName()).append(" - ").append(span.status())
+                    .append(" в ").append(span.durationMicros()).append(" мкс (+").append(span.offsetMicros()).append(" мкс)");
+            if (span.errorMessage() != null) {
+                sb.append(": ").append(span.errorMessage());
+            }
+            if (span.children() != null) {
+                appendTextSpans(span.children(), depth + 1, sb);
+            }
+        }
+    }
+
+    // ISO-8601 с миллисекундами; DateTimeFormatter создает на каждую запись несколько промежуточных объектов
+    private static void appendTimestamp(LocalDateTime timestamp, StringBuilder sb) {
+        if (timestamp == null) {
+            sb.append("null");
+            return;
+        }
+        appendPadded(timestamp.getYear(), 4, sb);
+        sb.append('-');
+        appendPadded(timestamp.getMonthValue(), 2, sb);
+        sb.append('-');
+        appendPadded(timestamp.getDayOfMonth(), 2, sb);
+        sb.append('T');
+        appendPadded(timestamp.getHour(), 2, sb);
+        sb.append(':');
+        appendPadded(timestamp.getMinute(), 2, sb);
+        sb.append(':');
+        appendPadded(timestamp.getSecond(), 2, sb);
+        sb.append('.');
+        appendPadded(timestamp.getNano() / 1_000_000, 3, sb);
+    }
+
+    private static void appendPadded(int value, int width, StringBuilder sb) {
+        for (int limit = 10, digits = 1; digits < width; limit *= 10, digits++) {
+            if (value < limit) {
+                sb.append('0');
+            }
+        }
+        sb.append(value);
+    }
+}
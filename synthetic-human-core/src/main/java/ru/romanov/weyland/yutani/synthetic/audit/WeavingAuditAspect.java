@@ -0,0 +1,43 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+// Аспект вплетения AspectJ (профиль aspectj-weaving или META-INF/aop.xml с агентом); экземпляр создает AspectJ
+@Aspect
+public class WeavingAuditAspect {
+
+    private volatile AuditInterceptor auditInterceptor;
+
+    public void setAuditInterceptor(AuditInterceptor auditInterceptor) {
+        this.auditInterceptor = auditInterceptor;
+    }
+
+    // Вплетенный класс получает служебные члены ajc$ и методы *_aroundBody для точек соединения
+    public static boolean isWoven(Class<?> type) {
+        for (Field field : type.getDeclaredFields()) {
+            if (field.getName().startsWith("ajc$")) {
+                return true;
+            }
+        }
+        for (Method method : type.getDeclaredMethods()) {
+            if (method.getName().contains("_aroundBody")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Around("execution(@ru.romanov.weyland.yutani.synthetic.audit.WeylandWatchingYou * *(..)) && @annotation(weylandWatchingYou)")
+    public Object auditMethod(ProceedingJoinPoint joinPoint, WeylandWatchingYou weylandWatchingYou) throws Throwable {
+        AuditInterceptor interceptor = auditInterceptor;
+        if (interceptor == null) {
+            return joinPoint.proceed();
+        }
+        return interceptor.intercept(joinPoint, weylandWatchingYou);
+    }
+}
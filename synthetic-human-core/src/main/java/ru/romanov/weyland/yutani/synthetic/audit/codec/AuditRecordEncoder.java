@@ -0,0 +1,10 @@
+package ru.romanov.weyland.yutani.synthetic.audit.codec;
+
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+
+public interface AuditRecordEncoder {
+
+    byte[] encode(AuditDTO auditDto);
+
+    String format();
+}
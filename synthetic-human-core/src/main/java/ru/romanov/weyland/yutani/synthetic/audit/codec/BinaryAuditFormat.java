@@ -0,0 +1,138 @@
+package ru.romanov.weyland.yutani.synthetic.audit.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Двоичная запись аудита, версия 2: u8 версия, u8 флаги, u8 уровень, u8 статус, varlong время (мс UTC),
+// varlong длительность (мс), ссылка на метод, [описание] [параметры] [результат] [ошибка] [статус строкой]
+// [вложенные вызовы] [трасса: 16 байт traceId, 8 байт spanId]. Ссылка на метод - varint (id << 1 | признак определения), словарь имен действует
+// в пределах одной записи. Строки и байты - varint-длина и данные; параметры и результат уже JSON.
+// Вложенный вызов: ссылка на метод, u8 статус (старший бит - наличие ошибки), [статус строкой],
+// varlong смещение и длительность в мкс, [ошибка] и рекурсивно его вложенные вызовы. Трасса пишется последней
+// без длины, поэтому ранние декодеры версии 2 ее просто не читают. Версия 1 читается как есть
+final class BinaryAuditFormat {
+
+    static final byte SCHEMA_VERSION = 2;
+    static final byte MIN_SCHEMA_VERSION = 1;
+    static final String FORMAT_PREFIX = "binary-v";
+    static final String FORMAT = FORMAT_PREFIX + SCHEMA_VERSION;
+
+    static final int HAS_DESCRIPTION = 1;
+    static final int HAS_PARAMETERS = 1 << 1;
+    static final int HAS_RESULT = 1 << 2;
+    static final int HAS_ERROR = 1 << 3;
+    static final int HAS_SPANS = 1 << 4;
+    static final int HAS_TRACE = 1 << 5;
+
+    static final int TRACE_ID_BYTES = 16;
+    static final int SPAN_ID_BYTES = 8;
+
+    static final int SPAN_HAS_ERROR = 0x80;
+    static final int SPAN_STATUS_MASK = 0x7F;
+
+    static final byte NO_LEVEL = -1;
+
+    static final byte STATUS_SUCCESS = 0;
+    static final byte STATUS_FAILED = 1;
+    static final byte STATUS_NONE = 2;
+    static final byte STATUS_OTHER = 3;
+
+    private BinaryAuditFormat() {
+    }
+
+    static final class Writer {
+
+        private byte[] buffer;
+        private int position;
+
+        Writer(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeRaw(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeString(String value) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (position + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+            }
+        }
+    }
+
+    static final class Reader {
+
+        private final ByteBuffer buffer;
+
+        Reader(byte[] payload) {
+            this.buffer = ByteBuffer.wrap(payload);
+        }
+
+        byte readByte() {
+            return buffer.get();
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                if (shift >= 64) {
+                    throw new IllegalArgumentException("Некорректное число переменной длины в записи аудита");
+                }
+                current = buffer.get();
+                value |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            return value;
+        }
+
+        byte[] readBytes() {
+            byte[] bytes = new byte[Math.toIntExact(readVarLong())];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        byte[] readRaw(int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        String readString() {
+            return new String(readBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
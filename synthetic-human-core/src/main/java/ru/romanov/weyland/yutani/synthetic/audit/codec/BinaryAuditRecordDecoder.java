@@ -0,0 +1,126 @@
+package ru.romanov.weyland.yutani.synthetic.audit.codec;
+
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditSpanDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import static ru.romanov.weyland.yutani.synthetic.audit.codec.BinaryAuditFormat.*;
+
+// Каждая запись декодируется независимо: словарь имен методов строится заново для каждой записи
+public class BinaryAuditRecordDecoder {
+
+    private static final AuditLevel[] LEVELS = AuditLevel.values();
+    private static final HexFormat HEX = HexFormat.of();
+
+    public static boolean supports(String format) {
+        if (format == null || !format.startsWith(FORMAT_PREFIX)) {
+            return false;
+        }
+        try {
+            int version = Integer.parseInt(format.substring(FORMAT_PREFIX.length()));
+            return version >= MIN_SCHEMA_VERSION && version <= SCHEMA_VERSION;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public AuditDTO decode(byte[] payload, String key) {
+        Reader reader = new Reader(payload);
+
+        byte version = reader.readByte();
+        if (version < MIN_SCHEMA_VERSION || version > SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Неподдерживаемая версия схемы записи аудита: " + version);
+        }
+
+        int flags = reader.readByte();
+        byte level = reader.readByte();
+        byte status = reader.readByte();
+        long epochMillis = reader.readVarLong();
+        long executionTimeMs = reader.readVarLong();
+        Map<Long, String> methodNames = new HashMap<>();
+        String methodName = readMethod(reader, methodNames, key);
+
+        String description = (flags & HAS_DESCRIPTION) != 0 ? reader.readString() : null;
+        String parameters = (flags & HAS_PARAMETERS) != 0 ? new String(reader.readBytes(), StandardCharsets.UTF_8) : null;
+        String result = (flags & HAS_RESULT) != 0 ? new String(reader.readBytes(), StandardCharsets.UTF_8) : null;
+        String errorMessage = (flags & HAS_ERROR) != 0 ? reader.readString() : null;
+        String statusName = switch (status) {
+            case STATUS_SUCCESS -> "SUCCESS";
+            case STATUS_FAILED -> "FAILED";
+            case STATUS_OTHER -> reader.readString();
+            default -> null;
+        };
+        List<AuditSpanDTO> spans = (flags & HAS_SPANS) != 0 ? readSpans(reader, methodNames) : null;
+        String traceId = (flags & HAS_TRACE) != 0 ? HEX.formatHex(reader.readRaw(TRACE_ID_BYTES)) : null;
+        String spanId = (flags & HAS_TRACE) != 0 ? HEX.formatHex(reader.readRaw(SPAN_ID_BYTES)) : null;
+
+        return AuditDTO.builder()
+                .timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC))
+                .methodName(methodName)
+                .description(description)
+                .parameters(parameters)
+                .result(result)
+                .status(statusName)
+                .errorMessage(errorMessage)
+                .executionTimeMs(executionTimeMs)
+                .level(level == NO_LEVEL ? null : LEVELS[level])
+                .spans(spans)
+                .traceId(traceId)
+                .spanId(spanId)
+                .build();
+    }
+
+    private List<AuditSpanDTO> readSpans(Reader reader, Map<Long, String> methodNames) {
+        int count = Math.toIntExact(reader.readVarLong());
+        if (count == 0) {
+            return null;
+        }
+
+        List<AuditSpanDTO> spans = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String methodName = readMethod(reader, methodNames, null);
+            int statusByte = reader.readByte() & 0xFF;
+            String status = switch ((byte) (statusByte & SPAN_STATUS_MASK)) {
+                case STATUS_SUCCESS -> "SUCCESS";
+                case STATUS_FAILED -> "FAILED";
+                case STATUS_OTHER -> reader.readString();
+                default -> null;
+            };
+            long offsetMicros = reader.readVarLong();
+            long durationMicros = reader.readVarLong();
+            String errorMessage = (statusByte & SPAN_HAS_ERROR) != 0 ? reader.readString() : null;
+            spans.add(new AuditSpanDTO(methodName, status, errorMessage, offsetMicros, durationMicros, readSpans(reader, methodNames)));
+        }
+        return spans;
+    }
+
+    private static String readMethod(Reader reader, Map<Long, String> methodNames, String key) {
+        long reference = reader.readVarLong();
+        long id = reference >>> 1;
+
+        if ((reference & 1) != 0) {
+            String methodName = reader.readString();
+            methodNames.put(id, methodName);
+            return methodName;
+        }
+
+        String methodName = methodNames.get(id);
+        if (methodName == null) {
+            methodName = key;
+            if (key != null) {
+                methodNames.put(id, key);
+            }
+        }
+        return methodName;
+    }
+}
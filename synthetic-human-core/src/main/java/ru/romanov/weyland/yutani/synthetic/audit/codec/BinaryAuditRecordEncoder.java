@@ -0,0 +1,127 @@
+package ru.romanov.weyland.yutani.synthetic.audit.codec;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditSpanDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import static ru.romanov.weyland.yutani.synthetic.audit.codec.BinaryAuditFormat.*;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BinaryAuditRecordEncoder implements AuditRecordEncoder {
+
+    private static final int INITIAL_BUFFER_SIZE = 128;
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Override
+    public byte[] encode(AuditDTO auditDto) {
+        Writer writer = new Writer(INITIAL_BUFFER_SIZE + payloadSize(auditDto));
+
+        int flags = (auditDto.description() != null ? HAS_DESCRIPTION : 0)
+                | (auditDto.parameters() != null ? HAS_PARAMETERS : 0)
+                | (auditDto.result() != null ? HAS_RESULT : 0)
+                | (auditDto.errorMessage() != null ? HAS_ERROR : 0)
+                | (auditDto.spans() != null && !auditDto.spans().isEmpty() ? HAS_SPANS : 0)
+                | (hasTrace(auditDto) ? HAS_TRACE : 0);
+        byte status = statusCode(auditDto.status());
+
+        writer.writeByte(SCHEMA_VERSION);
+        writer.writeByte(flags);
+        writer.writeByte(auditDto.level() != null ? auditDto.level().ordinal() : NO_LEVEL);
+        writer.writeByte(status);
+        writer.writeVarLong(auditDto.timestamp().toInstant(ZoneOffset.UTC).toEpochMilli());
+        writer.writeVarLong(auditDto.executionTimeMs());
+
+        Map<String, Integer> methodIds = new HashMap<>();
+        writeMethod(writer, methodIds, auditDto.methodName());
+
+        if (auditDto.description() != null) {
+            writer.writeString(auditDto.description());
+        }
+        if (auditDto.parameters() != null) {
+            writer.writeBytes(auditDto.parameters().getBytes(StandardCharsets.UTF_8));
+        }
+        if (auditDto.result() != null) {
+            writer.writeBytes(auditDto.result().getBytes(StandardCharsets.UTF_8));
+        }
+        if (auditDto.errorMessage() != null) {
+            writer.writeString(auditDto.errorMessage());
+        }
+        if (status == STATUS_OTHER) {
+            writer.writeString(auditDto.status());
+        }
+        if ((flags & HAS_SPANS) != 0) {
+            writeSpans(writer, methodIds, auditDto.spans());
+        }
+        if ((flags & HAS_TRACE) != 0) {
+            writer.writeRaw(HEX.parseHex(auditDto.traceId()));
+            writer.writeRaw(HEX.parseHex(auditDto.spanId()));
+        }
+        return writer.toByteArray();
+    }
+
+    @Override
+    public String format() {
+        return FORMAT;
+    }
+
+    // Словарь живет в пределах записи: запись декодируется сама по себе, какой бы узел ее ни отправил
+    private static void writeMethod(Writer writer, Map<String, Integer> methodIds, String methodName) {
+        Integer id = methodIds.get(methodName);
+        if (id != null) {
+            writer.writeVarLong((long) id << 1);
+            return;
+        }
+
+        int newId = methodIds.size();
+        methodIds.put(methodName, newId);
+        writer.writeVarLong(((long) newId << 1) | 1);
+        writer.writeString(methodName);
+    }
+
+    private static void writeSpans(Writer writer, Map<String, Integer> methodIds, List<AuditSpanDTO> spans) {
+        writer.writeVarLong(spans.size());
+        for (AuditSpanDTO span : spans) {
+            byte status = statusCode(span.status());
+            writeMethod(writer, methodIds, span.methodName() != null ? span.methodName() : "");
+            writer.writeByte(status | (span.errorMessage() != null ? SPAN_HAS_ERROR : 0));
+            if (status == STATUS_OTHER) {
+                writer.writeString(span.status());
+            }
+            writer.writeVarLong(span.offsetMicros());
+            writer.writeVarLong(span.durationMicros());
+            if (span.errorMessage() != null) {
+                writer.writeString(span.errorMessage());
+            }
+            writeSpans(writer, methodIds, span.children() != null ? span.children() : List.of());
+        }
+    }
+
+    private static boolean hasTrace(AuditDTO auditDto) {
+        return auditDto.traceId() != null && auditDto.traceId().length() == TRACE_ID_BYTES * 2
+                && auditDto.spanId() != null && auditDto.spanId().length() == SPAN_ID_BYTES * 2;
+    }
+
+    private static byte statusCode(String status) {
+        if (status == null) {
+            return STATUS_NONE;
+        }
+        return switch (status) {
+            case "SUCCESS" -> STATUS_SUCCESS;
+            case "FAILED" -> STATUS_FAILED;
+            default -> STATUS_OTHER;
+        };
+    }
+
+    private static int payloadSize(AuditDTO auditDto) {
+        return (auditDto.parameters() != null ? auditDto.parameters().length() : 0)
+                + (auditDto.result() != null ? auditDto.result().length() : 0);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.romanov.weyland.yutani.synthetic.audit.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+
+import java.io.UncheckedIOException;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor
+public class JsonAuditRecordEncoder implements AuditRecordEncoder {
+
+    public static final String FORMAT = "json";
+
+    ObjectMapper objectMapper;
+
+    @Override
+    public byte[] encode(AuditDTO auditDto) {
+        try {
+            return objectMapper.writeValueAsBytes(auditDto);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String format() {
+        return FORMAT;
+    }
+}
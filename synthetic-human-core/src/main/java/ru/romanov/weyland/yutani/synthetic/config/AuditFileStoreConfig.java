@@ -0,0 +1,51 @@
+package ru.romanov.weyland.yutani.synthetic.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import ru.romanov.weyland.yutani.synthetic.audit.AuditFileStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "spring.weyland.audit.mode", havingValue = "FILE")
+public class AuditFileStoreConfig {
+
+    @Value("${spring.weyland.audit.file.directory:audit-store}")
+    private String directory;
+
+    @Value("${spring.weyland.audit.file.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    @Value("${spring.weyland.audit.file.max-size:1GB}")
+    private DataSize maxSize;
+
+    @Value("${spring.weyland.audit.file.retention:7d}")
+    private Duration retention;
+
+    @Value("${spring.weyland.audit.file.index-interval:256}")
+    private int indexInterval;
+
+    @Value("${spring.weyland.audit.file.query.max-records:10000}")
+    private int maxQueryRecords;
+
+    @Bean
+    public AuditFileStore auditFileStore(ObjectMapper objectMapper, MeterRegistry meterRegistry) throws IOException {
+        return AuditFileStore.builder()
+                .directory(Path.of(directory))
+                .segmentSize(Math.toIntExact(segmentSize.toBytes()))
+                .maxTotalBytes(maxSize.toBytes())
+                .retention(retention)
+                .indexInterval(indexInterval)
+                .maxQueryRecords(maxQueryRecords)
+                .objectMapper(objectMapper)
+                .meterRegistry(meterRegistry)
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+package ru.romanov.weyland.yutani.synthetic.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.Aspects;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.romanov.weyland.yutani.synthetic.audit.AuditInterceptor;
+import ru.romanov.weyland.yutani.synthetic.audit.WeavingAuditAspect;
+import ru.romanov.weyland.yutani.synthetic.service.CommandService;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.weyland.audit.weaving", havingValue = "ASPECTJ")
+public class AuditWeavingConfig {
+
+    @Bean
+    public InitializingBean weavingAuditAspectInitializer(AuditInterceptor auditInterceptor) {
+        return () -> {
+            if (!Aspects.hasAspect(WeavingAuditAspect.class) || !WeavingAuditAspect.isWoven(CommandService.class)) {
+                throw new IllegalStateException("Режим аудита ASPECTJ включен, но классы не прошли вплетение: "
+                        + "соберите проект с профилем aspectj-weaving или запустите с -javaagent:aspectjweaver.jar");
+            }
+            Aspects.aspectOf(WeavingAuditAspect.class).setAuditInterceptor(auditInterceptor);
+            log.info("Аудит работает через вплетение AspectJ");
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package ru.romanov.weyland.yutani.synthetic.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.romanov.weyland.yutani.synthetic.admission.AuthorRateLimiter;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class AuthorRateLimitConfig {
+
+    @Value("${spring.weyland.command.rate-limit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${spring.weyland.command.rate-limit.default-limit:100}")
+    private int defaultLimit;
+
+    @Value("${spring.weyland.command.rate-limit.window:1m}")
+    private Duration window;
+
+    @Value("${spring.weyland.command.rate-limit.idle-ttl:10m}")
+    private Duration idleTtl;
+
+    @Value("${spring.weyland.command.rate-limit.sweep-interval:1m}")
+    private Duration sweepInterval;
+
+    @Value("${spring.weyland.command.rate-limit.overrides:}")
+    private String overrides;
+
+    @Bean
+    public AuthorRateLimiter authorRateLimiter(MeterRegistry meterRegistry) {
+        AuthorRateLimiter rateLimiter = new AuthorRateLimiter(
+                enabled, defaultLimit, parseOverrides(overrides), window, idleTtl, meterRegistry);
+        rateLimiter.startSweeper(sweepInterval);
+        return rateLimiter;
+    }
+
+    private static Map<String, Integer> parseOverrides(String value) {
+        Map<String, Integer> result = new HashMap<>();
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Некорректное переопределение лимита автора: " + entry);
+            }
+            result.put(entry.substring(0, separator).trim(), Integer.parseInt(entry.substring(separator + 1).trim()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.romanov.weyland.yutani.synthetic.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import ru.romanov.weyland.yutani.synthetic.history.BoundedCommandHistoryStore;
+import ru.romanov.weyland.yutani.synthetic.history.CommandHistoryStore;
+
+import java.time.Duration;
+
+// Регистрируется через AutoConfiguration.imports: приложение может подменить хранилище своим бином
+@AutoConfiguration
+public class CommandHistoryAutoConfiguration {
+
+    @Value("${spring.weyland.command.history.max-size:10000}")
+    private int maxSize;
+
+    @Value("${spring.weyland.command.history.ttl:1h}")
+    private Duration ttl;
+
+    @Value("${spring.weyland.command.history.sweep-interval:1m}")
+    private Duration sweepInterval;
+
+    @Bean
+    @ConditionalOnMissingBean(CommandHistoryStore.class)
+    public CommandHistoryStore commandHistoryStore(MeterRegistry meterRegistry) {
+        BoundedCommandHistoryStore store = new BoundedCommandHistoryStore(maxSize, ttl, meterRegistry);
+        store.startSweeper(sweepInterval);
+        return store;
+    }
+}
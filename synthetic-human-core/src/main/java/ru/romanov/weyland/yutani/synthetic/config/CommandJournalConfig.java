@@ -0,0 +1,35 @@
+package ru.romanov.weyland.yutani.synthetic.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import ru.romanov.weyland.yutani.synthetic.journal.CommandJournal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(name = "spring.weyland.command.journal.enabled", havingValue = "true")
+public class CommandJournalConfig {
+
+    @Value("${spring.weyland.command.journal.directory:journal}")
+    private String directory;
+
+    @Value("${spring.weyland.command.journal.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    @Value("${spring.weyland.command.journal.max-batch-size:512}")
+    private int maxBatchSize;
+
+    @Value("${spring.weyland.command.journal.durable-accept:true}")
+    private boolean durableAccept;
+
+    @Bean
+    public CommandJournal commandJournal(MeterRegistry meterRegistry) throws IOException {
+        return new CommandJournal(Path.of(directory), Math.toIntExact(segmentSize.toBytes()),
+                maxBatchSize, durableAccept, meterRegistry);
+    }
+}
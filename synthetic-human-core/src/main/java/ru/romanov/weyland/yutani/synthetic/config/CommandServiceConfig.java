@@ -0,0 +1,87 @@
+package ru.romanov.weyland.yutani.synthetic.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.romanov.weyland.yutani.synthetic.model.CommandExecutorMode;
+import ru.romanov.weyland.yutani.synthetic.service.CommandServiceSettings;
+
+import java.time.Duration;
+
+@Configuration
+public class CommandServiceConfig {
+
+    @Value("${spring.weyland.command.queue.max-size}")
+    private int maxQueueSize;
+
+    @Value("${spring.weyland.command.queue.critical-max-size:100}")
+    private int maxCriticalQueueSize;
+
+    @Value("${spring.weyland.command.queue.aging-threshold:5s}")
+    private Duration agingThreshold;
+
+    @Value("${spring.weyland.command.executor.mode:POOL}")
+    private CommandExecutorMode executorMode;
+
+    @Value("${spring.weyland.command.executor.virtual.max-concurrency:200}")
+    private int virtualMaxConcurrency;
+
+    @Value("${spring.weyland.command.executor.max-pool-size}")
+    private int maxPoolSize;
+
+    @Value("${spring.weyland.command.executor.keep-alive-time}")
+    private long keepAliveTime;
+
+    @Value("${spring.weyland.command.executor.critical-reserved:2}")
+    private int criticalReservedWorkers;
+
+    @Value("${spring.weyland.command.executor.shutdown-timeout:30s}")
+    private Duration shutdownTimeout;
+
+    @Value("${spring.weyland.command.admission.enabled:true}")
+    private boolean admissionEnabled;
+
+    @Value("${spring.weyland.command.admission.drain-time-slo:30s}")
+    private Duration drainTimeSlo;
+
+    @Value("${spring.weyland.command.admission.critical-drain-time-slo:5s}")
+    private Duration criticalDrainTimeSlo;
+
+    @Value("${spring.weyland.command.admission.initial-service-time:2s}")
+    private Duration initialServiceTime;
+
+    @Value("${spring.weyland.command.status-index.track-ids:true}")
+    private boolean trackStatusIds;
+
+    @Value("${spring.weyland.command.batch.max-size:5000}")
+    private int maxBatchSize;
+
+    @Value("${spring.weyland.command.journal.accept-timeout:5s}")
+    private Duration journalAcceptTimeout;
+
+    @Value("${spring.weyland.command.response-cache.enabled:true}")
+    private boolean responseCacheEnabled;
+
+    @Bean
+    public CommandServiceSettings commandServiceSettings() {
+        return CommandServiceSettings.builder()
+                .maxQueueSize(maxQueueSize)
+                .maxCriticalQueueSize(maxCriticalQueueSize)
+                .agingThreshold(agingThreshold)
+                .executorMode(executorMode)
+                .virtualMaxConcurrency(virtualMaxConcurrency)
+                .maxPoolSize(maxPoolSize)
+                .keepAliveTime(keepAliveTime)
+                .criticalReservedWorkers(criticalReservedWorkers)
+                .shutdownTimeout(shutdownTimeout)
+                .admissionEnabled(admissionEnabled)
+                .drainTimeSlo(drainTimeSlo)
+                .criticalDrainTimeSlo(criticalDrainTimeSlo)
+                .initialServiceTime(initialServiceTime)
+                .trackStatusIds(trackStatusIds)
+                .maxBatchSize(maxBatchSize)
+                .journalAcceptTimeout(journalAcceptTimeout)
+                .responseCacheEnabled(responseCacheEnabled)
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package ru.romanov.weyland.yutani.synthetic.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import ru.romanov.weyland.yutani.synthetic.admission.IdempotencyCache;
+
+import java.time.Duration;
+
+// Регистрируется через AutoConfiguration.imports: приложение может подменить кэш своим бином
+@AutoConfiguration
+public class IdempotencyAutoConfiguration {
+
+    @Value("${spring.weyland.command.idempotency.max-size:10000}")
+    private int maxSize;
+
+    @Value("${spring.weyland.command.idempotency.ttl:1h}")
+    private Duration ttl;
+
+    @Bean
+    @ConditionalOnMissingBean(IdempotencyCache.class)
+    public IdempotencyCache idempotencyCache(MeterRegistry meterRegistry) {
+        return new IdempotencyCache(maxSize, ttl, meterRegistry);
+    }
+}
@@ -1,6 +1,9 @@
 package ru.romanov.weyland.yutani.synthetic.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -9,29 +12,136 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.util.unit.DataSize;
+import ru.romanov.weyland.yutani.synthetic.audit.AuditCircuitBreaker;
+import ru.romanov.weyland.yutani.synthetic.audit.AuditSpool;
+import ru.romanov.weyland.yutani.synthetic.audit.KafkaAuditRelay;
+import ru.romanov.weyland.yutani.synthetic.audit.KafkaAuditSink;
+import ru.romanov.weyland.yutani.synthetic.audit.codec.AuditRecordEncoder;
+import ru.romanov.weyland.yutani.synthetic.audit.codec.BinaryAuditRecordEncoder;
+import ru.romanov.weyland.yutani.synthetic.audit.codec.JsonAuditRecordEncoder;
+import ru.romanov.weyland.yutani.synthetic.model.AuditRecordFormat;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
-@ConditionalOnProperty(name = "weyland.audit.mode", havingValue = "KAFKA")
+@ConditionalOnProperty(name = "spring.weyland.audit.mode", havingValue = "KAFKA")
 public class KafkaConfig {
 
     @Value("${spring.weyland.audit.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${spring.weyland.audit.kafka.topic}")
+    private String topic;
+
+    @Value("${spring.weyland.audit.kafka.format:JSON}")
+    private AuditRecordFormat format;
+
+    @Value("${spring.weyland.audit.kafka.producer.batch-size:64KB}")
+    private DataSize batchSize;
+
+    @Value("${spring.weyland.audit.kafka.producer.linger:10ms}")
+    private Duration linger;
+
+    @Value("${spring.weyland.audit.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${spring.weyland.audit.kafka.producer.enable-idempotence:true}")
+    private boolean enableIdempotence;
+
+    @Value("${spring.weyland.audit.kafka.producer.acks:all}")
+    private String acks;
+
+    @Value("${spring.weyland.audit.kafka.producer.max-block:1s}")
+    private Duration maxBlock;
+
+    @Value("${spring.weyland.audit.kafka.producer.buffer-memory:32MB}")
+    private DataSize bufferMemory;
+
+    @Value("${spring.weyland.audit.kafka.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${spring.weyland.audit.kafka.circuit-breaker.open-duration:30s}")
+    private Duration openDuration;
+
+    @Value("${spring.weyland.audit.kafka.spool.directory:audit-kafka-spool}")
+    private String spoolDirectory;
+
+    @Value("${spring.weyland.audit.kafka.spool.segment-size:16MB}")
+    private DataSize spoolSegmentSize;
+
+    @Value("${spring.weyland.audit.kafka.replay.batch-size:500}")
+    private int replayBatchSize;
+
+    @Value("${spring.weyland.audit.kafka.replay.interval:1s}")
+    private Duration replayInterval;
+
+    @Value("${spring.weyland.audit.kafka.replay.timeout:10s}")
+    private Duration replayTimeout;
+
     @Bean
-    public ProducerFactory<String, String> producerFactory() {
+    public ProducerFactory<String, byte[]> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        configProps.putAll(auditProducerProperties(batchSize, linger, compressionType, enableIdempotence,
+                acks, maxBlock, bufferMemory));
 
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
     @Bean
-    public KafkaTemplate<String, String> kafkaTemplate() {
+    public KafkaTemplate<String, byte[]> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
+
+    @Bean
+    public KafkaAuditSink kafkaAuditSink(KafkaTemplate<String, byte[]> kafkaTemplate,
+                                         ObjectMapper objectMapper,
+                                         MeterRegistry meterRegistry) {
+        AuditRecordEncoder encoder = switch (format) {
+            case JSON -> new JsonAuditRecordEncoder(objectMapper);
+            case BINARY -> new BinaryAuditRecordEncoder();
+        };
+        return new KafkaAuditSink(kafkaTemplate, topic, encoder, meterRegistry);
+    }
+
+    @Bean(initMethod = "start")
+    public KafkaAuditRelay kafkaAuditRelay(KafkaAuditSink kafkaAuditSink,
+                                           ObjectMapper objectMapper,
+                                           MeterRegistry meterRegistry) throws IOException {
+        return KafkaAuditRelay.builder()
+                .sink(kafkaAuditSink)
+                .circuitBreaker(new AuditCircuitBreaker("kafka", failureThreshold, openDuration, meterRegistry))
+                .spool(new AuditSpool("kafka", Path.of(spoolDirectory), Math.toIntExact(spoolSegmentSize.toBytes()),
+                        objectMapper, meterRegistry))
+                .replayBatchSize(replayBatchSize)
+                .replayInterval(replayInterval)
+                .replayTimeout(replayTimeout)
+                .meterRegistry(meterRegistry)
+                .build();
+    }
+
+    public static Map<String, Object> auditProducerProperties(DataSize batchSize,
+                                                              Duration linger,
+                                                              String compressionType,
+                                                              boolean enableIdempotence,
+                                                              String acks,
+                                                              Duration maxBlock,
+                                                              DataSize bufferMemory) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, Math.toIntExact(batchSize.toBytes()));
+        props.put(ProducerConfig.LINGER_MS_CONFIG, Math.toIntExact(linger.toMillis()));
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, enableIdempotence);
+        props.put(ProducerConfig.ACKS_CONFIG, acks);
+        props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlock.toMillis());
+        props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory.toBytes());
+        return props;
+    }
 }
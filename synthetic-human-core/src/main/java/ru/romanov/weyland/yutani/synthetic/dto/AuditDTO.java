@@ -1,11 +1,13 @@
 package ru.romanov.weyland.yutani.synthetic.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
-@Builder
+@Builder(toBuilder = true)
 public record AuditDTO(
         LocalDateTime timestamp,
         String methodName,
@@ -15,5 +17,11 @@ public record AuditDTO(
         String status,
         String errorMessage,
         long executionTimeMs,
-        AuditLevel level
+        AuditLevel level,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        List<AuditSpanDTO> spans,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        String traceId,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        String spanId
 ) {}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package ru.romanov.weyland.yutani.synthetic.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AuditSpanDTO(
+        String methodName,
+        String status,
+        String errorMessage,
+        long offsetMicros,
+        long durationMicros,
+        List<AuditSpanDTO> children
+) {}
@@ -0,0 +1,27 @@
+package ru.romanov.weyland.yutani.synthetic.dto;
+
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public record AuditSummaryDTO(
+        LocalDateTime windowStart,
+        LocalDateTime windowEnd,
+        long count,
+        long errors,
+        double errorRate,
+        Map<AuditLevel, Long> byLevel,
+        Map<String, Long> byStatus,
+        Latency latencyMs
+) {
+
+    public record Latency(long min,
+                          double mean,
+                          long p50,
+                          long p90,
+                          long p99,
+                          long p999,
+                          long max
+    ) {}
+}
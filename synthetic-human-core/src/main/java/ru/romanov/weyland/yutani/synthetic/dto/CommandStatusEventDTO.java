@@ -0,0 +1,12 @@
+package ru.romanov.weyland.yutani.synthetic.dto;
+
+import ru.romanov.weyland.yutani.synthetic.model.CommandStatus;
+
+import java.time.LocalDateTime;
+
+public record CommandStatusEventDTO(
+        String commandId,
+        CommandStatus previousStatus,
+        CommandStatus status,
+        LocalDateTime timestamp
+) {}
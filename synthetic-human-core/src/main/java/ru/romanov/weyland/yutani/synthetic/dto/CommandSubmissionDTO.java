@@ -0,0 +1,8 @@
+package ru.romanov.weyland.yutani.synthetic.dto;
+
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+
+public record CommandSubmissionDTO(Command command,
+                                   boolean duplicate,
+                                   String message
+) {}
@@ -0,0 +1,7 @@
+package ru.romanov.weyland.yutani.synthetic.dto.response;
+
+public record AuthorRateUsageDTO(String author,
+                                 int used,
+                                 int limit,
+                                 long windowSeconds
+) {}
@@ -0,0 +1,28 @@
+package ru.romanov.weyland.yutani.synthetic.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public record BatchCommandItemDTO(int index,
+                                  String commandId,
+                                  String status,
+                                  String code,
+                                  String message
+) {
+
+    public static BatchCommandItemDTO accepted(int index, String commandId) {
+        return new BatchCommandItemDTO(index, commandId, "ACCEPTED", null, null);
+    }
+
+    public static BatchCommandItemDTO rejected(int index, String commandId, String code, String message) {
+        return new BatchCommandItemDTO(index, commandId, "REJECTED", code, message);
+    }
+
+    public static BatchCommandItemDTO duplicate(int index, String commandId, String message) {
+        return new BatchCommandItemDTO(index, commandId, "DUPLICATE", null, message);
+    }
+
+    @JsonIgnore
+    public boolean isAccepted() {
+        return "ACCEPTED".equals(status);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.romanov.weyland.yutani.synthetic.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record BatchCommandResponseDTO(int total,
+                                      int accepted,
+                                      int rejected,
+                                      List<BatchCommandItemDTO> items,
+                                      LocalDateTime timestamp
+) {}
@@ -0,0 +1,9 @@
+package ru.romanov.weyland.yutani.synthetic.dto.response;
+
+import java.util.Map;
+
+public record BatchCommandSummaryDTO(int total,
+                                     int accepted,
+                                     int rejected,
+                                     Map<String, Integer> rejectedByCode
+) {}
@@ -1,9 +1,11 @@
 package ru.romanov.weyland.yutani.synthetic.dto.response;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 public record SyntheticMetricsResponseDTO(int currentQueueSize,
                                           int totalCommandsProcessed,
                                           long activeCommands,
-                                          Map<String, Integer> commandsByAuthor
+                                          Map<String, Integer> commandsByAuthor,
+                                          LocalDateTime capturedAt
 ) {}
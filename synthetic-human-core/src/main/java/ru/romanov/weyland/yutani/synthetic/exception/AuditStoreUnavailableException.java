@@ -0,0 +1,7 @@
+package ru.romanov.weyland.yutani.synthetic.exception;
+
+public class AuditStoreUnavailableException extends RuntimeException {
+    public AuditStoreUnavailableException(String message) {
+        super(message);
+    }
+}
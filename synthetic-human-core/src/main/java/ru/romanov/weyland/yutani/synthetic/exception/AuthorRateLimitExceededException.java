@@ -0,0 +1,16 @@
+package ru.romanov.weyland.yutani.synthetic.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class AuthorRateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public AuthorRateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
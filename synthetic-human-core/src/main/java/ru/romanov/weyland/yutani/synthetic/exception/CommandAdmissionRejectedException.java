@@ -0,0 +1,16 @@
+package ru.romanov.weyland.yutani.synthetic.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class CommandAdmissionRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public CommandAdmissionRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
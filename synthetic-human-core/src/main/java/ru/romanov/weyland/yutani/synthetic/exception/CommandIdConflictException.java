@@ -0,0 +1,7 @@
+package ru.romanov.weyland.yutani.synthetic.exception;
+
+public class CommandIdConflictException extends RuntimeException {
+    public CommandIdConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,20 @@
 package ru.romanov.weyland.yutani.synthetic.exception;
 
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
 public class CommandQueueOverflowException extends RuntimeException {
+
+    private final Duration retryAfter;
+
     public CommandQueueOverflowException(String message) {
+        this(message, null);
+    }
+
+    public CommandQueueOverflowException(String message, Duration retryAfter) {
         super(message);
+        this.retryAfter = retryAfter;
     }
 }
@@ -0,0 +1,183 @@
+package ru.romanov.weyland.yutani.synthetic.history;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BoundedCommandHistoryStore implements CommandHistoryStore, AutoCloseable {
+
+    int maxSize;
+    long ttlNanos;
+
+    Map<String, Command> commands = new ConcurrentHashMap<>();
+    Queue<TerminalEntry> terminalOrder = new ConcurrentLinkedQueue<>();
+    ReentrantLock evictionLock = new ReentrantLock();
+    List<Consumer<Command>> evictionListeners = new CopyOnWriteArrayList<>();
+    List<Consumer<Command>> terminalListeners = new CopyOnWriteArrayList<>();
+
+    Counter sizeEvictionsCounter;
+    Counter ttlEvictionsCounter;
+
+    @NonFinal
+    ScheduledExecutorService sweeper;
+
+    public BoundedCommandHistoryStore(int maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+
+        this.sizeEvictionsCounter = Counter.builder("synthetic.history.evictions")
+                .description("Количество команд, вытесненных из истории")
+                .tag("reason", "size")
+                .register(meterRegistry);
+        this.ttlEvictionsCounter = Counter.builder("synthetic.history.evictions")
+                .description("Количество команд, вытесненных из истории")
+                .tag("reason", "ttl")
+                .register(meterRegistry);
+
+        Gauge.builder("synthetic.history.size", commands, Map::size)
+                .description("Количество команд в истории")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void put(Command command) {
+        commands.put(command.getId(), command);
+        evictIfNeeded();
+    }
+
+    @Override
+    public Command putIfAbsent(Command command) {
+        Command existing = commands.putIfAbsent(command.getId(), command);
+        if (existing == null) {
+            evictIfNeeded();
+        }
+        return existing;
+    }
+
+    @Override
+    public Command get(String commandId) {
+        return commands.get(commandId);
+    }
+
+    @Override
+    public boolean remove(Command command) {
+        if (!commands.remove(command.getId(), command)) {
+            return false;
+        }
+        evictionListeners.forEach(listener -> listener.accept(command));
+        return true;
+    }
+
+    @Override
+    public void markTerminal(Command command) {
+        // Слушатели вызываются до постановки в очередь вытеснения, чтобы вытеснение всегда шло после них
+        terminalListeners.forEach(listener -> listener.accept(command));
+        terminalOrder.add(new TerminalEntry(command.getId(), System.nanoTime()));
+        evictIfNeeded();
+    }
+
+    @Override
+    public Collection<Command> values() {
+        return Collections.unmodifiableCollection(commands.values());
+    }
+
+    @Override
+    public int size() {
+        return commands.size();
+    }
+
+    @Override
+    public void onEviction(Consumer<Command> listener) {
+        evictionListeners.add(listener);
+    }
+
+    @Override
+    public void onTerminal(Consumer<Command> listener) {
+        terminalListeners.add(listener);
+    }
+
+    // Без новых команд вытеснение по TTL не запускается, поэтому простаивающий узел чистится по расписанию
+    public void startSweeper(Duration interval) {
+        sweeper = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("synthetic-history-sweeper")
+                .daemon()
+                .factory());
+        long intervalMillis = interval.toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweepSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void sweep() {
+        evictIfNeeded();
+    }
+
+    @Override
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            log.error("Ошибка очистки истории команд: {}", e.getMessage(), e);
+        }
+    }
+
+    // Вытесняются только завершенные команды, в порядке завершения: PENDING и EXECUTING остаются в истории всегда
+    private void evictIfNeeded() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+
+        try {
+            long now = System.nanoTime();
+            TerminalEntry oldest;
+            while ((oldest = terminalOrder.peek()) != null) {
+                boolean expired = now - oldest.terminatedAtNanos() >= ttlNanos;
+                if (!expired && commands.size() <= maxSize) {
+                    break;
+                }
+
+                terminalOrder.poll();
+                Command evicted = commands.remove(oldest.commandId());
+                if (evicted != null) {
+                    (expired ? ttlEvictionsCounter : sizeEvictionsCounter).increment();
+                    evictionListeners.forEach(listener -> listener.accept(evicted));
+                }
+            }
+
+            if (commands.size() > maxSize) {
+                log.debug("История команд превышает лимит {} за счет незавершенных команд: {}",
+                        maxSize, commands.size());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private record TerminalEntry(String commandId, long terminatedAtNanos) {}
+}
@@ -0,0 +1,29 @@
+package ru.romanov.weyland.yutani.synthetic.history;
+
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+public interface CommandHistoryStore {
+
+    void put(Command command);
+
+    // Возвращает уже сохраненную команду с тем же идентификатором или null, если команда добавлена
+    Command putIfAbsent(Command command);
+
+    Command get(String commandId);
+
+    // Удаляет именно эту команду, а не более позднюю с тем же идентификатором; слушатели вытеснения уведомляются
+    boolean remove(Command command);
+
+    void markTerminal(Command command);
+
+    Collection<Command> values();
+
+    int size();
+
+    void onEviction(Consumer<Command> listener);
+
+    void onTerminal(Consumer<Command> listener);
+}
@@ -0,0 +1,89 @@
+package ru.romanov.weyland.yutani.synthetic.history;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.model.CommandStatus;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CommandStatusIndex {
+
+    boolean trackIds;
+    Map<CommandStatus, LongAdder> counters = new EnumMap<>(CommandStatus.class);
+    Map<CommandStatus, Set<String>> idsByStatus = new EnumMap<>(CommandStatus.class);
+
+    public CommandStatusIndex(boolean trackIds, MeterRegistry meterRegistry) {
+        this.trackIds = trackIds;
+
+        for (CommandStatus status : CommandStatus.values()) {
+            LongAdder counter = new LongAdder();
+            counters.put(status, counter);
+            if (trackIds) {
+                idsByStatus.put(status, ConcurrentHashMap.newKeySet());
+            }
+
+            Gauge.builder("synthetic.commands.by.status", counter, LongAdder::sum)
+                    .description("Количество команд в истории по статусам")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    public void onAdded(Command command) {
+        increment(command.getStatus(), command.getId());
+    }
+
+    public void onTransition(Command command, CommandStatus from, CommandStatus to) {
+        if (from == to) {
+            return;
+        }
+        increment(to, command.getId());
+        decrement(from, command.getId());
+    }
+
+    public void onRemoved(Command command) {
+        decrement(command.getStatus(), command.getId());
+    }
+
+    public long count(CommandStatus status) {
+        return counters.get(status).sum();
+    }
+
+    public long countActive() {
+        return count(CommandStatus.PENDING) + count(CommandStatus.EXECUTING);
+    }
+
+    public boolean isTrackingIds() {
+        return trackIds;
+    }
+
+    public Set<String> ids(CommandStatus status) {
+        if (!trackIds) {
+            return Set.of();
+        }
+        return Collections.unmodifiableSet(idsByStatus.get(status));
+    }
+
+    private void increment(CommandStatus status, String commandId) {
+        counters.get(status).increment();
+        if (trackIds) {
+            idsByStatus.get(status).add(commandId);
+        }
+    }
+
+    private void decrement(CommandStatus status, String commandId) {
+        counters.get(status).decrement();
+        if (trackIds) {
+            idsByStatus.get(status).remove(commandId);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package ru.romanov.weyland.yutani.synthetic.history;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Кэш сериализованных ответов завершенных команд: запись появляется при завершении и удаляется вместе с историей
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TerminalCommandResponseCache {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final int ETAG_BYTES = 16;
+
+    ObjectMapper objectMapper;
+    Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    Counter hitCounter;
+    Counter missCounter;
+    Counter bypassCounter;
+
+    public TerminalCommandResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+
+        this.hitCounter = lookupCounter("hit", meterRegistry);
+        this.missCounter = lookupCounter("miss", meterRegistry);
+        this.bypassCounter = lookupCounter("bypass", meterRegistry);
+
+        Gauge.builder("synthetic.command.response.cache.size", entries, Map::size)
+                .description("Количество завершенных команд в кэше ответов")
+                .register(meterRegistry);
+        Gauge.builder("synthetic.command.response.cache.hit.ratio", this, TerminalCommandResponseCache::hitRatio)
+                .description("Доля запросов завершенных команд, отданных из кэша без сериализации")
+                .register(meterRegistry);
+    }
+
+    public void onTerminal(Command command) {
+        entries.put(command.getId(), new Entry());
+    }
+
+    public void onEvicted(Command command) {
+        entries.remove(command.getId());
+    }
+
+    // null означает, что команда еще не завершена или неизвестна и отдается обычным путем
+    @Nullable
+    public CachedResponse get(String commandId, Function<String, Command> loader) {
+        Entry entry = entries.get(commandId);
+        if (entry == null) {
+            bypassCounter.increment();
+            return null;
+        }
+
+        CachedResponse response = entry.response;
+        if (response != null) {
+            hitCounter.increment();
+            return response;
+        }
+
+        Command command = loader.apply(commandId);
+        if (command == null) {
+            return null;
+        }
+
+        missCounter.increment();
+        response = serialize(command);
+        // Повторная сериализация при гонке безопасна: команда уже не меняется и байты совпадут
+        entry.response = response;
+        return response;
+    }
+
+    public double hitRatio() {
+        double hits = hitCounter.count();
+        double lookups = hits + missCounter.count();
+        return lookups == 0 ? 0.0 : hits / lookups;
+    }
+
+    @Nullable
+    private CachedResponse serialize(Command command) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(command);
+            return new CachedResponse(body, etag(body));
+        } catch (JsonProcessingException e) {
+            log.warn("Не удалось сериализовать команду {} для кэша ответов: {}", command.getId(), e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + HEX.formatHex(digest, 0, ETAG_BYTES) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Counter lookupCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("synthetic.command.response.cache.requests")
+                .description("Количество запросов команды через кэш ответов")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class Entry {
+        volatile CachedResponse response;
+    }
+
+    public record CachedResponse(byte[] body, String etag) {
+
+        // ETag отдается сильным, но If-None-Match по RFC 9110 сравнивается слабой функцией: префикс W/ отбрасывается
+        public boolean matches(@Nullable String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.strip();
+                if (tag.equals("*")) {
+                    return true;
+                }
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof CachedResponse that && etag.equals(that.etag) && Arrays.equals(body, that.body);
+        }
+
+        @Override
+        public int hashCode() {
+            return etag.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "CachedResponse[etag=" + etag + ", length=" + body.length + "]";
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package ru.romanov.weyland.yutani.synthetic.journal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.model.CommandStatus;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+import ru.romanov.weyland.yutani.synthetic.storage.MappedSegment;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Журнал предзаписи принятых команд: записи сбрасываются на диск пачками одним потоком (group commit)
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CommandJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "commands";
+    private static final byte ACCEPTED = 1;
+    private static final byte STATUS = 2;
+
+    Path directory;
+    int segmentSize;
+    int maxBatchSize;
+
+    @Getter
+    boolean durableAccept;
+
+    BlockingQueue<PendingRecord> pending = new LinkedBlockingQueue<>();
+    Deque<MappedSegment> segments = new ArrayDeque<>();
+    Map<String, Long> acceptedInSegment = new HashMap<>();
+    Map<Long, Integer> liveCommandsBySegment = new HashMap<>();
+    Thread writer;
+
+    Counter appendedRecordsCounter;
+    DistributionSummary batchSizeSummary;
+    Timer syncTimer;
+
+    @NonFinal
+    MappedSegment active;
+
+    @NonFinal
+    volatile boolean running = true;
+
+    public CommandJournal(Path directory,
+                          int segmentSize,
+                          int maxBatchSize,
+                          boolean durableAccept,
+                          MeterRegistry meterRegistry) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.maxBatchSize = maxBatchSize;
+        this.durableAccept = durableAccept;
+
+        this.appendedRecordsCounter = Counter.builder("synthetic.journal.records")
+                .description("Количество записей, сохраненных в журнал команд")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("synthetic.journal.batch.size")
+                .description("Количество записей в одной синхронизации журнала")
+                .register(meterRegistry);
+        this.syncTimer = Timer.builder("synthetic.journal.sync.time")
+                .description("Время записи и синхронизации пачки журнала")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        this.writer = Thread.ofPlatform()
+                .name("synthetic-command-journal")
+                .daemon()
+                .unstarted(this::writeLoop);
+    }
+
+    public List<Command> replay() throws IOException {
+        Map<String, Command> unfinished = new LinkedHashMap<>();
+
+        for (Path path : MappedSegment.list(directory, SEGMENT_PREFIX)) {
+            MappedSegment segment = MappedSegment.open(path);
+            segments.addLast(segment);
+            segment.scan(0, (_, payload) -> {
+                apply(segment.getId(), payload, unfinished);
+                return true;
+            });
+        }
+
+        long nextId = segments.isEmpty() ? 1 : segments.peekLast().getId() + 1;
+        active = MappedSegment.create(directory, SEGMENT_PREFIX, nextId, segmentSize);
+        segments.addLast(active);
+        deleteFinishedSegments();
+
+        log.info("Журнал команд восстановлен: сегментов {}, незавершенных команд {}",
+                segments.size(), unfinished.size());
+        return new ArrayList<>(unfinished.values());
+    }
+
+    public void start() {
+        if (active == null) {
+            throw new IllegalStateException("Журнал команд должен быть восстановлен перед запуском");
+        }
+        writer.start();
+    }
+
+    public CompletableFuture<Void> appendAccepted(List<Command> commands) {
+        CompletableFuture<?>[] durable = new CompletableFuture<?>[commands.size()];
+        for (int i = 0; i < commands.size(); i++) {
+            Command command = commands.get(i);
+            durable[i] = enqueue(new PendingRecord(ACCEPTED, command.getId(), false, encodeAccepted(command)));
+        }
+        return CompletableFuture.allOf(durable);
+    }
+
+    public void appendStatus(String commandId, CommandStatus status) {
+        enqueue(new PendingRecord(STATUS, commandId, status.isTerminal(), encodeStatus(commandId, status)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (MappedSegment segment : segments) {
+            segment.close();
+        }
+        log.info("Журнал команд закрыт");
+    }
+
+    private CompletableFuture<Void> enqueue(PendingRecord record) {
+        if (!running) {
+            record.durable().completeExceptionally(new IllegalStateException("Журнал команд закрыт"));
+        } else {
+            pending.add(record);
+        }
+        return record.durable();
+    }
+
+    private void writeLoop() {
+        List<PendingRecord> batch = new ArrayList<>(maxBatchSize);
+
+        while (running || !pending.isEmpty()) {
+            try {
+                PendingRecord first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pending.drainTo(batch, maxBatchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingRecord> batch) {
+        long start = System.nanoTime();
+        try {
+            for (PendingRecord record : batch) {
+                write(record);
+            }
+            active.force();
+
+            syncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizeSummary.record(batch.size());
+            appendedRecordsCounter.increment(batch.size());
+
+            batch.forEach(record -> record.durable().complete(null));
+        } catch (IOException | RuntimeException e) {
+            log.error("Ошибка записи журнала команд: {}", e.getMessage());
+            batch.forEach(record -> record.durable().completeExceptionally(e));
+        }
+    }
+
+    private void write(PendingRecord record) throws IOException {
+        if (active.append(record.payload()) < 0) {
+            active.force();
+            active = MappedSegment.create(directory, SEGMENT_PREFIX, active.getId() + 1, segmentSize);
+            segments.addLast(active);
+
+            if (active.append(record.payload()) < 0) {
+                throw new IOException("Запись журнала превышает размер сегмента");
+            }
+        }
+
+        if (record.type() == ACCEPTED) {
+            trackAccepted(record.commandId(), active.getId());
+        } else if (record.terminal()) {
+            releaseCommand(record.commandId());
+            deleteFinishedSegments();
+        }
+    }
+
+    private void apply(long segmentId, ByteBuffer payload, Map<String, Command> unfinished) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte type = in.readByte();
+            String commandId = in.readUTF();
+
+            if (type == ACCEPTED) {
+                String description = in.readUTF();
+                Priority priority = Priority.valueOf(in.readUTF());
+                String author = in.readUTF();
+                LocalDateTime time = in.readBoolean() ? LocalDateTime.parse(in.readUTF()) : null;
+
+                unfinished.put(commandId, new Command(commandId, description, priority, author, time));
+                trackAccepted(commandId, segmentId);
+            } else if (type == STATUS && CommandStatus.valueOf(in.readUTF()).isTerminal()) {
+                unfinished.remove(commandId);
+                releaseCommand(commandId);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Поврежденная запись журнала команд", e);
+        }
+    }
+
+    private void trackAccepted(String commandId, long segmentId) {
+        acceptedInSegment.put(commandId, segmentId);
+        liveCommandsBySegment.merge(segmentId, 1, Integer::sum);
+    }
+
+    private void releaseCommand(String commandId) {
+        Long segmentId = acceptedInSegment.remove(commandId);
+        if (segmentId != null) {
+            liveCommandsBySegment.merge(segmentId, -1, Integer::sum);
+        }
+    }
+
+    // Удаляется только префикс сегментов: иначе при восстановлении потерялись бы записи о завершении
+    private void deleteFinishedSegments() throws IOException {
+        MappedSegment oldest;
+        while ((oldest = segments.peekFirst()) != null && oldest != active
+                && liveCommandsBySegment.getOrDefault(oldest.getId(), 0) <= 0) {
+            segments.pollFirst();
+            liveCommandsBySegment.remove(oldest.getId());
+            oldest.delete();
+            log.debug("Удален завершенный сегмент журнала: {}", oldest.getPath());
+        }
+    }
+
+    private static byte[] encodeAccepted(Command command) {
+        return encode(out -> {
+            out.writeByte(ACCEPTED);
+            out.writeUTF(command.getId());
+            out.writeUTF(command.getDescription());
+            out.writeUTF(command.getPriority().name());
+            out.writeUTF(command.getAuthor());
+            out.writeBoolean(command.getTime() != null);
+            if (command.getTime() != null) {
+                out.writeUTF(command.getTime().toString());
+            }
+        });
+    }
+
+    private static byte[] encodeStatus(String commandId, CommandStatus status) {
+        return encode(out -> {
+            out.writeByte(STATUS);
+            out.writeUTF(commandId);
+            out.writeUTF(status.name());
+        });
+    }
+
+    private static byte[] encode(RecordWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private record PendingRecord(byte type, String commandId, boolean terminal, byte[] payload,
+                                 CompletableFuture<Void> durable) {
+
+        PendingRecord(byte type, String commandId, boolean terminal, byte[] payload) {
+            this(type, commandId, terminal, payload, new CompletableFuture<>());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ru.romanov.weyland.yutani.synthetic.model;
+
+import lombok.Getter;
+
+@Getter
+public enum AuditAggregationMode {
+    RECORDS("Отдельная запись аудита на каждый вызов"),
+    SUMMARY("Периодическая сводка по методу, ошибки и CRITICAL отправляются отдельно");
+
+    private final String description;
+
+    AuditAggregationMode(String description) {
+        this.description = description;
+    }
+}
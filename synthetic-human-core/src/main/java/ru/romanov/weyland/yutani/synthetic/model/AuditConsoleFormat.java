@@ -0,0 +1,16 @@
+package ru.romanov.weyland.yutani.synthetic.model;
+
+import lombok.Getter;
+
+@Getter
+public enum AuditConsoleFormat {
+    TEXT("Многострочный текстовый блок для чтения человеком"),
+    JSON("Однострочный JSON для сборщиков логов"),
+    LOGFMT("Однострочный logfmt (ключ=значение)");
+
+    private final String description;
+
+    AuditConsoleFormat(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,16 @@
+package ru.romanov.weyland.yutani.synthetic.model;
+
+import lombok.Getter;
+
+@Getter
+public enum AuditOverflowPolicy {
+    DROP_LOW("Отбрасывать записи LOW при заполнении буфера, остальные - при переполнении"),
+    BLOCK("Ожидать освобождения места в буфере"),
+    SPILL("Сбрасывать не поместившиеся записи в файл на диске");
+
+    private final String description;
+
+    AuditOverflowPolicy(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.romanov.weyland.yutani.synthetic.model;
+
+import lombok.Getter;
+
+@Getter
+public enum AuditRecordFormat {
+    JSON("Запись аудита в JSON"),
+    BINARY("Компактная двоичная запись аудита со словарем имен методов");
+
+    private final String description;
+
+    AuditRecordFormat(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.romanov.weyland.yutani.synthetic.model;
+
+import lombok.Getter;
+
+@Getter
+public enum AuditSerializationMode {
+    EAGER("Сериализация аргументов и результата в вызывающем потоке"),
+    DEFERRED("Снимки аргументов и результата, сериализация в потоке отправки аудита");
+
+    private final String description;
+
+    AuditSerializationMode(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.romanov.weyland.yutani.synthetic.model;
+
+import lombok.Getter;
+
+@Getter
+public enum AuditWeavingMode {
+    PROXY("Прокси Spring AOP: только внешние вызовы публичных методов бинов"),
+    ASPECTJ("Вплетение AspectJ: все аннотированные методы, включая приватные и вызовы через this");
+
+    private final String description;
+
+    AuditWeavingMode(String description) {
+        this.description = description;
+    }
+}
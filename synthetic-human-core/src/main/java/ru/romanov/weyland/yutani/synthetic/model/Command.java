@@ -54,4 +54,13 @@ public class Command {
         this.author = author;
         this.time = time;
     }
+
+    public Command(String id, String description, Priority priority, String author, LocalDateTime time) {
+        this.id = id;
+        this.status = CommandStatus.PENDING;
+        this.description = description;
+        this.priority = priority;
+        this.author = author;
+        this.time = time;
+    }
 }
@@ -0,0 +1,15 @@
+package ru.romanov.weyland.yutani.synthetic.model;
+
+import lombok.Getter;
+
+@Getter
+public enum CommandExecutorMode {
+    POOL("Фиксированный пул платформенных потоков"),
+    VIRTUAL("Виртуальный поток на каждую команду");
+
+    private final String description;
+
+    CommandExecutorMode(String description) {
+        this.description = description;
+    }
+}
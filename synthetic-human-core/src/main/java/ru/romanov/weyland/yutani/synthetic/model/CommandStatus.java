@@ -14,4 +14,8 @@ public enum CommandStatus {
     CommandStatus(String description) {
         this.description = description;
     }
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == FAILED;
+    }
 }
@@ -1,6 +1,7 @@
 package ru.romanov.weyland.yutani.synthetic.rest.advice;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -8,7 +9,11 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.romanov.weyland.yutani.synthetic.dto.response.ErrorResponseDTO;
+import ru.romanov.weyland.yutani.synthetic.exception.AuditStoreUnavailableException;
+import ru.romanov.weyland.yutani.synthetic.exception.AuthorRateLimitExceededException;
+import ru.romanov.weyland.yutani.synthetic.exception.CommandAdmissionRejectedException;
 import ru.romanov.weyland.yutani.synthetic.exception.CommandExecutionException;
+import ru.romanov.weyland.yutani.synthetic.exception.CommandIdConflictException;
 import ru.romanov.weyland.yutani.synthetic.exception.CommandQueueOverflowException;
 import ru.romanov.weyland.yutani.synthetic.exception.CommandValidationException;
 
@@ -56,7 +61,67 @@ public class GlobalExceptionHandler {
 
         log.error("Переполнение очереди команд: {}", ex.getMessage());
 
-        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponseDTO);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE);
+        if (ex.getRetryAfter() != null) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()));
+        }
+        return response.body(errorResponseDTO);
+    }
+
+    @ExceptionHandler(CommandAdmissionRejectedException.class)
+    public ResponseEntity<ErrorResponseDTO> handleCommandAdmissionRejected(
+            CommandAdmissionRejectedException ex) {
+
+        long retryAfterSeconds = ex.getRetryAfter().toSeconds();
+
+        ErrorResponseDTO errorResponseDTO = new ErrorResponseDTO(
+                "ADMISSION_REJECTED",
+                ex.getMessage(),
+                Map.of("retryAfterSeconds", String.valueOf(retryAfterSeconds)),
+                LocalDateTime.now()
+        );
+
+        log.warn("Команда не допущена к выполнению: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(errorResponseDTO);
+    }
+
+    @ExceptionHandler(AuthorRateLimitExceededException.class)
+    public ResponseEntity<ErrorResponseDTO> handleAuthorRateLimitExceeded(
+            AuthorRateLimitExceededException ex) {
+
+        long retryAfterSeconds = Math.max(1, Math.ceilDiv(ex.getRetryAfter().toMillis(), 1000L));
+
+        ErrorResponseDTO errorResponseDTO = new ErrorResponseDTO(
+                "RATE_LIMITED",
+                ex.getMessage(),
+                Map.of("retryAfterSeconds", String.valueOf(retryAfterSeconds)),
+                LocalDateTime.now()
+        );
+
+        log.warn("Превышен лимит команд автора: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(errorResponseDTO);
+    }
+
+    @ExceptionHandler(CommandIdConflictException.class)
+    public ResponseEntity<ErrorResponseDTO> handleCommandIdConflict(
+            CommandIdConflictException ex) {
+
+        ErrorResponseDTO errorResponseDTO = new ErrorResponseDTO(
+                "COMMAND_ID_CONFLICT",
+                ex.getMessage(),
+                null,
+                LocalDateTime.now()
+        );
+
+        log.warn("Конфликт идентификатора команды: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponseDTO);
     }
 
     @ExceptionHandler(CommandExecutionException.class)
@@ -91,6 +156,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponseDTO);
     }
 
+    @ExceptionHandler(AuditStoreUnavailableException.class)
+    public ResponseEntity<ErrorResponseDTO> handleAuditStoreUnavailable(
+            AuditStoreUnavailableException ex) {
+
+        ErrorResponseDTO errorResponseDTO = new ErrorResponseDTO(
+                "AUDIT_STORE_UNAVAILABLE",
+                ex.getMessage(),
+                null,
+                LocalDateTime.now()
+        );
+
+        log.warn("Запрос к недоступному хранилищу аудита: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponseDTO);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponseDTO> handleGenericException(Exception ex) {
 
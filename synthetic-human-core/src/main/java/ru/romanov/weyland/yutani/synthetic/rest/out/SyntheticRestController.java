@@ -3,19 +3,40 @@ package ru.romanov.weyland.yutani.synthetic.rest.out;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.romanov.weyland.yutani.synthetic.audit.AuditFileStore;
 import ru.romanov.weyland.yutani.synthetic.audit.WeylandWatchingYou;
+import ru.romanov.weyland.yutani.synthetic.dto.CommandSubmissionDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.response.AuthorRateUsageDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.response.BatchCommandItemDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.response.BatchCommandResponseDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.response.BatchCommandSummaryDTO;
 import ru.romanov.weyland.yutani.synthetic.dto.response.CommandResponseDTO;
 import ru.romanov.weyland.yutani.synthetic.dto.response.SyntheticMetricsResponseDTO;
 import ru.romanov.weyland.yutani.synthetic.dto.response.SyntheticStatusResponseDTO;
+import ru.romanov.weyland.yutani.synthetic.exception.AuditStoreUnavailableException;
+import ru.romanov.weyland.yutani.synthetic.history.TerminalCommandResponseCache.CachedResponse;
 import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.service.CommandEventStreamService;
 import ru.romanov.weyland.yutani.synthetic.service.CommandService;
+import ru.romanov.weyland.yutani.synthetic.service.SyntheticMetricsSnapshotService;
 import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -23,7 +44,20 @@ import java.util.Map;
 @RequestMapping("/api/v1/synthetic")
 public class SyntheticRestController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String AUDIT_STREAM_MEDIA_TYPE = "application/x-ndjson";
+    private static final String METRICS_CAPTURED_AT_HEADER = "Metrics-Captured-At";
+
     private final CommandService commandService;
+    private final CommandEventStreamService commandEventStreamService;
+    private final SyntheticMetricsSnapshotService metricsSnapshotService;
+
+    @Nullable
+    private final AuditFileStore auditFileStore;
+
+    @Value("${spring.weyland.command.long-poll.max-wait:30s}")
+    private Duration maxLongPollWait;
 
     @GetMapping("/status")
     @WeylandWatchingYou(description = "Проверка статуса синтетика")
@@ -46,7 +80,9 @@ public class SyntheticRestController {
 
     @PostMapping("/command")
     @WeylandWatchingYou(description = "Отправка команды синтетику", level = AuditLevel.HIGH)
-    public ResponseEntity<CommandResponseDTO> sendCommand(@Valid @RequestBody Command command) {
+    public ResponseEntity<CommandResponseDTO> sendCommand(@Valid @RequestBody Command command,
+                                                          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false)
+                                                          String idempotencyKey) {
 
         log.info("Получена команда от {}: {}", command.getAuthor(), command.getDescription());
 
@@ -55,15 +91,21 @@ public class SyntheticRestController {
         }
 
         try {
-            String result = commandService.processCommand(command);
+            CommandSubmissionDTO submission = commandService.submitCommand(command, idempotencyKey);
+            Command accepted = submission.command();
 
             CommandResponseDTO response = new CommandResponseDTO(
-                    command.getId(),
-                    "ACCEPTED",
-                    result,
+                    accepted.getId(),
+                    submission.duplicate() ? accepted.getStatus().name() : "ACCEPTED",
+                    submission.message(),
                     LocalDateTime.now()
             );
 
+            if (submission.duplicate()) {
+                return ResponseEntity.ok()
+                        .header(IDEMPOTENT_REPLAYED_HEADER, "true")
+                        .body(response);
+            }
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
 
         } catch (Exception e) {
@@ -72,9 +114,43 @@ public class SyntheticRestController {
         }
     }
 
+    @PostMapping("/commands/batch")
+    @WeylandWatchingYou(description = "Пакетная отправка команд синтетику", level = AuditLevel.HIGH,
+            includeParameters = false, includeResult = false)
+    public ResponseEntity<BatchCommandResponseDTO> sendCommandBatch(@RequestBody List<Command> commands) {
+
+        log.info("Получен пакет из {} команд", commands.size());
+
+        List<BatchCommandItemDTO> items = commandService.processCommandBatch(commands);
+        BatchCommandSummaryDTO summary = commandService.summarizeBatch(items);
+
+        BatchCommandResponseDTO response = new BatchCommandResponseDTO(
+                summary.total(),
+                summary.accepted(),
+                summary.rejected(),
+                items,
+                LocalDateTime.now()
+        );
+
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/command/{commandId}")
     @WeylandWatchingYou(description = "Получение информации о команде")
-    public ResponseEntity<Command> getCommand(@PathVariable String commandId) {
+    public ResponseEntity<?> getCommand(@PathVariable String commandId,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                        String ifNoneMatch) {
+
+        CachedResponse cached = commandService.getCachedCommandResponse(commandId);
+        if (cached != null) {
+            if (cached.matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cached.etag()).build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(cached.etag())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(cached.body());
+        }
 
         Command command = commandService.getCommand(commandId);
 
@@ -85,24 +161,90 @@ public class SyntheticRestController {
         return ResponseEntity.ok(command);
     }
 
+    @GetMapping(value = "/command/{commandId}", params = "waitMs")
+    @WeylandWatchingYou(description = "Ожидание завершения команды", includeResult = false)
+    public CompletableFuture<ResponseEntity<Command>> awaitCommand(@PathVariable String commandId,
+                                                                   @RequestParam long waitMs) {
+
+        Command command = commandService.getCommand(commandId);
+        CompletableFuture<Command> completion = commandService.awaitCompletion(commandId);
+
+        if (command == null || completion == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+
+        long timeoutMs = Math.clamp(waitMs, 0, maxLongPollWait.toMillis());
+        return completion
+                .completeOnTimeout(command, timeoutMs, TimeUnit.MILLISECONDS)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping(value = "/command/{commandId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @WeylandWatchingYou(description = "Подписка на события команды", includeResult = false)
+    public ResponseEntity<SseEmitter> streamCommandEvents(@PathVariable String commandId) {
+
+        Command command = commandService.getCommand(commandId);
+
+        if (command == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(commandEventStreamService.subscribe(command));
+    }
+
+    @GetMapping("/commands/active")
+    @WeylandWatchingYou(description = "Получение списка активных команд", includeResult = false)
+    public ResponseEntity<List<Command>> getActiveCommands() {
+        return ResponseEntity.ok(commandService.getActiveCommands());
+    }
+
     @GetMapping("/stats/authors")
     @WeylandWatchingYou(description = "Получение статистики команд по авторам")
     public ResponseEntity<Map<String, Integer>> getAuthorStats() {
-        Map<String, Integer> stats = commandService.getCommandStatsByAuthor();
-        return ResponseEntity.ok(stats);
+        SyntheticMetricsResponseDTO snapshot = metricsSnapshotService.current();
+        return ResponseEntity.ok()
+                .header(METRICS_CAPTURED_AT_HEADER, snapshot.capturedAt().toString())
+                .body(snapshot.commandsByAuthor());
+    }
+
+    @GetMapping("/stats/authors/rate-limit")
+    @WeylandWatchingYou(description = "Получение использования лимитов авторов", includeResult = false)
+    public ResponseEntity<List<AuthorRateUsageDTO>> getAuthorRateUsage() {
+        return ResponseEntity.ok(commandService.getAuthorRateUsage());
+    }
+
+    @GetMapping("/stats/authors/{author}/rate-limit")
+    @WeylandWatchingYou(description = "Получение использования лимита автора")
+    public ResponseEntity<AuthorRateUsageDTO> getAuthorRateUsage(@PathVariable String author) {
+        return ResponseEntity.ok(commandService.getAuthorRateUsage(author));
     }
 
     @GetMapping("/metrics")
     @WeylandWatchingYou(description = "Получение метрик синтетика")
     public ResponseEntity<SyntheticMetricsResponseDTO> getMetrics() {
-        SyntheticMetricsResponseDTO metrics = new SyntheticMetricsResponseDTO(
-                commandService.getCurrentQueueSize(),
-                commandService.getTotalCommandsCount(),
-                commandService.getActiveCommandsCount(),
-                commandService.getCommandStatsByAuthor()
-        );
+        return ResponseEntity.ok(metricsSnapshotService.current());
+    }
+
+    @GetMapping(value = "/audit", produces = AUDIT_STREAM_MEDIA_TYPE)
+    @WeylandWatchingYou(description = "Поиск записей локального аудита", includeResult = false)
+    public ResponseEntity<StreamingResponseBody> queryAudit(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) AuditLevel level,
+            @RequestParam(required = false) String method,
+            @RequestParam(required = false) Integer limit) {
+
+        if (auditFileStore == null) {
+            throw new AuditStoreUnavailableException("Локальное хранилище аудита доступно только в режиме FILE");
+        }
 
-        return ResponseEntity.ok(metrics);
+        StreamingResponseBody body = out -> {
+            int found = auditFileStore.query(from, to, level, method, limit, out);
+            log.debug("Запрос аудита [{} - {}] уровень={} метод={}: найдено {}", from, to, level, method, found);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(AUDIT_STREAM_MEDIA_TYPE))
+                .body(body);
     }
 
     @PostMapping("/test/audit")
@@ -0,0 +1,352 @@
+package ru.romanov.weyland.yutani.synthetic.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+import ru.romanov.weyland.yutani.synthetic.trace.TraceContext;
+import ru.romanov.weyland.yutani.synthetic.trace.TraceContextHolder;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CommandScheduler {
+
+    private static final double SERVICE_TIME_EWMA_ALPHA = 0.2;
+
+    ExecutorService workers;
+    int workerCount;
+    int reservedCriticalWorkers;
+    long agingThresholdNanos;
+    Consumer<Command> task;
+    Consumer<Command> rejectedTask;
+
+    Map<Priority, Lane> lanes = new EnumMap<>(Priority.class);
+    ReentrantLock lock = new ReentrantLock();
+    Condition workAvailable = lock.newCondition();
+    Condition drained = lock.newCondition();
+    AtomicInteger pendingCount = new AtomicInteger();
+    Counter agedDispatchCounter;
+    Thread dispatcher;
+
+    @NonFinal
+    volatile int busyWorkers;
+
+    @NonFinal
+    int busyCommonWorkers;
+
+    @NonFinal
+    volatile boolean accepting = true;
+
+    @Builder
+    public CommandScheduler(ExecutorService workers,
+                            int workerCount,
+                            int reservedCriticalWorkers,
+                            int criticalCapacity,
+                            int commonCapacity,
+                            Duration agingThreshold,
+                            Duration initialServiceTime,
+                            Consumer<Command> task,
+                            Consumer<Command> rejectedTask,
+                            MeterRegistry meterRegistry) {
+        this.workers = workers;
+        this.workerCount = workerCount;
+        this.reservedCriticalWorkers = Math.clamp(reservedCriticalWorkers, 0, workerCount - 1);
+        this.agingThresholdNanos = agingThreshold.toNanos();
+        this.task = task;
+        this.rejectedTask = rejectedTask;
+
+        long initialServiceNanos = initialServiceTime.toNanos();
+        lanes.put(Priority.CRITICAL, new Lane(Priority.CRITICAL, criticalCapacity, initialServiceNanos, meterRegistry));
+        lanes.put(Priority.COMMON, new Lane(Priority.COMMON, commonCapacity, initialServiceNanos, meterRegistry));
+
+        this.agedDispatchCounter = Counter.builder("synthetic.lane.aged.dispatches")
+                .description("Количество обычных команд, обогнавших критические из-за старения")
+                .register(meterRegistry);
+
+        this.dispatcher = Thread.ofPlatform()
+                .name("synthetic-command-dispatcher")
+                .daemon()
+                .unstarted(this::dispatchLoop);
+    }
+
+    public void start() {
+        dispatcher.start();
+        log.info("Планировщик команд запущен: воркеров {}, резерв CRITICAL {}, старение {} мс",
+                workerCount, reservedCriticalWorkers, TimeUnit.NANOSECONDS.toMillis(agingThresholdNanos));
+    }
+
+    public boolean offer(Command command) {
+        Lane lane = lanes.get(command.getPriority());
+
+        lock.lock();
+        try {
+            if (!accepting || lane.isFull()) {
+                return false;
+            }
+            lane.add(new QueuedCommand(command, System.nanoTime(), TraceContextHolder.current()));
+            pendingCount.incrementAndGet();
+            workAvailable.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean[] offerAll(List<Command> commands) {
+        boolean[] accepted = new boolean[commands.size()];
+
+        lock.lock();
+        try {
+            if (!accepting) {
+                return accepted;
+            }
+
+            long now = System.nanoTime();
+            TraceContext trace = TraceContextHolder.current();
+            int added = 0;
+            for (int i = 0; i < commands.size(); i++) {
+                Lane lane = lanes.get(commands.get(i).getPriority());
+                if (!lane.isFull()) {
+                    lane.add(new QueuedCommand(commands.get(i), now, trace));
+                    accepted[i] = true;
+                    added++;
+                }
+            }
+
+            if (added > 0) {
+                pendingCount.addAndGet(added);
+                workAvailable.signal();
+            }
+            return accepted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    public int getBusyWorkers() {
+        return busyWorkers;
+    }
+
+    public int getLaneDepth(Priority priority) {
+        return lanes.get(priority).depth.get();
+    }
+
+    public Duration estimateDrainTime(Priority priority, int additionalCommands) {
+        Lane critical = lanes.get(Priority.CRITICAL);
+        double criticalNanos = (critical.depth.get() + (priority == Priority.CRITICAL ? additionalCommands : 0))
+                * critical.serviceTimeNanos / workerCount;
+        if (priority == Priority.CRITICAL) {
+            return Duration.ofNanos((long) criticalNanos);
+        }
+
+        // Обычные команды ждут еще и всю полосу CRITICAL, а выполняются только на нерезервированных воркерах
+        Lane common = lanes.get(Priority.COMMON);
+        double commonNanos = (common.depth.get() + additionalCommands)
+                * common.serviceTimeNanos / (workerCount - reservedCriticalWorkers);
+        return Duration.ofNanos((long) (criticalNanos + commonNanos));
+    }
+
+    public int shutdown(Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            accepting = false;
+            long remaining = timeout.toNanos();
+            while (pendingCount.get() > 0 && remaining > 0) {
+                remaining = drained.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        dispatcher.interrupt();
+        workers.shutdownNow();
+        return pendingCount.get();
+    }
+
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            QueuedCommand next;
+
+            lock.lock();
+            try {
+                while ((next = pollNext()) == null) {
+                    workAvailable.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            dispatch(next);
+        }
+    }
+
+    private QueuedCommand pollNext() {
+        Lane critical = lanes.get(Priority.CRITICAL);
+        Lane common = lanes.get(Priority.COMMON);
+
+        boolean workerFree = busyWorkers < workerCount;
+        boolean commonWorkerFree = workerFree && busyCommonWorkers < workerCount - reservedCriticalWorkers;
+
+        QueuedCommand commonHead = common.peek();
+        if (commonHead != null && commonWorkerFree) {
+            if (critical.peek() == null) {
+                return take(common);
+            }
+            // Состарившаяся обычная команда обгоняет критические, чтобы полоса COMMON не голодала
+            if (System.nanoTime() - commonHead.enqueuedAtNanos() >= agingThresholdNanos) {
+                agedDispatchCounter.increment();
+                return take(common);
+            }
+        }
+
+        if (critical.peek() != null && workerFree) {
+            return take(critical);
+        }
+        return null;
+    }
+
+    private QueuedCommand take(Lane lane) {
+        QueuedCommand queued = lane.poll();
+        busyWorkers++;
+        if (lane.priority == Priority.COMMON) {
+            busyCommonWorkers++;
+        }
+        return queued;
+    }
+
+    private void dispatch(QueuedCommand queued) {
+        Command command = queued.command();
+        lanes.get(command.getPriority()).waitTimer
+                .record(System.nanoTime() - queued.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+
+        try {
+            workers.execute(() -> runTask(queued));
+        } catch (RejectedExecutionException e) {
+            log.error("Команда {} не передана на выполнение: {}", command.getId(), e.getMessage());
+            // Команда завершается так же, как при переполнении полосы, иначе она навсегда останется PENDING
+            try {
+                rejectedTask.accept(command);
+            } finally {
+                release(command.getPriority(), -1);
+            }
+        }
+    }
+
+    // Воркер продолжает трассу запроса, поставившего команду в очередь, отдельным участком
+    private void runTask(QueuedCommand queued) {
+        Command command = queued.command();
+        if (queued.trace() != null) {
+            TraceContextHolder.set(queued.trace().child());
+        }
+
+        long start = System.nanoTime();
+        try {
+            task.accept(command);
+        } finally {
+            TraceContextHolder.clear();
+            release(command.getPriority(), System.nanoTime() - start);
+        }
+    }
+
+    private void release(Priority priority, long serviceNanos) {
+        lock.lock();
+        try {
+            if (serviceNanos >= 0) {
+                Lane lane = lanes.get(priority);
+                lane.serviceTimeNanos += SERVICE_TIME_EWMA_ALPHA * (serviceNanos - lane.serviceTimeNanos);
+            }
+
+            busyWorkers--;
+            if (priority == Priority.COMMON) {
+                busyCommonWorkers--;
+            }
+            if (pendingCount.decrementAndGet() == 0) {
+                drained.signalAll();
+            }
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record QueuedCommand(Command command, long enqueuedAtNanos, TraceContext trace) {}
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class Lane {
+
+        Priority priority;
+        int capacity;
+        Deque<QueuedCommand> queue = new ArrayDeque<>();
+        AtomicInteger depth = new AtomicInteger();
+        Timer waitTimer;
+
+        @NonFinal
+        volatile double serviceTimeNanos;
+
+        Lane(Priority priority, int capacity, long initialServiceNanos, MeterRegistry meterRegistry) {
+            this.priority = priority;
+            this.capacity = capacity;
+            this.serviceTimeNanos = initialServiceNanos;
+
+            String laneTag = priority.name().toLowerCase();
+            Gauge.builder("synthetic.lane.queue.size", depth, AtomicInteger::get)
+                    .description("Количество команд, ожидающих в полосе")
+                    .tag("lane", laneTag)
+                    .register(meterRegistry);
+            this.waitTimer = Timer.builder("synthetic.lane.wait.time")
+                    .description("Время ожидания команды в полосе до запуска")
+                    .tag("lane", laneTag)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+        }
+
+        boolean isFull() {
+            return queue.size() >= capacity;
+        }
+
+        void add(QueuedCommand queued) {
+            queue.addLast(queued);
+            depth.incrementAndGet();
+        }
+
+        QueuedCommand peek() {
+            return queue.peekFirst();
+        }
+
+        QueuedCommand poll() {
+            QueuedCommand queued = queue.pollFirst();
+            if (queued != null) {
+                depth.decrementAndGet();
+            }
+            return queued;
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package ru.romanov.weyland.yutani.synthetic.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import ru.romanov.weyland.yutani.synthetic.audit.AuditFileStore;
+import ru.romanov.weyland.yutani.synthetic.audit.ConsoleAuditSink;
+import ru.romanov.weyland.yutani.synthetic.audit.KafkaAuditRelay;
 import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
 
+import java.util.List;
+
 @Slf4j
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @RequiredArgsConstructor
@@ -21,17 +25,19 @@ public class AuditService {
     @Value("${spring.weyland.audit.mode}")
     String auditMode;
 
-    @NonFinal
-    @Value("${spring.weyland.audit.kafka.topic}")
-    String topic;
+    ConsoleAuditSink consoleAuditSink;
+
+    @Nullable
+    KafkaAuditRelay kafkaAuditRelay;
 
-    KafkaTemplate<String, String> kafkaTemplate;
-    ObjectMapper objectMapper;
+    @Nullable
+    AuditFileStore auditFileStore;
 
     public void sendAuditRecord(AuditDTO auditDto) {
         try {
             switch (auditMode.toUpperCase()) {
                 case "KAFKA" -> sendToKafka(auditDto);
+                case "FILE" -> sendToFile(List.of(auditDto));
                 case "CONSOLE" -> sendToConsole(auditDto);
                 default -> {
                     log.warn("Неизвестный режим аудита: '{}'. Используйте консольный вывод.", auditMode);
@@ -44,56 +50,49 @@ public class AuditService {
         }
     }
 
+    public void sendAuditRecords(List<AuditDTO> auditDtos) {
+        if ("FILE".equalsIgnoreCase(auditMode)) {
+            sendToFile(auditDtos);
+            return;
+        }
+
+        for (AuditDTO auditDto : auditDtos) {
+            sendAuditRecord(auditDto);
+        }
+    }
+
     private void sendToKafka(AuditDTO auditDto) {
-        if (kafkaTemplate == null) {
+        if (kafkaAuditRelay == null) {
             log.warn("Kafka недоступна. Переключение на консольный вывод.");
             sendToConsole(auditDto);
             return;
         }
 
         try {
-            String jsonDto = objectMapper.writeValueAsString(auditDto);
-            kafkaTemplate.send(topic, jsonDto);
-            log.debug("Аудит отправлен в Kafka Topic: {}", topic);
+            kafkaAuditRelay.publish(auditDto);
+            log.debug("Аудит отправлен в Kafka Topic: {}", kafkaAuditRelay.getTopic());
         } catch (Exception e) {
             log.error("Ошибка отправки в Kafka: {}", e.getMessage());
             sendToConsole(auditDto);
         }
     }
 
-    private void sendToConsole(AuditDTO auditDto) {
-        StringBuilder sb = new StringBuilder(
-                String.format("""
-                               %n----------------------------------------------------------
-                               Время: %s
-                               Метод: %s
-                               Описание: %s
-                               Статус: %s
-                               Время выполнения: %d мс
-                               Уровень: %s
-                               """,
-                        auditDto.timestamp().toString(),
-                        auditDto.methodName(),
-                        auditDto.description(),
-                        auditDto.status(),
-                        auditDto.executionTimeMs(),
-                        auditDto.level()
-                )
-        );
-
-        if (auditDto.parameters() != null) {
-            sb.append(String.format("%nПараметры: %s", auditDto.parameters()));
-        }
-
-        if (auditDto.result() != null) {
-            sb.append(String.format("%nРезультат: %s", auditDto.result()));
+    private void sendToFile(List<AuditDTO> auditDtos) {
+        if (auditFileStore == null) {
+            log.warn("Локальное хранилище аудита недоступно. Переключение на консольный вывод.");
+            auditDtos.forEach(this::sendToConsole);
+            return;
         }
 
-        if (auditDto.errorMessage() != null) {
-            sb.append(String.format("%nОшибка: %s", auditDto.errorMessage()));
+        try {
+            auditFileStore.append(auditDtos);
+        } catch (Exception e) {
+            log.error("Ошибка записи аудита в локальное хранилище: {}", e.getMessage());
+            auditDtos.forEach(this::sendToConsole);
         }
+    }
 
-        sb.append("\n----------------------------------------------------------");
-        log.info(sb.toString());
+    private void sendToConsole(AuditDTO auditDto) {
+        consoleAuditSink.write(auditDto);
     }
 }
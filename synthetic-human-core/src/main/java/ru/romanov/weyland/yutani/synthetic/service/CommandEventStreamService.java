@@ -0,0 +1,114 @@
+package ru.romanov.weyland.yutani.synthetic.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.romanov.weyland.yutani.synthetic.dto.CommandStatusEventDTO;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Service
+public class CommandEventStreamService {
+
+    Duration emitterTimeout;
+
+    Map<String, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    // Рассылка идет в одном потоке вне потока исполнителя команд: события одной команды не переупорядочиваются,
+    // а медленный подписчик не задерживает смену статуса
+    ThreadPoolExecutor fanOut;
+
+    public CommandEventStreamService(@Value("${spring.weyland.command.events.timeout:5m}") Duration emitterTimeout,
+                                     @Value("${spring.weyland.command.events.queue-capacity:10000}") int queueCapacity) {
+        this.emitterTimeout = emitterTimeout;
+        this.fanOut = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("synthetic-command-events").daemon().factory());
+    }
+
+    public SseEmitter subscribe(Command command) {
+        String commandId = command.getId();
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+
+        emitters.computeIfAbsent(commandId, _ -> ConcurrentHashMap.newKeySet()).add(emitter);
+        emitter.onCompletion(() -> unsubscribe(commandId, emitter));
+        emitter.onTimeout(() -> unsubscribe(commandId, emitter));
+        emitter.onError(_ -> unsubscribe(commandId, emitter));
+
+        send(emitter, new CommandStatusEventDTO(commandId, null, command.getStatus(), LocalDateTime.now()));
+        return emitter;
+    }
+
+    @EventListener
+    public void onStatusChanged(CommandStatusEventDTO event) {
+        if (!emitters.containsKey(event.commandId())) {
+            return;
+        }
+
+        try {
+            fanOut.execute(() -> deliver(event));
+        } catch (RejectedExecutionException e) {
+            // Очередь рассылки переполнена: подписчики команды отключаются и при переподключении получат текущий статус
+            log.warn("Очередь рассылки событий переполнена, подписчики команды {} отключены", event.commandId());
+            Set<SseEmitter> subscribers = emitters.remove(event.commandId());
+            if (subscribers != null) {
+                subscribers.forEach(SseEmitter::complete);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        fanOut.shutdownNow();
+    }
+
+    private void deliver(CommandStatusEventDTO event) {
+        Set<SseEmitter> subscribers = emitters.get(event.commandId());
+        if (subscribers == null) {
+            return;
+        }
+
+        subscribers.forEach(emitter -> send(emitter, event));
+    }
+
+    private void send(SseEmitter emitter, CommandStatusEventDTO event) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("status")
+                    .id(String.format("%s:%s", event.commandId(), event.status()))
+                    .data(event));
+
+            if (event.status().isTerminal()) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Подписчик событий команды {} отключен: {}", event.commandId(), e.getMessage());
+            unsubscribe(event.commandId(), emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(String commandId, SseEmitter emitter) {
+        emitters.computeIfPresent(commandId, (_, subscribers) -> {
+            subscribers.remove(emitter);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+}
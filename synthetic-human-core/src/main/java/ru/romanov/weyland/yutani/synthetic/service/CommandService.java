@@ -1,67 +1,154 @@
 package ru.romanov.weyland.yutani.synthetic.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import ru.romanov.weyland.yutani.synthetic.admission.AdmissionController;
+import ru.romanov.weyland.yutani.synthetic.admission.AdmissionDecision;
+import ru.romanov.weyland.yutani.synthetic.admission.AuthorRateLimiter;
+import ru.romanov.weyland.yutani.synthetic.admission.IdempotencyCache;
 import ru.romanov.weyland.yutani.synthetic.audit.WeylandWatchingYou;
+import ru.romanov.weyland.yutani.synthetic.dto.CommandStatusEventDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.CommandSubmissionDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.response.AuthorRateUsageDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.response.BatchCommandItemDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.response.BatchCommandSummaryDTO;
+import ru.romanov.weyland.yutani.synthetic.exception.AuthorRateLimitExceededException;
+import ru.romanov.weyland.yutani.synthetic.exception.CommandAdmissionRejectedException;
+import ru.romanov.weyland.yutani.synthetic.exception.CommandExecutionException;
+import ru.romanov.weyland.yutani.synthetic.exception.CommandIdConflictException;
 import ru.romanov.weyland.yutani.synthetic.exception.CommandQueueOverflowException;
+import ru.romanov.weyland.yutani.synthetic.exception.CommandValidationException;
+import ru.romanov.weyland.yutani.synthetic.history.CommandHistoryStore;
+import ru.romanov.weyland.yutani.synthetic.history.CommandStatusIndex;
+import ru.romanov.weyland.yutani.synthetic.history.TerminalCommandResponseCache;
+import ru.romanov.weyland.yutani.synthetic.journal.CommandJournal;
 import ru.romanov.weyland.yutani.synthetic.model.Command;
 import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+import ru.romanov.weyland.yutani.synthetic.model.CommandExecutorMode;
 import ru.romanov.weyland.yutani.synthetic.model.CommandStatus;
 import ru.romanov.weyland.yutani.synthetic.model.Priority;
+import ru.romanov.weyland.yutani.synthetic.scheduler.CommandScheduler;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Service
 public class CommandService {
 
-    @Value("${spring.weyland.command.queue.max-size}")
-    int maxQueueSize;
-
-    @Value("${spring.weyland.command.executor.core-pool-size}")
-    int corePoolSize;
-
-    @Value("${spring.weyland.command.executor.max-pool-size}")
-    int maxPoolSize;
-
-    @Value("${spring.weyland.command.executor.keep-alive-time}")
-    long keepAliveTime;
-
-    ThreadPoolExecutor commandExecutor;
-    final Map<String, Command> commandHistory = new ConcurrentHashMap<>();
+    CommandScheduler commandScheduler;
+    AdmissionController admissionController;
+    CommandStatusIndex statusIndex;
+    TerminalCommandResponseCache responseCache;
+    final CommandHistoryStore commandHistory;
     final Map<String, AtomicInteger> authorCommandCount = new ConcurrentHashMap<>();
+    final Map<String, Integer> authorStatsView = new AuthorStatsView();
+    final AtomicInteger totalCommandsCount = new AtomicInteger(0);
+    final Map<String, CompletableFuture<Command>> completionFutures = new ConcurrentHashMap<>();
+    volatile boolean stopping;
 
-    final AtomicInteger queueSize = new AtomicInteger(0);
     Counter completedCommandsCounter;
     Counter failedCommandsCounter;
+    Counter batchAcceptedCounter;
+    Counter batchRejectedCounter;
+    final CommandServiceSettings settings;
     final MeterRegistry meterRegistry;
-
-    public CommandService(MeterRegistry meterRegistry) {
+    final ObjectMapper objectMapper;
+    final Validator validator;
+    final ApplicationEventPublisher eventPublisher;
+    final CommandJournal commandJournal;
+    final AuthorRateLimiter authorRateLimiter;
+    final IdempotencyCache idempotencyCache;
+
+    public CommandService(CommandServiceSettings settings,
+                          MeterRegistry meterRegistry,
+                          ObjectMapper objectMapper,
+                          CommandHistoryStore commandHistory,
+                          AuthorRateLimiter authorRateLimiter,
+                          IdempotencyCache idempotencyCache,
+                          Validator validator,
+                          ApplicationEventPublisher eventPublisher,
+                          @Nullable CommandJournal commandJournal) {
+        this.settings = settings;
         this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.commandHistory = commandHistory;
+        this.authorRateLimiter = authorRateLimiter;
+        this.idempotencyCache = idempotencyCache;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.commandJournal = commandJournal;
     }
 
     @PostConstruct
     public void init() {
-        commandExecutor = new ThreadPoolExecutor(
-                corePoolSize, maxPoolSize, keepAliveTime, TimeUnit.SECONDS,
-                new LinkedBlockingDeque<>(maxQueueSize)
-        );
+        statusIndex = new CommandStatusIndex(settings.trackStatusIds(), meterRegistry);
+        commandHistory.onEviction(statusIndex::onRemoved);
+
+        if (settings.responseCacheEnabled()) {
+            responseCache = new TerminalCommandResponseCache(objectMapper, meterRegistry);
+            commandHistory.onTerminal(responseCache::onTerminal);
+            commandHistory.onEviction(responseCache::onEvicted);
+        }
+
+        int workerCount = settings.executorMode() == CommandExecutorMode.VIRTUAL
+                ? settings.virtualMaxConcurrency()
+                : settings.maxPoolSize();
+
+        commandScheduler = CommandScheduler.builder()
+                .workers(createWorkers())
+                .workerCount(workerCount)
+                .reservedCriticalWorkers(settings.criticalReservedWorkers())
+                .criticalCapacity(settings.maxCriticalQueueSize())
+                .commonCapacity(settings.maxQueueSize())
+                .agingThreshold(settings.agingThreshold())
+                .initialServiceTime(settings.initialServiceTime())
+                .task(this::runCommand)
+                .rejectedTask(command -> rejectCommand(command, "исполнитель не принял команду"))
+                .meterRegistry(meterRegistry)
+                .build();
+
+        admissionController = new AdmissionController(
+                commandScheduler, settings.admissionEnabled(), settings.drainTimeSlo(),
+                settings.criticalDrainTimeSlo(), meterRegistry);
 
         completedCommandsCounter = Counter.builder("synthetic.commands.completed")
                 .description("Количество выполненных команд")
@@ -71,25 +158,82 @@ public class CommandService {
                 .description("Количество неудачных команд")
                 .register(meterRegistry);
 
+        batchAcceptedCounter = Counter.builder("synthetic.commands.batch.items")
+                .description("Количество команд, принятых пакетной отправкой")
+                .tag("outcome", "accepted")
+                .register(meterRegistry);
+
+        batchRejectedCounter = Counter.builder("synthetic.commands.batch.items")
+                .description("Количество команд, отклоненных при пакетной отправке")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+
         Gauge.builder("synthetic.queue.size", this, CommandService::getCurrentQueueSize)
                 .description("Текущий размер очереди команд")
                 .register(meterRegistry);
 
+        Gauge.builder("synthetic.executor.active", this, CommandService::getActiveExecutionsCount)
+                .description("Количество команд, выполняемых в данный момент")
+                .tag("mode", settings.executorMode().name())
+                .register(meterRegistry);
+
+        if (commandJournal != null) {
+            recoverFromJournal();
+        }
+
+        commandScheduler.start();
+
         log.info("Synthetic Command Service initialized");
-            log.info("Queue size: {}, Thread pool: {}-{}",
-                maxQueueSize, corePoolSize, maxPoolSize);
+        log.info("Queue size: COMMON {}, CRITICAL {}, Executor: {}, workers: {}",
+                settings.maxQueueSize(), settings.maxCriticalQueueSize(), settings.executorMode(), workerCount);
+    }
+
+    private ExecutorService createWorkers() {
+        return switch (settings.executorMode()) {
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("synthetic-command-", 0).factory());
+            case POOL -> {
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                        settings.maxPoolSize(), settings.maxPoolSize(), settings.keepAliveTime(), TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>()
+                );
+                pool.allowCoreThreadTimeOut(true);
+                yield pool;
+            }
+        };
+    }
+
+    private void recoverFromJournal() {
+        List<Command> recovered;
+        try {
+            recovered = commandJournal.replay();
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalStateException("Не удалось восстановить журнал команд", e);
+        }
+        commandJournal.start();
+
+        for (Command command : recovered) {
+            registerCommand(command);
+            if (!commandScheduler.offer(command)) {
+                rejectCommand(command, "очередь переполнена при восстановлении");
+            }
+        }
+
+        if (!recovered.isEmpty()) {
+            log.warn("Из журнала восстановлено и повторно поставлено в очередь команд: {}", recovered.size());
+        }
     }
 
     @PreDestroy
     public void destroy() {
-        if (commandExecutor != null) {
-            commandExecutor.shutdown();
+        stopping = true;
+        if (commandScheduler != null) {
             try {
-                if (!commandExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
-                    commandExecutor.shutdownNow();
+                int abandoned = commandScheduler.shutdown(settings.shutdownTimeout());
+                if (abandoned > 0) {
+                    log.warn("При остановке не выполнено команд: {}", abandoned);
                 }
             } catch (InterruptedException e) {
-                commandExecutor.shutdown();
                 Thread.currentThread().interrupt();
             }
         }
@@ -98,62 +242,333 @@ public class CommandService {
 
     @WeylandWatchingYou(description = "Обработка команды синтетика", level = AuditLevel.HIGH)
     public String processCommand(Command command) {
+        return acceptCommand(command).message();
+    }
+
+    @WeylandWatchingYou(description = "Идемпотентная обработка команды синтетика", level = AuditLevel.HIGH)
+    public CommandSubmissionDTO submitCommand(Command command, @Nullable String idempotencyKey) {
+        // Быстрый путь для повторов; окончательно дубликат определяется атомарной регистрацией
+        Command existing = commandHistory.get(command.getId());
+        if (existing != null) {
+            return duplicateOf(command, existing);
+        }
+
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return acceptCommand(command);
+        }
+
+        String key = command.getAuthor() + ':' + idempotencyKey;
+        Command original = idempotencyCache.putIfAbsent(key, command);
+        if (original != null) {
+            log.info("Повторная отправка команды {} по ключу идемпотентности", original.getId());
+            return duplicateSubmission(original);
+        }
+
+        try {
+            CommandSubmissionDTO submission = acceptCommand(command);
+            if (submission.duplicate()) {
+                idempotencyCache.remove(key, command);
+            }
+            return submission;
+        } catch (RuntimeException e) {
+            // Отклоненная команда не должна блокировать повторную отправку с тем же ключом
+            idempotencyCache.remove(key, command);
+            throw e;
+        }
+    }
+
+    // Идентификатор команды задает клиент, поэтому повтором считается только команда того же автора
+    private CommandSubmissionDTO duplicateOf(Command command, Command existing) {
+        if (!Objects.equals(existing.getAuthor(), command.getAuthor())) {
+            throw new CommandIdConflictException(String.format(
+                    "Идентификатор команды %s уже занят другим автором", command.getId()));
+        }
+        log.info("Повторная отправка команды с идентификатором {}", existing.getId());
+        return duplicateSubmission(existing);
+    }
+
+    private CommandSubmissionDTO duplicateSubmission(Command original) {
+        return new CommandSubmissionDTO(original, true, String.format(
+                "Команда уже принята ранее: %s (статус %s)", original.getId(), original.getStatus()));
+    }
+
+    private CommandSubmissionDTO acceptCommand(Command command) {
         log.info("Получена команда: {}", command);
 
-        commandHistory.put(command.getId(), command);
+        // Лимит автора расходуется только командами, прошедшими контроль допуска
+        AdmissionDecision decision = admissionController.evaluate(command.getPriority(), 0);
+        if (!decision.admitted()) {
+            log.warn("Команда {} не допущена: оценка разбора очереди {} мс", command.getId(),
+                    decision.estimatedDrainTime().toMillis());
+            throw new CommandAdmissionRejectedException(admissionMessage(command, decision), decision.retryAfter());
+        }
+
+        Duration rateLimitRetryAfter = authorRateLimiter.tryAcquire(command.getAuthor());
+        if (!rateLimitRetryAfter.isZero()) {
+            log.warn("Превышен лимит команд автора {}", command.getAuthor());
+            throw new AuthorRateLimitExceededException(rateLimitMessage(command, rateLimitRetryAfter), rateLimitRetryAfter);
+        }
+
+        Command existing = registerCommand(command);
+        if (existing != null) {
+            authorRateLimiter.refund(command.getAuthor());
+            return duplicateOf(command, existing);
+        }
+
+        try {
+            journalAccepted(List.of(command));
+        } catch (RuntimeException e) {
+            discardCommand(command, "не удалось записать в журнал");
+            authorRateLimiter.refund(command.getAuthor());
+            throw e;
+        }
+
+        return new CommandSubmissionDTO(command, false, enqueueCommand(command));
+    }
+
+    public List<BatchCommandItemDTO> processCommandBatch(List<Command> commands) {
+        if (commands.size() > settings.maxBatchSize()) {
+            throw new CommandValidationException(String.format(
+                    "Размер пакета %d превышает допустимый (%d)", commands.size(), settings.maxBatchSize()));
+        }
+
+        BatchCommandItemDTO[] items = new BatchCommandItemDTO[commands.size()];
+        List<Command> valid = new ArrayList<>(commands.size());
+        List<Integer> validIndexes = new ArrayList<>(commands.size());
+        Map<Priority, Integer> admittedPerLane = new EnumMap<>(Priority.class);
+        Set<String> batchIds = HashSet.newHashSet(commands.size());
+
+        for (int i = 0; i < commands.size(); i++) {
+            Command command = commands.get(i);
+            if (command == null) {
+                items[i] = BatchCommandItemDTO.rejected(i, null, "VALIDATION_ERROR", "Команда не передана");
+                continue;
+            }
+
+            Set<ConstraintViolation<Command>> violations = validator.validate(command);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(violation -> String.format("%s: %s", violation.getPropertyPath(), violation.getMessage()))
+                        .collect(Collectors.joining("; "));
+                items[i] = BatchCommandItemDTO.rejected(i, command.getId(), "VALIDATION_ERROR", message);
+                continue;
+            }
+
+            if (!batchIds.add(command.getId())) {
+                items[i] = BatchCommandItemDTO.rejected(i, command.getId(), "DUPLICATE_IN_BATCH",
+                        "Идентификатор команды повторяется в пакете");
+                continue;
+            }
+
+            Command existing = commandHistory.get(command.getId());
+            if (existing != null) {
+                items[i] = existingItem(i, command, existing);
+                continue;
+            }
+
+            int admitted = admittedPerLane.getOrDefault(command.getPriority(), 0);
+            AdmissionDecision decision = admissionController.evaluate(command.getPriority(), admitted);
+            if (!decision.admitted()) {
+                items[i] = BatchCommandItemDTO.rejected(i, command.getId(), "ADMISSION_REJECTED",
+                        admissionMessage(command, decision));
+                continue;
+            }
+
+            Duration rateLimitRetryAfter = authorRateLimiter.tryAcquire(command.getAuthor());
+            if (!rateLimitRetryAfter.isZero()) {
+                items[i] = BatchCommandItemDTO.rejected(i, command.getId(), "RATE_LIMITED",
+                        rateLimitMessage(command, rateLimitRetryAfter));
+                continue;
+            }
+            // Команда с тем же идентификатором могла быть принята параллельным запросом
+            existing = registerCommand(command);
+            if (existing != null) {
+                authorRateLimiter.refund(command.getAuthor());
+                items[i] = existingItem(i, command, existing);
+                continue;
+            }
+            admittedPerLane.put(command.getPriority(), admitted + 1);
+
+            valid.add(command);
+            validIndexes.add(i);
+        }
+
+        try {
+            journalAccepted(valid);
+        } catch (RuntimeException e) {
+            valid.forEach(command -> {
+                discardCommand(command, "не удалось записать в журнал");
+                authorRateLimiter.refund(command.getAuthor());
+            });
+            throw e;
+        }
+
+        boolean[] accepted = commandScheduler.offerAll(valid);
+        for (int j = 0; j < valid.size(); j++) {
+            Command command = valid.get(j);
+            int index = validIndexes.get(j);
+
+            if (accepted[j]) {
+                items[index] = BatchCommandItemDTO.accepted(index, command.getId());
+            } else {
+                discardCommand(command, "очередь переполнена");
+                authorRateLimiter.refund(command.getAuthor());
+                items[index] = BatchCommandItemDTO.rejected(index, command.getId(), "QUEUE_OVERFLOW",
+                        String.format("Очередь команд переполнена (приоритет %s)",
+                                command.getPriority().getDescription()));
+            }
+        }
+
+        List<BatchCommandItemDTO> result = List.of(items);
+        long acceptedCount = result.stream().filter(BatchCommandItemDTO::isAccepted).count();
+        batchAcceptedCounter.increment(acceptedCount);
+        batchRejectedCounter.increment(result.size() - acceptedCount);
+
+        log.info("Пакет команд обработан: принято {}, отклонено {}", acceptedCount, result.size() - acceptedCount);
+        return result;
+    }
+
+    // Итог пакета вместо поэлементного ответа: в аудит пишутся только размер пакета и причины отказов
+    @WeylandWatchingYou(description = "Итог пакетной обработки команд", level = AuditLevel.HIGH, includeParameters = false)
+    public BatchCommandSummaryDTO summarizeBatch(List<BatchCommandItemDTO> items) {
+        Map<String, Integer> rejectedByCode = new TreeMap<>();
+        int accepted = 0;
+        for (BatchCommandItemDTO item : items) {
+            if (item.isAccepted()) {
+                accepted++;
+            } else {
+                rejectedByCode.merge(item.code() != null ? item.code() : item.status(), 1, Integer::sum);
+            }
+        }
+        return new BatchCommandSummaryDTO(items.size(), accepted, items.size() - accepted, rejectedByCode);
+    }
+
+    private BatchCommandItemDTO existingItem(int index, Command command, Command existing) {
+        if (!Objects.equals(existing.getAuthor(), command.getAuthor())) {
+            return BatchCommandItemDTO.rejected(index, command.getId(), "COMMAND_ID_CONFLICT",
+                    "Идентификатор команды уже занят другим автором");
+        }
+        return BatchCommandItemDTO.duplicate(index, command.getId(), String.format(
+                "Команда уже принята ранее (статус %s)", existing.getStatus()));
+    }
+
+    private void journalAccepted(List<Command> commands) {
+        if (commandJournal == null || commands.isEmpty()) {
+            return;
+        }
+
+        CompletableFuture<Void> durable = commandJournal.appendAccepted(commands);
+        if (!commandJournal.isDurableAccept()) {
+            return;
+        }
+
+        try {
+            durable.get(settings.journalAcceptTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommandExecutionException("Запись команды в журнал прервана", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new CommandExecutionException("Не удалось записать команду в журнал", e);
+        }
+    }
+
+    // Возвращает ранее зарегистрированную команду с тем же идентификатором, не учитывая новую повторно
+    private Command registerCommand(Command command) {
+        Command existing = commandHistory.putIfAbsent(command);
+        if (existing != null) {
+            return existing;
+        }
+        statusIndex.onAdded(command);
+        totalCommandsCount.incrementAndGet();
 
         authorCommandCount.computeIfAbsent(command.getAuthor(), _ -> new AtomicInteger(0))
                 .incrementAndGet();
+        return null;
+    }
 
+    private void rejectCommand(Command command, String reason) {
+        command.setExecutionResult(String.format("ОТКЛОНЕНА: %s", reason));
+        updateStatus(command, CommandStatus.FAILED);
+        commandHistory.markTerminal(command);
+    }
+
+    // Команда, отклоненная при приеме, удаляется из истории: повтор с тем же идентификатором принимается заново
+    private void discardCommand(Command command, String reason) {
+        command.setExecutionResult(String.format("ОТКЛОНЕНА: %s", reason));
+        updateStatus(command, CommandStatus.FAILED);
+        if (commandHistory.remove(command)) {
+            totalCommandsCount.decrementAndGet();
+            authorCommandCount.get(command.getAuthor()).decrementAndGet();
+        }
+    }
+
+    @WeylandWatchingYou(description = "Добавление команды в очередь")
+    private String enqueueCommand(Command command) {
+        if (!commandScheduler.offer(command)) {
+            discardCommand(command, "очередь переполнена");
+            authorRateLimiter.refund(command.getAuthor());
+            throw new CommandQueueOverflowException(String.format(
+                    "Очередь команд переполнена (приоритет %s)", command.getPriority().getDescription()),
+                    admissionController.retryAfter(command.getPriority()));
+        }
+
+        log.info("Команда добавлена в очередь: {}", command.getId());
         if (command.getPriority() == Priority.CRITICAL) {
-            return executeCriticalCommand(command);
+            return String.format("Критическая команда добавлена в приоритетную очередь: %s", command.getId());
+        }
+        return String.format("Команда добавлена в очередь выполнения: %s", command.getId());
+    }
+
+    private String admissionMessage(Command command, AdmissionDecision decision) {
+        return String.format("Система перегружена: ожидаемое время разбора очереди %d мс (приоритет %s), повторите через %d с",
+                decision.estimatedDrainTime().toMillis(), command.getPriority().getDescription(),
+                decision.retryAfter().toSeconds());
+    }
+
+    private String rateLimitMessage(Command command, Duration retryAfter) {
+        return String.format("Превышен лимит команд автора %s, повторите через %d с",
+                command.getAuthor(), Math.ceilDiv(retryAfter.toMillis(), 1000L));
+    }
+
+    private void runCommand(Command command) {
+        try {
+            if (command.getPriority() == Priority.CRITICAL) {
+                executeCriticalCommand(command);
+            } else {
+                executeCommand(command);
+            }
+        } finally {
+            commandHistory.markTerminal(command);
         }
-        return enqueueCommand(command);
     }
 
     @WeylandWatchingYou(description = "Выполнение критической команды", level = AuditLevel.CRITICAL)
-    private String executeCriticalCommand(Command command) {
-        log.warn("КРИТИЧЕСКАЯ КОМАНДА выполняется немедленно: {}", command.getDescription());
+    private void executeCriticalCommand(Command command) {
+        log.warn("КРИТИЧЕСКАЯ КОМАНДА выполняется вне общей очереди: {}", command.getDescription());
 
-        command.setStatus(CommandStatus.EXECUTING);
+        updateStatus(command, CommandStatus.EXECUTING);
 
         try {
             Thread.sleep(100);
 
             String result = String.format("КРИТИЧЕСКАЯ КОМАНДА ВЫПОЛНЕНА: %s", command.getDescription());
-            command.setStatus(CommandStatus.COMPLETED);
             command.setExecutedAt(LocalDateTime.now());
             command.setExecutionResult(result);
+            updateStatus(command, CommandStatus.COMPLETED);
 
             completedCommandsCounter.increment();
 
             log.info("Критическая команда выполнена: {}", command.getId());
-            return result;
 
         } catch (Exception e) {
-            command.setStatus(CommandStatus.FAILED);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             command.setExecutionResult(String.format("ОШИБКА: %s", e.getMessage()));
+            updateStatus(command, CommandStatus.FAILED);
             failedCommandsCounter.increment();
 
-            log.error("Ошибка выполнения критической команды: {}", e.getMessage());
-            throw new RuntimeException("Ошибка выполнения критической команды", e);
-        }
-    }
-
-    @WeylandWatchingYou(description = "Добавление команды в очередь")
-    private String enqueueCommand(Command command) {
-        try {
-            commandExecutor.submit(() -> executeCommand(command));
-            queueSize.incrementAndGet();
-
-            log.info("Команда добавлена в очередь: {}", command.getId());
-            return String.format("Команда добавлена в очередь выполнения: %s", command.getId());
-
-        } catch (Exception e) {
-            if (e.getCause() instanceof RejectedExecutionException) {
-                throw new CommandQueueOverflowException("Очередь команд выполнена");
-            }
-            throw new RuntimeException("Ошибка при добавлении команды в очередь", e);
+            log.error("Ошибка выполнения критической команды {}: {}", command.getId(), e.getMessage());
         }
     }
 
@@ -162,31 +577,73 @@ public class CommandService {
         try {
             log.info("Выполняется команда: {}", command.getDescription());
 
-            command.setStatus(CommandStatus.EXECUTING);
+            updateStatus(command, CommandStatus.EXECUTING);
 
             Thread.sleep(1000 + (long)(Math.random() * 2000));
 
             String result = String.format("КОМАНДА ВЫПОЛНЕНА: %s (Автор: %s)",
                     command.getDescription(), command.getAuthor());
 
-            command.setStatus(CommandStatus.COMPLETED);
             command.setExecutedAt(LocalDateTime.now());
             command.setExecutionResult(result);
+            updateStatus(command, CommandStatus.COMPLETED);
 
             completedCommandsCounter.increment();
 
             log.info("Команда выполнена: {}", command.getId());
 
         } catch (Exception e) {
-            command.setStatus(CommandStatus.FAILED);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             command.setExecutionResult(String.format("ОШИБКА: %s", e.getMessage()));
+            updateStatus(command, CommandStatus.FAILED);
             failedCommandsCounter.increment();
 
             log.error("Ошибка выполнения команды {}: {}", command.getId(), e.getMessage());
+        }
+    }
 
-        } finally {
-            queueSize.decrementAndGet();
+    private void updateStatus(Command command, CommandStatus status) {
+        CommandStatus previous = command.getStatus();
+        command.setStatus(status);
+        statusIndex.onTransition(command, previous, status);
+
+        // Команда, прерванная остановкой сервиса, остается в журнале незавершенной и повторяется при следующем старте
+        boolean interruptedByShutdown = stopping && status.isTerminal() && Thread.currentThread().isInterrupted();
+        if (commandJournal != null && !interruptedByShutdown) {
+            commandJournal.appendStatus(command.getId(), status);
         }
+
+        if (status.isTerminal()) {
+            CompletableFuture<Command> completion = completionFutures.remove(command.getId());
+            if (completion != null) {
+                completion.complete(command);
+            }
+        }
+
+        eventPublisher.publishEvent(
+                new CommandStatusEventDTO(command.getId(), previous, status, LocalDateTime.now()));
+    }
+
+    public CompletableFuture<Command> awaitCompletion(String commandId) {
+        Command command = commandHistory.get(commandId);
+        if (command == null) {
+            return null;
+        }
+        if (command.getStatus().isTerminal()) {
+            return CompletableFuture.completedFuture(command);
+        }
+
+        CompletableFuture<Command> completion =
+                completionFutures.computeIfAbsent(commandId, _ -> new CompletableFuture<>());
+
+        // Команда могла завершиться между проверкой статуса и регистрацией ожидания
+        if (command.getStatus().isTerminal()) {
+            completionFutures.remove(commandId);
+            completion.complete(command);
+        }
+        return completion.copy();
     }
 
     @WeylandWatchingYou(description = "Получение информации о команде")
@@ -194,26 +651,118 @@ public class CommandService {
         return commandHistory.get(commandId);
     }
 
+    // Завершенная команда уже не меняется: ее ответ отдается готовыми байтами без аудита и повторной сериализации
+    @Nullable
+    public TerminalCommandResponseCache.CachedResponse getCachedCommandResponse(String commandId) {
+        if (responseCache == null) {
+            return null;
+        }
+        return responseCache.get(commandId, commandHistory::get);
+    }
+
     @WeylandWatchingYou(description = "Получение статистики команд по авторам")
     public Map<String, Integer> getCommandStatsByAuthor() {
-        Map<String, Integer> stats = new ConcurrentHashMap<>();
-        authorCommandCount.forEach((author, count) -> stats.put(author, count.get()));
-        return stats;
+        return authorStatsView;
     }
 
-    @WeylandWatchingYou(description = "Получение списка активных команд")
+    // Живое представление счетчиков только для чтения: копию делает тот, кому нужен снимок
+    public Map<String, Integer> getAuthorStatsView() {
+        return authorStatsView;
+    }
+
+    @WeylandWatchingYou(description = "Получение количества активных команд")
     public long getActiveCommandsCount() {
-        return commandHistory.values().stream()
-                .filter(cmd -> cmd.getStatus() == CommandStatus.EXECUTING ||
-                        cmd.getStatus() == CommandStatus.PENDING)
-                .count();
+        return statusIndex.countActive();
+    }
+
+    @WeylandWatchingYou(description = "Получение списка активных команд")
+    public List<Command> getActiveCommands() {
+        if (!statusIndex.isTrackingIds()) {
+            return commandHistory.values().stream()
+                    .filter(cmd -> cmd.getStatus() == CommandStatus.EXECUTING ||
+                            cmd.getStatus() == CommandStatus.PENDING)
+                    .toList();
+        }
+
+        return Stream.of(CommandStatus.EXECUTING, CommandStatus.PENDING)
+                .flatMap(status -> statusIndex.ids(status).stream())
+                .map(commandHistory::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @WeylandWatchingYou(description = "Получение использования лимитов авторов")
+    public List<AuthorRateUsageDTO> getAuthorRateUsage() {
+        return authorRateLimiter.getUsage();
+    }
+
+    public AuthorRateUsageDTO getAuthorRateUsage(String author) {
+        return authorRateLimiter.getUsage(author);
+    }
+
+    public long getCommandsCount(CommandStatus status) {
+        return statusIndex.count(status);
     }
 
     public int getCurrentQueueSize() {
-        return queueSize.get();
+        return commandScheduler.getPendingCount();
+    }
+
+    public int getQueueSize(Priority priority) {
+        return commandScheduler.getLaneDepth(priority);
+    }
+
+    public int getActiveExecutionsCount() {
+        return commandScheduler.getBusyWorkers();
     }
 
     public int getTotalCommandsCount() {
-        return commandHistory.size();
+        return totalCommandsCount.get();
+    }
+
+    private final class AuthorStatsView extends AbstractMap<String, Integer> {
+
+        @Override
+        public Integer get(Object author) {
+            AtomicInteger count = authorCommandCount.get(author);
+            return count != null ? count.get() : null;
+        }
+
+        @Override
+        public boolean containsKey(Object author) {
+            return authorCommandCount.containsKey(author);
+        }
+
+        @Override
+        public int size() {
+            return authorCommandCount.size();
+        }
+
+        @Override
+        public Set<Entry<String, Integer>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Integer>> iterator() {
+                    Iterator<Entry<String, AtomicInteger>> counts = authorCommandCount.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return counts.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Integer> next() {
+                            Entry<String, AtomicInteger> count = counts.next();
+                            return Map.entry(count.getKey(), count.getValue().get());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return authorCommandCount.size();
+                }
+            };
+        }
     }
 }
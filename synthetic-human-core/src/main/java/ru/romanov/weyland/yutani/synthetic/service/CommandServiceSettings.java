@@ -0,0 +1,29 @@
+package ru.romanov.weyland.yutani.synthetic.service;
+
+import lombok.Builder;
+import ru.romanov.weyland.yutani.synthetic.model.CommandExecutorMode;
+
+import java.time.Duration;
+
+// Параметры очередей, исполнителя и приёма команд для CommandService
+@Builder(toBuilder = true)
+public record CommandServiceSettings(
+        int maxQueueSize,
+        int maxCriticalQueueSize,
+        Duration agingThreshold,
+        CommandExecutorMode executorMode,
+        int virtualMaxConcurrency,
+        int maxPoolSize,
+        long keepAliveTime,
+        int criticalReservedWorkers,
+        Duration shutdownTimeout,
+        boolean admissionEnabled,
+        Duration drainTimeSlo,
+        Duration criticalDrainTimeSlo,
+        Duration initialServiceTime,
+        boolean trackStatusIds,
+        int maxBatchSize,
+        Duration journalAcceptTimeout,
+        boolean responseCacheEnabled
+) {
+}
@@ -0,0 +1,102 @@
+package ru.romanov.weyland.yutani.synthetic.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.romanov.weyland.yutani.synthetic.dto.response.SyntheticMetricsResponseDTO;
+import ru.romanov.weyland.yutani.synthetic.model.CommandStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Неизменяемый снимок метрик синтетика, обновляемый по расписанию
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor
+@Service
+public class SyntheticMetricsSnapshotService {
+
+    @NonFinal
+    @Value("${spring.weyland.metrics.snapshot.refresh-interval:1s}")
+    Duration refreshInterval;
+
+    CommandService commandService;
+    MeterRegistry meterRegistry;
+
+    @NonFinal
+    ScheduledExecutorService refresher;
+
+    @NonFinal
+    volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void init() {
+        refresh();
+
+        Gauge.builder("synthetic.metrics.snapshot.age", this, SyntheticMetricsSnapshotService::ageMillis)
+                .description("Возраст снимка метрик синтетика")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        refresher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("synthetic-metrics-snapshot")
+                .daemon()
+                .factory());
+        long intervalMillis = refreshInterval.toMillis();
+        refresher.scheduleAtFixedRate(this::refreshSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+
+        log.info("Снимок метрик синтетика обновляется каждые {} мс", intervalMillis);
+    }
+
+    public SyntheticMetricsResponseDTO current() {
+        return snapshot.metrics();
+    }
+
+    // Источники читаются без аудита, иначе каждое обновление порождало бы записи аудита
+    public void refresh() {
+        long capturedAtNanos = System.nanoTime();
+        SyntheticMetricsResponseDTO metrics = new SyntheticMetricsResponseDTO(
+                commandService.getCurrentQueueSize(),
+                commandService.getTotalCommandsCount(),
+                commandService.getCommandsCount(CommandStatus.PENDING) + commandService.getCommandsCount(CommandStatus.EXECUTING),
+                Map.copyOf(commandService.getAuthorStatsView()),
+                LocalDateTime.now()
+        );
+        snapshot = new Snapshot(metrics, capturedAtNanos);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Ошибка обновления снимка метрик: {}", e.getMessage(), e);
+        }
+    }
+
+    // Возраст считается по монотонным часам: перевод системного времени не искажает метрику
+    private double ageMillis() {
+        return (System.nanoTime() - snapshot.capturedAtNanos()) / 1_000_000.0;
+    }
+
+    private record Snapshot(SyntheticMetricsResponseDTO metrics, long capturedAtNanos) {
+    }
+}
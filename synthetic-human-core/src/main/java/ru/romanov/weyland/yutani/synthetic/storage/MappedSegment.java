@@ -0,0 +1,163 @@
+package ru.romanov.weyland.yutani.synthetic.storage;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Запись сегмента: [длина][CRC32][данные], длина пишется последней, поэтому недописанная запись не видна
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class MappedSegment implements Closeable {
+
+    public static final int RECORD_HEADER_SIZE = Integer.BYTES * 2;
+
+    @Getter
+    long id;
+
+    @Getter
+    Path path;
+
+    FileChannel channel;
+    MappedByteBuffer buffer;
+
+    @NonFinal
+    int writePosition;
+
+    @NonFinal
+    int forcedPosition;
+
+    private MappedSegment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.id = id;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    public static MappedSegment create(Path directory, String prefix, long id, int capacity) throws IOException {
+        Path path = directory.resolve(fileName(prefix, id));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new MappedSegment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+    }
+
+    public static MappedSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedSegment segment = new MappedSegment(parseId(path), path, channel,
+                channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+
+        segment.writePosition = segment.scan(0, (_, _) -> true);
+        segment.forcedPosition = segment.writePosition;
+        return segment;
+    }
+
+    public static List<Path> list(Path directory, String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.getFileName().toString().startsWith(prefix + "-"))
+                    .filter(path -> path.getFileName().toString().endsWith(".seg"))
+                    .sorted(Comparator.comparingLong(MappedSegment::parseId))
+                    .toList();
+        }
+    }
+
+    public int append(byte[] payload) {
+        if (payload.length == 0) {
+            throw new IllegalArgumentException("Пустая запись не может быть сохранена в сегмент");
+        }
+
+        int position = writePosition;
+        if (position + RECORD_HEADER_SIZE + payload.length > buffer.capacity()) {
+            return -1;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+        buffer.put(position + RECORD_HEADER_SIZE, payload);
+        buffer.putInt(position, payload.length);
+
+        writePosition = position + RECORD_HEADER_SIZE + payload.length;
+        return position;
+    }
+
+    public void force() {
+        if (writePosition > forcedPosition) {
+            buffer.force(forcedPosition, writePosition - forcedPosition);
+            forcedPosition = writePosition;
+        }
+    }
+
+    public int scan(int fromPosition, RecordVisitor visitor) {
+        int position = fromPosition;
+        CRC32 crc = new CRC32();
+
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+
+            ByteBuffer payload = buffer.slice(position + RECORD_HEADER_SIZE, length).asReadOnlyBuffer();
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                break;
+            }
+
+            if (!visitor.visit(position, payload)) {
+                break;
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    public int getWritePosition() {
+        return writePosition;
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    public void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            force();
+            channel.close();
+        }
+    }
+
+    private static String fileName(String prefix, long id) {
+        return String.format("%s-%010d.seg", prefix, id);
+    }
+
+    private static long parseId(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(name.lastIndexOf('-') + 1, name.length() - ".seg".length()));
+    }
+
+    @FunctionalInterface
+    public interface RecordVisitor {
+        boolean visit(int position, ByteBuffer payload);
+    }
+}
@@ -0,0 +1,103 @@
+package ru.romanov.weyland.yutani.synthetic.trace;
+
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Контекст трассировки W3C Trace Context, совместимый с внешними системами через заголовок traceparent
+public record TraceContext(String traceId, String spanId, @Nullable String parentSpanId, boolean sampled) {
+
+    public static final String TRACEPARENT_HEADER = "traceparent";
+
+    private static final int TRACEPARENT_LENGTH = 55;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public static TraceContext newRoot() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high;
+        long low;
+        do {
+            high = random.nextLong();
+            low = random.nextLong();
+        } while (high == 0 && low == 0);
+
+        char[] traceId = new char[32];
+        writeHex(high, traceId, 0);
+        writeHex(low, traceId, 16);
+        return new TraceContext(new String(traceId), randomSpanId(), null, true);
+    }
+
+    public TraceContext child() {
+        return new TraceContext(traceId, randomSpanId(), spanId, sampled);
+    }
+
+    // version-traceid-spanid-flags; некорректный заголовок игнорируется, как требует спецификация
+    @Nullable
+    public static TraceContext parse(@Nullable String traceparent) {
+        if (traceparent == null || traceparent.length() < TRACEPARENT_LENGTH) {
+            return null;
+        }
+        if (traceparent.charAt(2) != '-' || traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-') {
+            return null;
+        }
+
+        boolean versionZero = traceparent.startsWith("00");
+        if (!isHex(traceparent, 0, 2) || traceparent.startsWith("ff")
+                || (versionZero && traceparent.length() != TRACEPARENT_LENGTH)
+                || (!versionZero && traceparent.length() > TRACEPARENT_LENGTH && traceparent.charAt(TRACEPARENT_LENGTH) != '-')) {
+            return null;
+        }
+        if (!isHex(traceparent, 3, 35) || !isHex(traceparent, 36, 52) || !isHex(traceparent, 53, 55)
+                || isZero(traceparent, 3, 35) || isZero(traceparent, 36, 52)) {
+            return null;
+        }
+
+        int flags = Character.digit(traceparent.charAt(54), 16);
+        return new TraceContext(traceparent.substring(3, 35), traceparent.substring(36, 52), null, (flags & 1) != 0);
+    }
+
+    public String toTraceparent() {
+        return traceparent(traceId, spanId, sampled);
+    }
+
+    public static String traceparent(String traceId, String spanId, boolean sampled) {
+        return "00-" + traceId + '-' + spanId + (sampled ? "-01" : "-00");
+    }
+
+    private static String randomSpanId() {
+        long value;
+        do {
+            value = ThreadLocalRandom.current().nextLong();
+        } while (value == 0);
+
+        char[] spanId = new char[16];
+        writeHex(value, spanId, 0);
+        return new String(spanId);
+    }
+
+    private static void writeHex(long value, char[] target, int offset) {
+        for (int i = 15; i >= 0; i--) {
+            target[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    private static boolean isHex(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isZero(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (value.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,36 @@
+package ru.romanov.weyland.yutani.synthetic.trace;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "spring.weyland.trace.enabled", havingValue = "true", matchIfMissing = true)
+public class TraceContextFilter extends OncePerRequestFilter {
+
+    // Входящий traceparent продолжает трассу клиента, иначе запрос начинает новую
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        TraceContext incoming = TraceContext.parse(request.getHeader(TraceContext.TRACEPARENT_HEADER));
+        TraceContext context = incoming != null ? incoming.child() : TraceContext.newRoot();
+
+        TraceContextHolder.set(context);
+        response.setHeader(TraceContext.TRACEPARENT_HEADER, context.toTraceparent());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TraceContextHolder.clear();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.romanov.weyland.yutani.synthetic.trace;
+
+import org.springframework.lang.Nullable;
+
+public final class TraceContextHolder {
+
+    private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+
+    private TraceContextHolder() {
+    }
+
+    @Nullable
+    public static TraceContext current() {
+        return CURRENT.get();
+    }
+
+    public static void set(TraceContext context) {
+        CURRENT.set(context);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,81 @@
+package ru.romanov.weyland.yutani.synthetic.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+import ru.romanov.weyland.yutani.synthetic.scheduler.CommandScheduler;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionControllerTests {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    CommandScheduler scheduler = mock(CommandScheduler.class);
+
+    @Test
+    void admitsWhileDrainEstimateFitsSlo() {
+        when(scheduler.estimateDrainTime(Priority.COMMON, 1)).thenReturn(Duration.ofSeconds(30));
+        AdmissionController controller = controller(true);
+
+        AdmissionDecision decision = controller.evaluate(Priority.COMMON, 0);
+
+        assertThat(decision.admitted()).isTrue();
+        assertThat(decision.retryAfter()).isZero();
+        assertThat(decisions(Priority.COMMON, "admitted")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWithRetryAfterRoundedUpToWholeSeconds() {
+        when(scheduler.estimateDrainTime(Priority.COMMON, 1)).thenReturn(Duration.ofMillis(32_100));
+        AdmissionController controller = controller(true);
+
+        AdmissionDecision decision = controller.evaluate(Priority.COMMON, 0);
+
+        assertThat(decision.admitted()).isFalse();
+        assertThat(decision.retryAfter()).isEqualTo(Duration.ofSeconds(3));
+        assertThat(decisions(Priority.COMMON, "rejected")).isEqualTo(1);
+    }
+
+    // Команды, уже допущенные в текущем пакете, учитываются в оценке
+    @Test
+    void accountsForCommandsAdmittedEarlierInBatch() {
+        when(scheduler.estimateDrainTime(Priority.CRITICAL, 1)).thenReturn(Duration.ofSeconds(4));
+        when(scheduler.estimateDrainTime(Priority.CRITICAL, 2)).thenReturn(Duration.ofSeconds(6));
+        AdmissionController controller = controller(true);
+
+        assertThat(controller.evaluate(Priority.CRITICAL, 0).admitted()).isTrue();
+        assertThat(controller.evaluate(Priority.CRITICAL, 1).admitted()).isFalse();
+    }
+
+    @Test
+    void retryAfterIsAtLeastOneSecond() {
+        when(scheduler.estimateDrainTime(Priority.COMMON, 0)).thenReturn(Duration.ofSeconds(10));
+        AdmissionController controller = controller(true);
+
+        assertThat(controller.retryAfter(Priority.COMMON)).isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void disabledControllerAdmitsEverything() {
+        when(scheduler.estimateDrainTime(Priority.COMMON, 1)).thenReturn(Duration.ofHours(1));
+        AdmissionController controller = controller(false);
+
+        assertThat(controller.evaluate(Priority.COMMON, 0).admitted()).isTrue();
+    }
+
+    private AdmissionController controller(boolean enabled) {
+        return new AdmissionController(scheduler, enabled, Duration.ofSeconds(30), Duration.ofSeconds(5), meterRegistry);
+    }
+
+    private double decisions(Priority priority, String decision) {
+        return meterRegistry.get("synthetic.admission.decisions")
+                .tag("lane", priority.name().toLowerCase())
+                .tag("decision", decision)
+                .counter()
+                .count();
+    }
+}
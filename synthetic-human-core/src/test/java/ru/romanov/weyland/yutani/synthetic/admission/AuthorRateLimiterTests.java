@@ -0,0 +1,104 @@
+package ru.romanov.weyland.yutani.synthetic.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthorRateLimiterTests {
+
+    private static final long WINDOW = Duration.ofMinutes(1).toNanos();
+    private static final long START = Duration.ofHours(1).toNanos();
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void limitsWithinWindowAndReportsRemainingTime() {
+        AuthorRateLimiter limiter = limiter(2, Map.of());
+
+        assertThat(limiter.tryAcquire("Bishop", START)).isZero();
+        assertThat(limiter.tryAcquire("Bishop", START)).isZero();
+        assertThat(limiter.tryAcquire("Bishop", START + Duration.ofSeconds(15).toNanos()))
+                .isEqualTo(Duration.ofSeconds(45));
+        assertThat(limiter.tryAcquire("Ash", START)).isZero();
+    }
+
+    // Вклад предыдущего окна затухает линейно: на середине следующего окна освобождается половина лимита
+    @Test
+    void previousWindowWeightDecaysAcrossNextWindow() {
+        AuthorRateLimiter limiter = limiter(2, Map.of());
+        limiter.tryAcquire("Bishop", START);
+        limiter.tryAcquire("Bishop", START);
+
+        assertThat(limiter.tryAcquire("Bishop", START + WINDOW)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(limiter.tryAcquire("Bishop", START + WINDOW + WINDOW / 2)).isZero();
+        assertThat(limiter.tryAcquire("Bishop", START + WINDOW + WINDOW / 2)).isPositive();
+    }
+
+    @Test
+    void overridesReplaceDefaultLimit() {
+        AuthorRateLimiter limiter = limiter(1, Map.of("Ripley", 3, "Ash", 0));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("Ripley", START)).isZero();
+        }
+        assertThat(limiter.tryAcquire("Ripley", START)).isPositive();
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire("Ash", START)).isZero();
+        }
+    }
+
+    @Test
+    void refundReturnsPermit() {
+        AuthorRateLimiter limiter = limiter(1, Map.of());
+        assertThat(limiter.tryAcquire("Bishop", START)).isZero();
+
+        limiter.refund("Bishop");
+
+        assertThat(limiter.tryAcquire("Bishop", START)).isZero();
+        assertThat(limiter.tryAcquire("Bishop", START)).isPositive();
+    }
+
+    @Test
+    void sweepRemovesOnlyIdleBuckets() {
+        AuthorRateLimiter limiter = limiter(1, Map.of());
+        limiter.tryAcquire("Bishop", START);
+        limiter.tryAcquire("Ash", START + Duration.ofMinutes(9).toNanos());
+
+        limiter.sweep(START + Duration.ofMinutes(11).toNanos());
+
+        assertThat(meterRegistry.get("synthetic.ratelimit.authors").gauge().value()).isEqualTo(1);
+        assertThat(limiter.tryAcquire("Ash", START + Duration.ofMinutes(9).toNanos())).isPositive();
+    }
+
+    // Захват после вывода окна очисткой должен попасть в новое окно, а не в удаляемое
+    @Test
+    void acquireAfterRetirementIsCountedInFreshBucket() {
+        AuthorRateLimiter limiter = limiter(1, Map.of());
+        limiter.tryAcquire("Bishop", START);
+
+        long later = START + Duration.ofMinutes(11).toNanos();
+        limiter.sweep(later);
+        assertThat(limiter.tryAcquire("Bishop", later)).isZero();
+
+        assertThat(limiter.tryAcquire("Bishop", later)).isPositive();
+        assertThat(meterRegistry.get("synthetic.ratelimit.authors").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void disabledLimiterAllowsEverything() {
+        AuthorRateLimiter limiter = new AuthorRateLimiter(false, 1, Map.of(),
+                Duration.ofMinutes(1), Duration.ofMinutes(10), meterRegistry);
+
+        assertThat(limiter.tryAcquire("Bishop", START)).isZero();
+        assertThat(limiter.tryAcquire("Bishop", START)).isZero();
+    }
+
+    private AuthorRateLimiter limiter(int defaultLimit, Map<String, Integer> overrides) {
+        return new AuthorRateLimiter(true, defaultLimit, overrides,
+                Duration.ofNanos(WINDOW), Duration.ofMinutes(10), meterRegistry);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditCircuitBreakerTests {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        AuditCircuitBreaker breaker = new AuditCircuitBreaker("test", 3, Duration.ofHours(1), meterRegistry);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.isClosed()).isTrue();
+
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(AuditCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void allowsSingleTrialAfterOpenDuration() throws InterruptedException {
+        AuditCircuitBreaker breaker = new AuditCircuitBreaker("test", 1, Duration.ofMillis(10), meterRegistry);
+        breaker.onFailure();
+
+        Thread.sleep(20);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(AuditCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void failedTrialReopensAndSuccessfulTrialCloses() throws InterruptedException {
+        AuditCircuitBreaker breaker = new AuditCircuitBreaker("test", 1, Duration.ofMillis(10), meterRegistry);
+        breaker.onFailure();
+        Thread.sleep(20);
+        breaker.tryAcquire();
+
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(AuditCircuitBreaker.State.OPEN);
+
+        Thread.sleep(20);
+        breaker.tryAcquire();
+        breaker.onSuccess();
+        assertThat(breaker.isClosed()).isTrue();
+        assertThat(meterRegistry.get("synthetic.audit.breaker.state").tag("sink", "test").gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,174 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import ru.romanov.weyland.yutani.synthetic.config.SyntheticConfig;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+import ru.romanov.weyland.yutani.synthetic.model.AuditOverflowPolicy;
+import ru.romanov.weyland.yutani.synthetic.service.AuditService;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditDispatcherTests {
+
+    @TempDir
+    Path spoolDirectory;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AuditService auditService = mock(AuditService.class);
+    AuditSerializer auditSerializer = mock(AuditSerializer.class);
+    AuditSummaryAggregator auditSummaryAggregator = mock(AuditSummaryAggregator.class);
+
+    // Потребитель зависает на первой пачке, пока тест не освободит его: так буфер заполняется детерминированно
+    CountDownLatch consumerBlocked = new CountDownLatch(1);
+    CountDownLatch releaseConsumer = new CountDownLatch(1);
+    List<AuditDTO> sent = new CopyOnWriteArrayList<>();
+
+    AuditDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        releaseConsumer.countDown();
+        if (dispatcher != null) {
+            dispatcher.destroy();
+        }
+    }
+
+    @Test
+    void dropLowDropsLowRecordsFirstAndTheRestOnOverflow() throws Exception {
+        start(AuditOverflowPolicy.DROP_LOW, Duration.ofMillis(100));
+
+        for (int i = 0; i < 3; i++) {
+            dispatcher.publish(record(AuditLevel.HIGH));
+        }
+        dispatcher.publish(record(AuditLevel.LOW));
+        dispatcher.publish(record(AuditLevel.HIGH));
+        dispatcher.publish(record(AuditLevel.HIGH));
+
+        assertThat(dropped("low_priority", AuditLevel.LOW)).isEqualTo(1);
+        assertThat(dropped("overflow", AuditLevel.HIGH)).isEqualTo(1);
+
+        releaseConsumer.countDown();
+        awaitUntil(() -> sent.size() == 5);
+    }
+
+    @Test
+    void blockDropsAfterTimeout() throws Exception {
+        start(AuditOverflowPolicy.BLOCK, Duration.ofMillis(20));
+        fillBuffer();
+
+        dispatcher.publish(record(AuditLevel.CRITICAL));
+
+        assertThat(dropped("block_timeout", AuditLevel.CRITICAL)).isEqualTo(1);
+    }
+
+    @Test
+    void blockWaitsForConsumerToFreeSpace() throws Exception {
+        start(AuditOverflowPolicy.BLOCK, Duration.ofSeconds(5));
+        fillBuffer();
+
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> dispatcher.publish(record(AuditLevel.HIGH)));
+        releaseConsumer.countDown();
+        blocked.get(5, TimeUnit.SECONDS);
+
+        awaitUntil(() -> sent.size() == 6);
+        assertThat(dropped("block_timeout", AuditLevel.HIGH)).isZero();
+    }
+
+    @Test
+    void spillWritesOverflowToSpoolAndReplaysIt() throws Exception {
+        start(AuditOverflowPolicy.SPILL, Duration.ofMillis(100));
+        fillBuffer();
+
+        dispatcher.publish(record(AuditLevel.HIGH));
+        assertThat(meterRegistry.get("synthetic.audit.spilled").counter().count()).isEqualTo(1);
+
+        releaseConsumer.countDown();
+        awaitUntil(() -> sent.size() == 6);
+    }
+
+    @Test
+    void dropCountersArePreRegistered() throws Exception {
+        start(AuditOverflowPolicy.DROP_LOW, Duration.ofMillis(100));
+
+        assertThat(meterRegistry.get("synthetic.audit.dropped").counters())
+                .hasSize(4 * AuditLevel.values().length);
+    }
+
+    // Первая запись занимает потребителя, следующие четыре заполняют буфер целиком
+    private void fillBuffer() {
+        for (int i = 0; i < 4; i++) {
+            dispatcher.publish(record(AuditLevel.HIGH));
+        }
+    }
+
+    private void start(AuditOverflowPolicy policy, Duration blockTimeout) throws Exception {
+        when(auditSerializer.complete(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        doAnswer(invocation -> {
+            consumerBlocked.countDown();
+            releaseConsumer.await();
+            sent.addAll(invocation.getArgument(0));
+            return null;
+        }).when(auditService).sendAuditRecords(anyList());
+
+        dispatcher = new AuditDispatcher(auditService, auditSerializer, auditSummaryAggregator,
+                new SyntheticConfig().objectMapper(), meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "enabled", true);
+        ReflectionTestUtils.setField(dispatcher, "bufferSize", 4);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 256);
+        ReflectionTestUtils.setField(dispatcher, "overflowPolicy", policy);
+        ReflectionTestUtils.setField(dispatcher, "lowDropThreshold", 0.75);
+        ReflectionTestUtils.setField(dispatcher, "blockTimeout", blockTimeout);
+        ReflectionTestUtils.setField(dispatcher, "spoolDirectory", spoolDirectory.toString());
+        ReflectionTestUtils.setField(dispatcher, "spoolSegmentSize", DataSize.ofMegabytes(1));
+        dispatcher.init();
+
+        dispatcher.publish(record(AuditLevel.HIGH));
+        assertThat(consumerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private double dropped(String reason, AuditLevel level) {
+        return meterRegistry.get("synthetic.audit.dropped")
+                .tag("reason", reason)
+                .tag("level", level.name())
+                .counter()
+                .count();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static AuditDTO record(AuditLevel level) {
+        return AuditDTO.builder()
+                .timestamp(LocalDateTime.now())
+                .methodName("CommandService.processCommand")
+                .status("SUCCESS")
+                .level(level)
+                .build();
+    }
+}
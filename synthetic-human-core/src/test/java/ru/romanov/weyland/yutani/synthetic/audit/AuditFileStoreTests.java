@@ -0,0 +1,191 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.romanov.weyland.yutani.synthetic.config.SyntheticConfig;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditFileStoreTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    ObjectMapper objectMapper = new SyntheticConfig().objectMapper();
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void queryFiltersByTimeLevelAndMethod() throws IOException {
+        try (AuditFileStore store = store(1 << 20, Duration.ofDays(7))) {
+            store.append(List.of(
+                    record("CommandService.processCommand", AuditLevel.LOW, NOW.minusMinutes(30)),
+                    record("CommandService.processCommand", AuditLevel.HIGH, NOW.minusMinutes(20)),
+                    record("CommandService.enqueueCommand", AuditLevel.CRITICAL, NOW.minusMinutes(10)),
+                    record("CommandService.processCommand", AuditLevel.CRITICAL, NOW)));
+
+            assertThat(query(store, null, null, null, null, null)).hasSize(4);
+            assertThat(query(store, NOW.minusMinutes(25), NOW.minusMinutes(5), null, null, null))
+                    .extracting(node -> node.get("level").asText())
+                    .containsExactly("HIGH", "CRITICAL");
+            assertThat(query(store, null, null, AuditLevel.HIGH, "CommandService.processCommand", null))
+                    .extracting(node -> node.get("level").asText())
+                    .containsExactly("HIGH", "CRITICAL");
+            assertThat(query(store, NOW, NOW.minusMinutes(1), null, null, null)).isEmpty();
+        }
+    }
+
+    @Test
+    void queryStopsAtLimitAndMaxRecords() throws IOException {
+        try (AuditFileStore store = store(1 << 20, Duration.ofDays(7))) {
+            store.append(records(30, NOW));
+
+            assertThat(query(store, null, null, null, null, 5)).hasSize(5);
+            assertThat(query(store, null, null, null, null, 1_000)).hasSize(20);
+            assertThat(query(store, null, null, null, null, null)).hasSize(20);
+        }
+    }
+
+    @Test
+    void indexIsRebuiltOnReopen() throws IOException {
+        try (AuditFileStore store = store(1 << 20, Duration.ofDays(7))) {
+            store.append(records(10, NOW.minusHours(1)));
+            store.append(List.of(record("CommandService.getCommand", AuditLevel.CRITICAL, NOW)));
+        }
+
+        try (AuditFileStore reopened = store(1 << 20, Duration.ofDays(7))) {
+            assertThat(query(reopened, NOW.minusMinutes(1), null, null, null, null))
+                    .extracting(node -> node.get("methodName").asText())
+                    .containsExactly("CommandService.getCommand");
+
+            reopened.append(List.of(record("CommandService.getCommand", AuditLevel.LOW, NOW)));
+            assertThat(query(reopened, null, null, null, null, null)).hasSize(12);
+        }
+    }
+
+    @Test
+    void oldestSegmentsAreDeletedWhenSizeLimitIsExceeded() throws IOException {
+        try (AuditFileStore store = store(2L * SEGMENT_SIZE, Duration.ofDays(7))) {
+            for (AuditDTO record : records(200, NOW)) {
+                store.append(List.of(record));
+            }
+
+            assertThat(gauge("synthetic.audit.file.segments")).isLessThanOrEqualTo(2);
+            assertThat(deletedSegments("size")).isPositive();
+            assertThat(query(store, null, null, null, null, null))
+                    .isNotEmpty()
+                    .extracting(node -> node.get("description").asText())
+                    .doesNotContain("Запись 0");
+        }
+    }
+
+    @Test
+    void expiredSegmentsAreDeletedOnRoll() throws IOException {
+        try (AuditFileStore store = store(1 << 20, Duration.ofHours(1))) {
+            for (AuditDTO record : records(40, NOW.minusDays(2))) {
+                store.append(List.of(record));
+            }
+            for (AuditDTO record : records(40, NOW)) {
+                store.append(List.of(record));
+            }
+
+            assertThat(deletedSegments("retention")).isPositive();
+            assertThat(deletedSegments("size")).isZero();
+            assertThat(query(store, null, NOW.minusDays(1), null, null, null))
+                    .extracting(node -> node.get("description").asText())
+                    .doesNotContain("Запись 0");
+            assertThat(query(store, NOW.minusHours(1), null, null, null, null)).hasSize(20);
+        }
+    }
+
+    @Test
+    void recordLargerThanSegmentIsSkipped() throws IOException {
+        try (AuditFileStore store = store(1 << 20, Duration.ofDays(7))) {
+            AuditDTO oversized = record("CommandService.processCommand", AuditLevel.LOW, NOW).toBuilder()
+                    .parameters("\"" + "x".repeat(SEGMENT_SIZE) + "\"")
+                    .build();
+
+            store.append(List.of(oversized, record("CommandService.getCommand", AuditLevel.LOW, NOW)));
+
+            assertThat(query(store, null, null, null, null, null))
+                    .extracting(node -> node.get("methodName").asText())
+                    .containsExactly("CommandService.getCommand");
+        }
+    }
+
+    private AuditFileStore store(long maxTotalBytes, Duration retention) throws IOException {
+        return AuditFileStore.builder()
+                .directory(directory)
+                .segmentSize(SEGMENT_SIZE)
+                .maxTotalBytes(maxTotalBytes)
+                .retention(retention)
+                .indexInterval(4)
+                .maxQueryRecords(20)
+                .objectMapper(objectMapper)
+                .meterRegistry(meterRegistry)
+                .build();
+    }
+
+    private List<JsonNode> query(AuditFileStore store, LocalDateTime from, LocalDateTime to, AuditLevel minLevel,
+                                 String methodName, Integer limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int found = store.query(from, to, minLevel, methodName, limit, out);
+
+        List<JsonNode> nodes = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                nodes.add(objectMapper.readTree(line));
+            }
+        }
+        assertThat(nodes).hasSize(found);
+        return nodes;
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private double deletedSegments(String reason) {
+        return meterRegistry.get("synthetic.audit.file.deleted.segments").tag("reason", reason).counter().count();
+    }
+
+    private static List<AuditDTO> records(int count, LocalDateTime timestamp) {
+        List<AuditDTO> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(record("CommandService.processCommand", AuditLevel.STANDARD, timestamp).toBuilder()
+                    .description("Запись " + i)
+                    .build());
+        }
+        return records;
+    }
+
+    private static AuditDTO record(String methodName, AuditLevel level, LocalDateTime timestamp) {
+        return AuditDTO.builder()
+                .timestamp(timestamp)
+                .methodName(methodName)
+                .description("Обработка команды")
+                .parameters("[\"cmd-1\"]")
+                .result("\"ok\"")
+                .status("SUCCESS")
+                .executionTimeMs(3)
+                .level(level)
+                .build();
+    }
+}
@@ -0,0 +1,168 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.romanov.weyland.yutani.synthetic.config.SyntheticConfig;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditSpanDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+import ru.romanov.weyland.yutani.synthetic.model.AuditSerializationMode;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditInterceptorSpanTests {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AuditDispatcher auditDispatcher = mock(AuditDispatcher.class);
+    AuditPolicyResolver auditPolicyResolver = mock(AuditPolicyResolver.class);
+    AuditInterceptor interceptor = new AuditInterceptor(auditDispatcher, auditPolicyResolver,
+            new AuditSerializer(new SyntheticConfig().objectMapper(), AuditSerializationMode.EAGER));
+
+    @Test
+    void nestedCallsBecomeSpansOfOneRecord() throws Throwable {
+        configure(true, 64);
+
+        call("Outer.run", false, () -> {
+            call("Inner.first", false, () -> call("Inner.deep", false, () -> 1));
+            return call("Inner.second", false, () -> 2);
+        });
+
+        AuditDTO record = publishedRecords(1).getFirst();
+        assertThat(record.methodName()).isEqualTo("Outer.run");
+        assertThat(record.spans()).extracting(AuditSpanDTO::methodName).containsExactly("Inner.first", "Inner.second");
+        assertThat(record.spans()).extracting(AuditSpanDTO::status).containsOnly("SUCCESS");
+        assertThat(record.spans().getFirst().children()).extracting(AuditSpanDTO::methodName)
+                .containsExactly("Inner.deep");
+        assertThat(record.spans().get(1).offsetMicros()).isGreaterThanOrEqualTo(record.spans().getFirst().offsetMicros());
+    }
+
+    @Test
+    void failedNestedCallIsKeptAsFailedSpan() throws Throwable {
+        configure(true, 64);
+
+        call("Outer.run", false, () -> {
+            try {
+                call("Inner.failing", false, () -> {
+                    throw new IllegalStateException("Очередь команд переполнена");
+                });
+            } catch (IllegalStateException _) {
+                // внешний вызов обрабатывает ошибку вложенного
+            }
+            return 0;
+        });
+
+        AuditSpanDTO span = publishedRecords(1).getFirst().spans().getFirst();
+        assertThat(span.status()).isEqualTo("FAILED");
+        assertThat(span.errorMessage()).isEqualTo("Очередь команд переполнена");
+    }
+
+    @Test
+    void spanLimitIsSharedByWholeTree() throws Throwable {
+        configure(true, 2);
+
+        call("Outer.run", false, () -> {
+            call("Inner.first", false, () -> call("Inner.deep", false, () -> 1));
+            return call("Inner.second", false, () -> 2);
+        });
+
+        AuditDTO record = publishedRecords(1).getFirst();
+        assertThat(record.spans()).extracting(AuditSpanDTO::methodName).containsExactly("Inner.first");
+        assertThat(record.spans().getFirst().children()).extracting(AuditSpanDTO::methodName)
+                .containsExactly("Inner.deep");
+    }
+
+    @Test
+    void callsBelowThresholdAreNotSpans() throws Throwable {
+        configure(true, 64);
+
+        call("Outer.run", false, () -> call("Inner.quiet", true, () -> 1));
+
+        assertThat(publishedRecords(1).getFirst().spans()).isNull();
+    }
+
+    @Test
+    void skippedOuterCallSuppressesNestedRecords() throws Throwable {
+        configure(true, 64);
+
+        call("Outer.quiet", true, () -> call("Inner.first", false, () -> call("Inner.deep", false, () -> 1)));
+        verify(auditDispatcher, never()).publish(any(), any());
+
+        call("Next.run", false, () -> 1);
+        AuditDTO record = publishedRecords(1).getFirst();
+        assertThat(record.methodName()).isEqualTo("Next.run");
+        assertThat(record.spans()).isNull();
+    }
+
+    @Test
+    void withoutCoalescingEveryCallIsPublished() throws Throwable {
+        configure(false, 64);
+
+        call("Outer.run", false, () -> call("Inner.first", false, () -> 1));
+
+        assertThat(publishedRecords(2)).extracting(AuditDTO::methodName).containsExactly("Inner.first", "Outer.run");
+        assertThat(publishedRecords(2)).extracting(AuditDTO::spans).containsOnlyNulls();
+    }
+
+    @Test
+    void outerFailureStillClearsSpanContext() throws Throwable {
+        configure(true, 64);
+
+        assertThatThrownBy(() -> call("Outer.run", false, () -> {
+            throw new IllegalArgumentException("Некорректная команда");
+        })).isInstanceOf(IllegalArgumentException.class);
+        call("Next.run", false, () -> 1);
+
+        assertThat(publishedRecords(2)).extracting(AuditDTO::methodName).containsExactly("Outer.run", "Next.run");
+    }
+
+    private void configure(boolean coalesce, int maxSpans) {
+        ReflectionTestUtils.setField(interceptor, "coalesceSpans", coalesce);
+        ReflectionTestUtils.setField(interceptor, "maxSpans", maxSpans);
+        when(auditPolicyResolver.shouldAudit(any())).thenAnswer(invocation ->
+                !invocation.<AuditMethodPolicy>getArgument(0).belowThreshold());
+    }
+
+    private Object call(String methodName, boolean belowThreshold, Body body) throws Throwable {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.proceed()).thenAnswer(_ -> body.run());
+        when(auditPolicyResolver.policyFor(eq(joinPoint), any())).thenReturn(policy(methodName, belowThreshold));
+        return interceptor.intercept(joinPoint, null);
+    }
+
+    private List<AuditDTO> publishedRecords(int count) {
+        ArgumentCaptor<AuditDTO> captor = ArgumentCaptor.forClass(AuditDTO.class);
+        verify(auditDispatcher, times(count)).publish(captor.capture(), any());
+        return captor.getAllValues();
+    }
+
+    private AuditMethodPolicy policy(String methodName, boolean belowThreshold) {
+        return new AuditMethodPolicy(
+                methodName, methodName.substring(methodName.indexOf('.') + 1), "Тестовый метод", AuditLevel.STANDARD,
+                true, true, belowThreshold, 1.0,
+                Counter.builder("audited").tag("method", methodName).register(meterRegistry),
+                Counter.builder("below_level").tag("method", methodName).register(meterRegistry),
+                Counter.builder("sampled_out").tag("method", methodName).register(meterRegistry),
+                null,
+                null);
+    }
+
+    @FunctionalInterface
+    private interface Body {
+
+        Object run() throws Throwable;
+    }
+}
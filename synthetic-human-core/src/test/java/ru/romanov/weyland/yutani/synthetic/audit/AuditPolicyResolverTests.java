@@ -0,0 +1,198 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.romanov.weyland.yutani.synthetic.config.SyntheticConfig;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+import ru.romanov.weyland.yutani.synthetic.model.AuditSerializationMode;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditPolicyResolverTests {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void callsBelowMinimumLevelAreSkipped() throws Exception {
+        AuditPolicyResolver resolver = resolver(AuditLevel.HIGH, 1.0, "");
+
+        AuditMethodPolicy standard = policy(resolver, "standard");
+        AuditMethodPolicy critical = policy(resolver, "critical");
+
+        assertThat(resolver.shouldAudit(standard)).isFalse();
+        assertThat(resolver.shouldAudit(critical)).isTrue();
+        assertThat(invocations("SampledService.standard", "below_level")).isEqualTo(1);
+        assertThat(invocations("SampledService.critical", "audited")).isEqualTo(1);
+    }
+
+    @Test
+    void zeroSampleRateSkipsEveryCall() throws Exception {
+        AuditPolicyResolver resolver = resolver(AuditLevel.LOW, 0.0, "");
+        AuditMethodPolicy policy = policy(resolver, "standard");
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(resolver.shouldAudit(policy)).isFalse();
+        }
+
+        assertThat(invocations("SampledService.standard", "sampled_out")).isEqualTo(100);
+        assertThat(invocations("SampledService.standard", "audited")).isZero();
+    }
+
+    @Test
+    void partialSampleRateAuditsShareOfCalls() throws Exception {
+        AuditPolicyResolver resolver = resolver(AuditLevel.LOW, 0.5, "");
+        AuditMethodPolicy policy = policy(resolver, "standard");
+
+        int audited = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (resolver.shouldAudit(policy)) {
+                audited++;
+            }
+        }
+
+        assertThat(audited).isBetween(4_500, 5_500);
+        assertThat(invocations("SampledService.standard", "audited")).isEqualTo(audited);
+        assertThat(invocations("SampledService.standard", "sampled_out")).isEqualTo(10_000 - audited);
+    }
+
+    @Test
+    void methodOverrideIgnoresMinimumLevel() throws Exception {
+        AuditPolicyResolver resolver = resolver(AuditLevel.CRITICAL, 0.0, "SampledService.standard:1.0, SampledService.critical:0");
+
+        AuditMethodPolicy standard = policy(resolver, "standard");
+        AuditMethodPolicy critical = policy(resolver, "critical");
+
+        assertThat(standard.belowThreshold()).isFalse();
+        assertThat(resolver.shouldAudit(standard)).isTrue();
+        assertThat(resolver.shouldAudit(critical)).isFalse();
+    }
+
+    @Test
+    void policyIsResolvedOncePerMethod() throws Exception {
+        AuditPolicyResolver resolver = resolver(AuditLevel.LOW, 1.0, "");
+
+        AuditMethodPolicy first = policy(resolver, "standard");
+        AuditMethodPolicy second = policy(resolver, "standard");
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.description()).isEqualTo("Выполнение метода standard");
+        assertThat(first.level()).isEqualTo(AuditLevel.STANDARD);
+    }
+
+    @Test
+    void methodTimersAreTaggedByClassMethodLevelAndOutcome() throws Exception {
+        AuditPolicyResolver resolver = resolver(AuditLevel.LOW, 1.0, "", true);
+
+        AuditMethodPolicy policy = policy(resolver, "critical");
+
+        assertThat(policy.successTimer()).isSameAs(methodTimer("critical", "CRITICAL", "success"));
+        assertThat(policy.failureTimer()).isSameAs(methodTimer("critical", "CRITICAL", "failure"));
+    }
+
+    @Test
+    void failedCallIsRecordedToFailureOutcome() throws Throwable {
+        AuditPolicyResolver resolver = resolver(AuditLevel.LOW, 1.0, "", true);
+        AuditInterceptor interceptor = new AuditInterceptor(mock(AuditDispatcher.class), resolver,
+                new AuditSerializer(new SyntheticConfig().objectMapper(), AuditSerializationMode.EAGER));
+        ProceedingJoinPoint joinPoint = joinPoint("standard");
+        when(joinPoint.proceed()).thenThrow(new IllegalStateException("Очередь команд переполнена"));
+
+        assertThatThrownBy(() -> interceptor.intercept(joinPoint, annotation("standard")))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(methodTimer("standard", "STANDARD", "failure").count()).isEqualTo(1);
+        assertThat(methodTimer("standard", "STANDARD", "success").count()).isZero();
+    }
+
+    @Test
+    void disabledMetricsRegisterNoMethodTimers() throws Exception {
+        AuditPolicyResolver resolver = resolver(AuditLevel.LOW, 1.0, "", false);
+
+        AuditMethodPolicy policy = policy(resolver, "standard");
+
+        assertThat(policy.successTimer()).isNull();
+        assertThat(policy.failureTimer()).isNull();
+        assertThat(meterRegistry.find("synthetic.audit.method.time").timers()).isEmpty();
+    }
+
+    @Test
+    void malformedOverrideIsRejected() {
+        assertThatThrownBy(() -> resolver(AuditLevel.LOW, 1.0, "SampledService.standard"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private AuditPolicyResolver resolver(AuditLevel minLevel, double sampleRate, String methodOverrides) {
+        return resolver(minLevel, sampleRate, methodOverrides, false);
+    }
+
+    private AuditPolicyResolver resolver(AuditLevel minLevel, double sampleRate, String methodOverrides,
+                                         boolean timersEnabled) {
+        AuditPolicyResolver resolver = new AuditPolicyResolver(meterRegistry);
+        ReflectionTestUtils.setField(resolver, "minLevel", minLevel);
+        ReflectionTestUtils.setField(resolver, "lowSampleRate", sampleRate);
+        ReflectionTestUtils.setField(resolver, "standardSampleRate", sampleRate);
+        ReflectionTestUtils.setField(resolver, "highSampleRate", sampleRate);
+        ReflectionTestUtils.setField(resolver, "criticalSampleRate", sampleRate);
+        ReflectionTestUtils.setField(resolver, "methodOverrides", methodOverrides);
+        ReflectionTestUtils.setField(resolver, "timersEnabled", timersEnabled);
+        ReflectionTestUtils.setField(resolver, "timerPercentiles", new double[0]);
+        ReflectionTestUtils.setField(resolver, "timerSlo", new Duration[0]);
+        resolver.init();
+        return resolver;
+    }
+
+    private static AuditMethodPolicy policy(AuditPolicyResolver resolver, String methodName) throws Exception {
+        return resolver.policyFor(joinPoint(methodName), annotation(methodName));
+    }
+
+    private static ProceedingJoinPoint joinPoint(String methodName) throws Exception {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(SampledService.class.getDeclaredMethod(methodName));
+        when(signature.getName()).thenReturn(methodName);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getTarget()).thenReturn(new SampledService());
+        return joinPoint;
+    }
+
+    private static WeylandWatchingYou annotation(String methodName) throws Exception {
+        return SampledService.class.getDeclaredMethod(methodName).getAnnotation(WeylandWatchingYou.class);
+    }
+
+    private double invocations(String methodName, String decision) {
+        return meterRegistry.get("synthetic.audit.invocations")
+                .tag("method", methodName)
+                .tag("decision", decision)
+                .counter()
+                .count();
+    }
+
+    private Timer methodTimer(String methodName, String level, String outcome) {
+        return meterRegistry.get("synthetic.audit.method.time")
+                .tag("class", "SampledService")
+                .tag("method", methodName)
+                .tag("level", level)
+                .tag("outcome", outcome)
+                .timer();
+    }
+
+    static class SampledService {
+
+        @WeylandWatchingYou
+        void standard() {
+        }
+
+        @WeylandWatchingYou(level = AuditLevel.CRITICAL)
+        void critical() {
+        }
+    }
+}
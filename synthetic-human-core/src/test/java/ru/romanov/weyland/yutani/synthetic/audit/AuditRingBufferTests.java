@@ -0,0 +1,37 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditRingBufferTests {
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertThat(new AuditRingBuffer<>(4).capacity()).isEqualTo(4);
+        assertThat(new AuditRingBuffer<>(5).capacity()).isEqualTo(8);
+        assertThat(new AuditRingBuffer<>(1).capacity()).isEqualTo(4);
+    }
+
+    @Test
+    void rejectsOfferWhenFullAndAcceptsAfterDrain() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 2)).isEqualTo(2);
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.offer(5)).isTrue();
+        assertThat(buffer.offer(6)).isFalse();
+
+        buffer.drainTo(drained, 10);
+        assertThat(drained).containsExactly(0, 1, 2, 3, 4, 5);
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,134 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.romanov.weyland.yutani.synthetic.config.SyntheticConfig;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.CommandSubmissionDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.response.BatchCommandItemDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.response.BatchCommandResponseDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.response.CommandResponseDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditSerializationMode;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.model.CommandStatus;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditSerializerTests {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2026, 1, 15, 10, 30);
+
+    ObjectMapper objectMapper = new SyntheticConfig().objectMapper();
+    AuditSerializer serializer = new AuditSerializer(objectMapper, AuditSerializationMode.DEFERRED);
+
+    @Test
+    void commandArgumentIsCapturedAtCallTime() throws Exception {
+        Command command = command();
+        String expected = serializer.serializeArguments(new Object[]{command});
+
+        List<Object> snapshot = serializer.snapshotArguments(new Object[]{command});
+        command.setStatus(CommandStatus.COMPLETED);
+        command.setExecutionResult("Выполнено");
+
+        assertThat(parameters(new AuditPayload(snapshot, null))).isEqualTo(expected);
+    }
+
+    @Test
+    void recordHoldingCommandIsCapturedAtCallTime() throws Exception {
+        Command command = command();
+        CommandSubmissionDTO submission = new CommandSubmissionDTO(command, false, "Команда принята");
+        String expected = serializer.serialize(submission);
+
+        Object snapshot = serializer.snapshotResult(submission);
+        command.setStatus(CommandStatus.FAILED);
+
+        assertThat(snapshot).isNotSameAs(submission);
+        assertThat(result(new AuditPayload(null, snapshot))).isEqualTo(expected);
+    }
+
+    @Test
+    void recordHoldingListIsCapturedAtCallTime() throws Exception {
+        List<BatchCommandItemDTO> items = new ArrayList<>(List.of(BatchCommandItemDTO.accepted(0, "cmd-1")));
+        BatchCommandResponseDTO response = new BatchCommandResponseDTO(1, 1, 0, items, TIME);
+        String expected = serializer.serialize(response);
+
+        Object snapshot = serializer.snapshotResult(response);
+        items.add(BatchCommandItemDTO.rejected(1, "cmd-2", "QUEUE_OVERFLOW", "Очередь переполнена"));
+
+        assertThat(result(new AuditPayload(null, snapshot))).isEqualTo(expected);
+    }
+
+    @Test
+    void collectionsAndMapsAreCopied() throws Exception {
+        List<String> list = new ArrayList<>(List.of("первая"));
+        Map<String, Object> map = new HashMap<>(Map.of("count", 1));
+        String expected = serializer.serializeArguments(new Object[]{list, map});
+
+        List<Object> snapshot = serializer.snapshotArguments(new Object[]{list, map});
+        list.add("вторая");
+        map.put("count", 2);
+
+        assertThat(parameters(new AuditPayload(snapshot, null))).isEqualTo(expected);
+    }
+
+    @Test
+    void responseSnapshotMatchesEagerSerialization() throws Exception {
+        Command command = command();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"v1\"");
+        ResponseEntity<Command> response = ResponseEntity.ok().headers(headers).body(command);
+        String expected = serializer.serialize(response);
+
+        Object snapshot = serializer.snapshotResult(response);
+        command.setStatus(CommandStatus.COMPLETED);
+
+        assertThat(objectMapper.readTree(result(new AuditPayload(null, snapshot))))
+                .isEqualTo(objectMapper.readTree(expected));
+    }
+
+    @Test
+    void cachedAndNotModifiedResponsesAreNotAuditedAsResults() {
+        assertThat(serializer.isAuditableResult(ResponseEntity.ok(command()))).isTrue();
+        assertThat(serializer.isAuditableResult(ResponseEntity.notFound().build())).isTrue();
+        assertThat(serializer.isAuditableResult(ResponseEntity.ok(new byte[]{'{', '}'}))).isFalse();
+        assertThat(serializer.isAuditableResult(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"v1\"").build()))
+                .isFalse();
+    }
+
+    @Test
+    void valueRecordsAreKeptByReference() {
+        CommandResponseDTO response = new CommandResponseDTO("cmd-1", "ACCEPTED", "Команда принята", TIME);
+
+        assertThat(serializer.snapshotResult(response)).isSameAs(response);
+    }
+
+    private String parameters(AuditPayload payload) {
+        return serializer.complete(record(), payload).parameters();
+    }
+
+    private String result(AuditPayload payload) {
+        return serializer.complete(record(), payload).result();
+    }
+
+    private static AuditDTO record() {
+        return AuditDTO.builder()
+                .timestamp(TIME)
+                .methodName("CommandService.submitCommand")
+                .status("SUCCESS")
+                .build();
+    }
+
+    private static Command command() {
+        return new Command("cmd-1", "Проверка систем", Priority.COMMON, "Bishop", TIME);
+    }
+}
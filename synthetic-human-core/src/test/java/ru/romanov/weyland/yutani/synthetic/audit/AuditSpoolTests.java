@@ -0,0 +1,90 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.romanov.weyland.yutani.synthetic.config.SyntheticConfig;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditSpoolTests {
+
+    private static final int SEGMENT_SIZE = 4 * 1024;
+
+    @TempDir
+    Path directory;
+
+    ObjectMapper objectMapper = new SyntheticConfig().objectMapper();
+
+    @Test
+    void recordsAreReadInOrderAcrossSegments() throws Exception {
+        try (AuditSpool spool = newSpool()) {
+            for (int i = 0; i < 100; i++) {
+                spool.append(record(i));
+            }
+
+            List<String> read = new ArrayList<>();
+            List<AuditDTO> batch;
+            while (!(batch = spool.peek(30)).isEmpty()) {
+                assertThat(batch).hasSizeLessThanOrEqualTo(30);
+                batch.forEach(record -> read.add(record.methodName()));
+                spool.acknowledge();
+            }
+
+            assertThat(read).containsExactlyElementsOf(
+                    IntStream.range(0, 100).mapToObj(i -> "method-" + i).toList());
+            assertThat(spool.isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    void peekWithoutAcknowledgeReturnsSameBatch() throws Exception {
+        try (AuditSpool spool = newSpool()) {
+            spool.append(record(0));
+            spool.append(record(1));
+
+            assertThat(spool.peek(1)).extracting(AuditDTO::methodName).containsExactly("method-0");
+            assertThat(spool.peek(1)).extracting(AuditDTO::methodName).containsExactly("method-0");
+            assertThat(spool.size()).isEqualTo(2);
+        }
+    }
+
+    // Неподтвержденные записи переживают перезапуск
+    @Test
+    void unacknowledgedRecordsSurviveReopen() throws Exception {
+        try (AuditSpool spool = newSpool()) {
+            for (int i = 0; i < 10; i++) {
+                spool.append(record(i));
+            }
+            spool.peek(5);
+        }
+
+        try (AuditSpool reopened = newSpool()) {
+            assertThat(reopened.size()).isEqualTo(10);
+            assertThat(reopened.peek(3)).extracting(AuditDTO::methodName)
+                    .containsExactly("method-0", "method-1", "method-2");
+        }
+    }
+
+    private AuditSpool newSpool() throws Exception {
+        return new AuditSpool("test", directory, SEGMENT_SIZE, objectMapper, new SimpleMeterRegistry());
+    }
+
+    private static AuditDTO record(int i) {
+        return AuditDTO.builder()
+                .timestamp(LocalDateTime.now())
+                .methodName("method-" + i)
+                .status("SUCCESS")
+                .level(AuditLevel.STANDARD)
+                .build();
+    }
+}
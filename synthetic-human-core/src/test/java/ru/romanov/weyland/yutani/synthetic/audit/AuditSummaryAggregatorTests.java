@@ -0,0 +1,122 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.romanov.weyland.yutani.synthetic.config.SyntheticConfig;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditAggregationMode;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+import ru.romanov.weyland.yutani.synthetic.service.AuditService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AuditSummaryAggregatorTests {
+
+    AuditService auditService = mock(AuditService.class);
+    ObjectMapper objectMapper = new SyntheticConfig().objectMapper();
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AuditSummaryAggregator aggregator = new AuditSummaryAggregator(auditService, objectMapper, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        aggregator.destroy();
+    }
+
+    @Test
+    void recordsModeDoesNotFold() {
+        start(AuditAggregationMode.RECORDS);
+
+        assertThat(aggregator.fold(record("CommandService.processCommand", "SUCCESS", AuditLevel.STANDARD, 5))).isFalse();
+        aggregator.flush();
+
+        verify(auditService, never()).sendAuditRecords(anyList());
+    }
+
+    @Test
+    void onlySuccessfulNonCriticalCallsAreFolded() {
+        start(AuditAggregationMode.SUMMARY);
+
+        assertThat(aggregator.fold(record("CommandService.processCommand", "SUCCESS", AuditLevel.STANDARD, 5))).isTrue();
+        assertThat(aggregator.fold(record("CommandService.processCommand", "FAILED", AuditLevel.STANDARD, 7))).isFalse();
+        assertThat(aggregator.fold(record("CommandService.processCommand", "SUCCESS", AuditLevel.CRITICAL, 9))).isFalse();
+
+        assertThat(meterRegistry.get("synthetic.audit.summary.folded").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void flushEmitsOneSummaryPerMethodAndResetsWindow() throws Exception {
+        start(AuditAggregationMode.SUMMARY);
+        for (int i = 1; i <= 10; i++) {
+            aggregator.fold(record("CommandService.processCommand", i == 10 ? "FAILED" : "SUCCESS", AuditLevel.STANDARD, i));
+        }
+        aggregator.fold(record("CommandService.getCommand", "SUCCESS", AuditLevel.HIGH, 3));
+
+        aggregator.flush();
+
+        List<AuditDTO> records = sentRecords(1);
+        assertThat(records).extracting(AuditDTO::methodName)
+                .containsExactlyInAnyOrder("CommandService.processCommand", "CommandService.getCommand");
+
+        AuditDTO processed = records.stream()
+                .filter(record -> record.methodName().equals("CommandService.processCommand"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(processed.status()).isEqualTo("SUMMARY");
+        assertThat(processed.executionTimeMs()).isEqualTo(10);
+
+        JsonNode summary = objectMapper.readTree(processed.result());
+        assertThat(summary.get("count").asLong()).isEqualTo(10);
+        assertThat(summary.get("errors").asLong()).isEqualTo(1);
+        assertThat(summary.get("byStatus").get("SUCCESS").asLong()).isEqualTo(9);
+        assertThat(summary.get("byLevel").get("STANDARD").asLong()).isEqualTo(10);
+        assertThat(summary.get("latencyMs").get("p50").asLong()).isEqualTo(5);
+
+        aggregator.flush();
+        verify(auditService, times(1)).sendAuditRecords(anyList());
+
+        aggregator.fold(record("CommandService.getCommand", "SUCCESS", AuditLevel.LOW, 4));
+        aggregator.flush();
+
+        AuditDTO next = sentRecords(2).getFirst();
+        assertThat(next.level()).isEqualTo(AuditLevel.LOW);
+        assertThat(objectMapper.readTree(next.result()).get("count").asLong()).isEqualTo(1);
+    }
+
+    private void start(AuditAggregationMode mode) {
+        ReflectionTestUtils.setField(aggregator, "aggregationMode", mode);
+        ReflectionTestUtils.setField(aggregator, "flushInterval", Duration.ofHours(1));
+        aggregator.init();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AuditDTO> sentRecords(int invocations) {
+        ArgumentCaptor<List<AuditDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(auditService, times(invocations)).sendAuditRecords(captor.capture());
+        return captor.getValue();
+    }
+
+    private static AuditDTO record(String methodName, String status, AuditLevel level, long executionTimeMs) {
+        return AuditDTO.builder()
+                .timestamp(LocalDateTime.now())
+                .methodName(methodName)
+                .description("Обработка команды")
+                .status(status)
+                .executionTimeMs(executionTimeMs)
+                .level(level)
+                .build();
+    }
+}
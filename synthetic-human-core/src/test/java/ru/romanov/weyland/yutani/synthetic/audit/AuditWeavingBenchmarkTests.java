@@ -0,0 +1,173 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.Aspects;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import ru.romanov.weyland.yutani.synthetic.config.SyntheticConfig;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+import ru.romanov.weyland.yutani.synthetic.model.AuditSerializationMode;
+
+import java.util.function.IntUnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+class AuditWeavingBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditWeavingBenchmarkTests.class);
+    private static final int CALLS = 200_000;
+    private static final int ROUNDS = 5;
+
+    AuditDispatcher auditDispatcher = mock(AuditDispatcher.class);
+    AuditInterceptor auditInterceptor = new AuditInterceptor(auditDispatcher, policyResolver(),
+            new AuditSerializer(new SyntheticConfig().objectMapper(), AuditSerializationMode.EAGER));
+
+    @Test
+    void proxyAuditsOnlyExternalCalls() {
+        AuditedTarget proxy = proxy(new AuditedTarget());
+
+        proxy.audited(1);
+        proxy.selfInvoked(1);
+
+        assertThat(publishCount()).isEqualTo(1);
+    }
+
+    @Test
+    void wovenAspectAuditsSelfInvocationAndPrivateMethods() {
+        assumeWoven();
+
+        AuditedTarget target = new AuditedTarget();
+        WeavingAuditAspect aspect = Aspects.aspectOf(WeavingAuditAspect.class);
+
+        aspect.setAuditInterceptor(auditInterceptor);
+        try {
+            target.selfInvoked(1);
+            assertThat(publishCount()).isEqualTo(2);
+        } finally {
+            aspect.setAuditInterceptor(null);
+        }
+        assertThat(WeavingAuditAspect.isWoven(UnwovenTarget.class)).isFalse();
+    }
+
+    @Test
+    void wovenAspectWithoutInterceptorOnlyProceeds() {
+        assumeWoven();
+
+        assertThat(new AuditedTarget().selfInvoked(1)).isEqualTo(3);
+        assertThat(publishCount()).isZero();
+    }
+
+    // Замер накладных расходов запускается только профилем benchmarks
+    @Test
+    @Tag("benchmark")
+    void auditOverhead() {
+        AuditedTarget target = new AuditedTarget();
+        AuditedTarget proxy = proxy(new AuditedTarget());
+
+        long directNanos = measure(target::plain);
+        long proxyNanos = measure(proxy::audited);
+
+        if (!WeavingAuditAspect.isWoven(AuditedTarget.class)) {
+            log.info("Аудит: прямой вызов {} нс, прокси {} нс на вызов", directNanos / CALLS, proxyNanos / CALLS);
+            return;
+        }
+
+        WeavingAuditAspect aspect = Aspects.aspectOf(WeavingAuditAspect.class);
+        aspect.setAuditInterceptor(auditInterceptor);
+        try {
+            long wovenNanos = measure(target::audited);
+            log.info("Аудит: прямой вызов {} нс, прокси {} нс, вплетение {} нс на вызов",
+                    directNanos / CALLS, proxyNanos / CALLS, wovenNanos / CALLS);
+        } finally {
+            aspect.setAuditInterceptor(null);
+        }
+    }
+
+    private static void assumeWoven() {
+        assumeThat(WeavingAuditAspect.isWoven(AuditedTarget.class))
+                .as("классы тестов не прошли вплетение, запустите с профилем aspectj-weaving")
+                .isTrue();
+    }
+
+    private AuditedTarget proxy(AuditedTarget target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new AuditAspect(auditInterceptor));
+        return factory.getProxy();
+    }
+
+    private int publishCount() {
+        return (int) mockingDetails(auditDispatcher).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("publish"))
+                .count();
+    }
+
+    private static long measure(IntUnaryOperator call) {
+        long best = Long.MAX_VALUE;
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < CALLS; i++) {
+                sink += call.applyAsInt(i);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        assertThat(sink).isNotNegative();
+        return best;
+    }
+
+    private static AuditPolicyResolver policyResolver() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuditMethodPolicy policy = new AuditMethodPolicy(
+                "AuditedTarget.audited", "audited", "Тестовый метод", AuditLevel.STANDARD,
+                true, true, false, 1.0,
+                Counter.builder("audited").register(meterRegistry),
+                Counter.builder("below_level").register(meterRegistry),
+                Counter.builder("sampled_out").register(meterRegistry),
+                Timer.builder("success").register(meterRegistry),
+                Timer.builder("failure").register(meterRegistry));
+
+        AuditPolicyResolver resolver = mock(AuditPolicyResolver.class);
+        when(resolver.policyFor(any(), any())).thenReturn(policy);
+        when(resolver.shouldAudit(any())).thenReturn(true);
+        return resolver;
+    }
+
+    static class AuditedTarget {
+
+        public int plain(int value) {
+            return value + 1;
+        }
+
+        @WeylandWatchingYou(description = "Тестовый метод")
+        public int audited(int value) {
+            return value + 1;
+        }
+
+        public int selfInvoked(int value) {
+            return audited(value) + hidden(value);
+        }
+
+        @WeylandWatchingYou(description = "Приватный тестовый метод")
+        private int hidden(int value) {
+            return value;
+        }
+    }
+
+    static class UnwovenTarget {
+
+        public int plain(int value) {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.support.SendResult;
+import ru.romanov.weyland.yutani.synthetic.config.SyntheticConfig;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KafkaAuditRelayTests {
+
+    @TempDir
+    Path spoolDirectory;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    KafkaAuditSink sink = mock(KafkaAuditSink.class);
+
+    // Отправки, которыми управляет тест; записи без заданного исхода доставляются сразу
+    Map<String, CompletableFuture<SendResult<String, byte[]>>> sends = new ConcurrentHashMap<>();
+    List<String> sent = new CopyOnWriteArrayList<>();
+
+    AuditSpool spool;
+    KafkaAuditRelay relay;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (relay != null) {
+            relay.close();
+        }
+    }
+
+    @Test
+    void failedSendIsSpooledAheadOfLaterRecords() throws Exception {
+        start(Duration.ofHours(1));
+        CompletableFuture<SendResult<String, byte[]>> first = pendingSend("first");
+
+        relay.publish(record("first"));
+        first.completeExceptionally(new IllegalStateException("брокер недоступен"));
+        relay.publish(record("second"));
+
+        awaitUntil(() -> spool.size() == 2);
+        assertThat(spooledMethods()).containsExactly("first", "second");
+    }
+
+    // Запись, отложенная после открытия предохранителя, ждет завершения более ранней отправки
+    @Test
+    void deferredRecordWaitsForEarlierUnresolvedSend() throws Exception {
+        start(Duration.ofHours(1));
+        CompletableFuture<SendResult<String, byte[]>> first = pendingSend("first");
+        CompletableFuture<SendResult<String, byte[]>> second = pendingSend("second");
+
+        relay.publish(record("first"));
+        relay.publish(record("second"));
+        second.completeExceptionally(new IllegalStateException("брокер недоступен"));
+        relay.publish(record("third"));
+
+        Thread.sleep(50);
+        assertThat(spool.isEmpty()).isTrue();
+
+        first.completeExceptionally(new IllegalStateException("брокер недоступен"));
+        awaitUntil(() -> spool.size() == 3);
+        assertThat(spooledMethods()).containsExactly("first", "second", "third");
+    }
+
+    @Test
+    void spooledRecordsAreReplayedInOrderAfterRecovery() throws Exception {
+        start(Duration.ofMillis(20));
+        pendingSend("first").completeExceptionally(new IllegalStateException("брокер недоступен"));
+
+        relay.publish(record("first"));
+        relay.publish(record("second"));
+        sends.remove("first");
+
+        awaitUntil(() -> meterRegistry.get("synthetic.audit.kafka.replayed").counter().count() == 2);
+        assertThat(sent).containsSubsequence("first", "second");
+        assertThat(spool.isEmpty()).isTrue();
+
+        relay.publish(record("third"));
+        assertThat(sent).endsWith("third");
+        assertThat(meterRegistry.get("synthetic.audit.kafka.spooled").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void pendingRecordsAreSpooledOnClose() throws Exception {
+        start(Duration.ofHours(1));
+        pendingSend("first");
+        CompletableFuture<SendResult<String, byte[]>> second = pendingSend("second");
+
+        relay.publish(record("first"));
+        relay.publish(record("second"));
+        second.completeExceptionally(new IllegalStateException("брокер недоступен"));
+        relay.publish(record("third"));
+
+        relay.close();
+        relay = null;
+
+        try (AuditSpool reopened = new AuditSpool("kafka", spoolDirectory, 64 * 1024,
+                new SyntheticConfig().objectMapper(), new SimpleMeterRegistry())) {
+            assertThat(reopened.peek(10)).extracting(AuditDTO::methodName).containsExactly("second", "third");
+        }
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> pendingSend(String method) {
+        CompletableFuture<SendResult<String, byte[]>> future = new CompletableFuture<>();
+        sends.put(method, future);
+        return future;
+    }
+
+    private void start(Duration openDuration) throws Exception {
+        when(sink.send(any())).thenAnswer(invocation -> {
+            AuditDTO record = invocation.getArgument(0);
+            sent.add(record.methodName());
+            CompletableFuture<SendResult<String, byte[]>> future = sends.get(record.methodName());
+            return future != null ? future : CompletableFuture.completedFuture(null);
+        });
+
+        spool = new AuditSpool("kafka", spoolDirectory, 64 * 1024,
+                new SyntheticConfig().objectMapper(), meterRegistry);
+        relay = KafkaAuditRelay.builder()
+                .sink(sink)
+                .circuitBreaker(new AuditCircuitBreaker("kafka", 1, openDuration, meterRegistry))
+                .spool(spool)
+                .replayBatchSize(100)
+                .replayInterval(Duration.ofMillis(10))
+                .replayTimeout(Duration.ofSeconds(1))
+                .meterRegistry(meterRegistry)
+                .build();
+        relay.start();
+    }
+
+    private List<String> spooledMethods() {
+        return spool.peek(10).stream().map(AuditDTO::methodName).toList();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static AuditDTO record(String method) {
+        return AuditDTO.builder()
+                .timestamp(LocalDateTime.now())
+                .methodName(method)
+                .status("SUCCESS")
+                .level(AuditLevel.STANDARD)
+                .build();
+    }
+}
@@ -0,0 +1,128 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.util.unit.DataSize;
+import ru.romanov.weyland.yutani.synthetic.audit.codec.JsonAuditRecordEncoder;
+import ru.romanov.weyland.yutani.synthetic.config.KafkaConfig;
+import ru.romanov.weyland.yutani.synthetic.config.SyntheticConfig;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EmbeddedKafka(partitions = 4, topics = {KafkaAuditSinkThroughputTests.DEFAULT_TOPIC, KafkaAuditSinkThroughputTests.TUNED_TOPIC})
+class KafkaAuditSinkThroughputTests {
+
+    static final String DEFAULT_TOPIC = "audit-default";
+    static final String TUNED_TOPIC = "audit-tuned";
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaAuditSinkThroughputTests.class);
+
+    private static final int RECORDS = 20_000;
+    private static final List<String> METHODS = List.of(
+            "CommandService.processCommand", "CommandService.getCommand", "SyntheticRestController.getStatus");
+
+    ObjectMapper objectMapper = new SyntheticConfig().objectMapper();
+
+    // Замер пропускной способности запускается только профилем benchmarks
+    @Test
+    @Tag("benchmark")
+    void tunedProducerThroughput(EmbeddedKafkaBroker broker) throws Exception {
+        double defaults = measure(broker, DEFAULT_TOPIC, Map.of());
+        double tuned = measure(broker, TUNED_TOPIC, KafkaConfig.auditProducerProperties(
+                DataSize.ofKilobytes(64), Duration.ofMillis(10), "lz4", true, "all",
+                Duration.ofSeconds(1), DataSize.ofMegabytes(32)));
+
+        log.info("Kafka аудит: настройки по умолчанию {} зап/с, настроенный продюсер {} зап/с",
+                Math.round(defaults), Math.round(tuned));
+    }
+
+    @Test
+    void recordsOfOneMethodShareAPartition(EmbeddedKafkaBroker broker) throws Exception {
+        measure(broker, TUNED_TOPIC, Map.of());
+
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps("audit-keys", "false", broker);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        Map<String, Integer> partitionByMethod = new HashMap<>();
+
+        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(
+                consumerProps, new StringDeserializer(), new StringDeserializer())) {
+            broker.consumeFromAnEmbeddedTopic(consumer, TUNED_TOPIC);
+            for (ConsumerRecord<String, String> record : KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(10))) {
+                Integer previous = partitionByMethod.putIfAbsent(record.key(), record.partition());
+                assertThat(previous == null || previous == record.partition()).isTrue();
+            }
+        }
+
+        assertThat(partitionByMethod).containsOnlyKeys(METHODS);
+    }
+
+    private double measure(EmbeddedKafkaBroker broker, String topic, Map<String, Object> overrides) throws Exception {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.putAll(overrides);
+
+        DefaultKafkaProducerFactory<String, byte[]> producerFactory = new DefaultKafkaProducerFactory<>(props);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        KafkaAuditSink sink = new KafkaAuditSink(new KafkaTemplate<>(producerFactory), topic,
+                new JsonAuditRecordEncoder(objectMapper), meterRegistry);
+
+        try {
+            sink.send(record(0)).get(10, TimeUnit.SECONDS);
+
+            CompletableFuture<?>[] sends = new CompletableFuture<?>[RECORDS];
+            long start = System.nanoTime();
+            for (int i = 0; i < RECORDS; i++) {
+                sends[i] = sink.send(record(i));
+            }
+            sink.flush();
+            CompletableFuture.allOf(sends).get(60, TimeUnit.SECONDS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            assertThat(meterRegistry.get("synthetic.audit.kafka.sends").tag("outcome", "success").counter().count())
+                    .isEqualTo(RECORDS + 1);
+            return RECORDS / seconds;
+        } finally {
+            producerFactory.destroy();
+        }
+    }
+
+    private static AuditDTO record(int i) {
+        return AuditDTO.builder()
+                .timestamp(LocalDateTime.now())
+                .methodName(METHODS.get(i % METHODS.size()))
+                .description("Нагрузочная запись аудита")
+                .parameters("[{\"description\":\"Проверка систем\",\"priority\":\"COMMON\",\"author\":\"Bishop\"}]")
+                .status("SUCCESS")
+                .executionTimeMs(i % 50)
+                .level(AuditLevel.STANDARD)
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import org.junit.jupiter.api.Test;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditSummaryDTO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTests {
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+
+        assertThat(histogram.valueAtPercentile(50)).isEqualTo(50);
+        assertThat(histogram.valueAtPercentile(90)).isEqualTo(90);
+        assertThat(histogram.valueAtPercentile(100)).isEqualTo(100);
+    }
+
+    @Test
+    void largeValuesStayWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        assertThat(histogram.valueAtPercentile(50)).isCloseTo(50_000L, within(50_000L / 64));
+        assertThat(histogram.valueAtPercentile(99)).isCloseTo(99_000L, within(99_000L / 64));
+        assertThat(histogram.valueAtPercentile(99.9)).isCloseTo(99_900L, within(99_900L / 64));
+    }
+
+    @Test
+    void bucketBoundariesCoverEveryValue() {
+        for (long value : new long[]{127, 128, 129, 255, 256, 1_000, 65_535, 1_000_000, Integer.MAX_VALUE}) {
+            int index = LatencyHistogram.indexOf(value);
+
+            assertThat(LatencyHistogram.highestEquivalentValue(index)).isGreaterThanOrEqualTo(value);
+            assertThat(LatencyHistogram.highestEquivalentValue(index) - value).isLessThanOrEqualTo(value / 64);
+        }
+    }
+
+    @Test
+    void latencySummaryAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(10);
+        histogram.record(20);
+
+        AuditSummaryDTO.Latency latency = histogram.toLatency();
+        assertThat(latency.min()).isZero();
+        assertThat(latency.mean()).isEqualTo(10.0);
+        assertThat(latency.max()).isEqualTo(20);
+
+        histogram.reset();
+        assertThat(histogram.getTotalCount()).isZero();
+        assertThat(histogram.toLatency()).isEqualTo(new AuditSummaryDTO.Latency(0, 0, 0, 0, 0, 0, 0));
+    }
+}
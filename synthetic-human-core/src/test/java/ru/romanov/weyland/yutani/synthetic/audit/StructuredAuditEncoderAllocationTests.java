@@ -0,0 +1,165 @@
+package ru.romanov.weyland.yutani.synthetic.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.romanov.weyland.yutani.synthetic.config.SyntheticConfig;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditConsoleFormat;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+
+class StructuredAuditEncoderAllocationTests {
+
+    private static final Logger log = LoggerFactory.getLogger(StructuredAuditEncoderAllocationTests.class);
+    private static final int RECORDS = 10_000;
+    private static final int ROUNDS = 5;
+
+    ObjectMapper objectMapper = new SyntheticConfig().objectMapper();
+
+    // Замер аллокаций запускается только профилем benchmarks
+    @Test
+    @Tag("benchmark")
+    void structuredEncodingAllocatesLessThanStringFormat() {
+        com.sun.management.ThreadMXBean threadMXBean = threadMXBean();
+        List<AuditDTO> records = records();
+
+        long legacyBytes = allocatedPerRecord(threadMXBean, records, StructuredAuditEncoderAllocationTests::legacyFormat);
+        long jsonBytes = allocatedPerRecord(threadMXBean, records, new StructuredAuditEncoder(AuditConsoleFormat.JSON)::encode);
+        long logfmtBytes = allocatedPerRecord(threadMXBean, records, new StructuredAuditEncoder(AuditConsoleFormat.LOGFMT)::encode);
+        long textBytes = allocatedPerRecord(threadMXBean, records, new StructuredAuditEncoder(AuditConsoleFormat.TEXT)::encode);
+
+        log.info("Аллокации на запись аудита: String.format {} байт, JSON {} байт, logfmt {} байт, текст {} байт",
+                legacyBytes, jsonBytes, logfmtBytes, textBytes);
+
+        assertThat(jsonBytes).isLessThan(legacyBytes);
+        assertThat(logfmtBytes).isLessThan(legacyBytes);
+        assertThat(textBytes).isLessThan(legacyBytes);
+    }
+
+    @Test
+    void jsonLineIsSingleLineValidJson() throws Exception {
+        StructuredAuditEncoder encoder = new StructuredAuditEncoder(AuditConsoleFormat.JSON);
+
+        for (AuditDTO record : records().subList(0, 20)) {
+            String line = encoder.encode(record);
+            JsonNode node = objectMapper.readTree(line);
+
+            assertThat(line).doesNotContain("\n");
+            assertThat(node.get("methodName").asText()).isEqualTo(record.methodName());
+            assertThat(node.get("executionTimeMs").asLong()).isEqualTo(record.executionTimeMs());
+            assertThat(node.get("parameters").isArray()).isTrue();
+            if (record.errorMessage() != null) {
+                assertThat(node.get("errorMessage").asText()).isEqualTo(record.errorMessage());
+            }
+        }
+    }
+
+    @Test
+    void logfmtQuotesValuesWithSpacesAndQuotes() {
+        AuditDTO record = records().getFirst().toBuilder()
+                .errorMessage("Ошибка \"двигателя\"\nстрока 2")
+                .build();
+
+        String line = new StructuredAuditEncoder(AuditConsoleFormat.LOGFMT).encode(record);
+
+        assertThat(line)
+                .doesNotContain("\n")
+                .contains(" method=" + record.methodName() + " ")
+                .contains(" error=\"Ошибка \\\"двигателя\\\"\\nстрока 2\"");
+    }
+
+    private static long allocatedPerRecord(com.sun.management.ThreadMXBean threadMXBean,
+                                           List<AuditDTO> records,
+                                           Function<AuditDTO, String> encoder) {
+        long thread = Thread.currentThread().threadId();
+        long best = Long.MAX_VALUE;
+        long length = 0;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = threadMXBean.getThreadAllocatedBytes(thread);
+            for (AuditDTO record : records) {
+                length += encoder.apply(record).length();
+            }
+            best = Math.min(best, threadMXBean.getThreadAllocatedBytes(thread) - before);
+        }
+        assertThat(length).isPositive();
+        return best / records.size();
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        assumeThat(ManagementFactory.getThreadMXBean()).isInstanceOf(com.sun.management.ThreadMXBean.class);
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeThat(threadMXBean.isThreadAllocatedMemorySupported()).isTrue();
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        return threadMXBean;
+    }
+
+    // Прежняя реализация AuditService.sendToConsole
+    private static String legacyFormat(AuditDTO auditDto) {
+        StringBuilder sb = new StringBuilder(
+                String.format("""
+                               %n----------------------------------------------------------
+                               Время: %s
+                               Метод: %s
+                               Описание: %s
+                               Статус: %s
+                               Время выполнения: %d мс
+                               Уровень: %s
+                               """,
+                        auditDto.timestamp().toString(),
+                        auditDto.methodName(),
+                        auditDto.description(),
+                        auditDto.status(),
+                        auditDto.executionTimeMs(),
+                        auditDto.level()
+                )
+        );
+
+        if (auditDto.parameters() != null) {
+            sb.append(String.format("%nПараметры: %s", auditDto.parameters()));
+        }
+
+        if (auditDto.result() != null) {
+            sb.append(String.format("%nРезультат: %s", auditDto.result()));
+        }
+
+        if (auditDto.errorMessage() != null) {
+            sb.append(String.format("%nОшибка: %s", auditDto.errorMessage()));
+        }
+
+        sb.append("\n----------------------------------------------------------");
+        return sb.toString();
+    }
+
+    private static List<AuditDTO> records() {
+        List<AuditDTO> records = new ArrayList<>(RECORDS);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < RECORDS; i++) {
+            boolean failed = i % 10 == 0;
+            records.add(AuditDTO.builder()
+                    .timestamp(now.plusNanos(i * 1_000_000L))
+                    .methodName(i % 2 == 0 ? "CommandService.processCommand" : "SyntheticRestController.sendCommand")
+                    .description("Обработка команды синтетика")
+                    .parameters("[{\"id\":\"" + i + "\",\"description\":\"Проверка систем\",\"priority\":\"COMMON\",\"author\":\"Bishop\"}]")
+                    .result(failed ? null : "\"Команда добавлена в очередь выполнения: " + i + "\"")
+                    .status(failed ? "FAILED" : "SUCCESS")
+                    .errorMessage(failed ? "Очередь команд переполнена" : null)
+                    .executionTimeMs(i % 200)
+                    .level(AuditLevel.values()[i % AuditLevel.values().length])
+                    .build());
+        }
+        return records;
+    }
+}
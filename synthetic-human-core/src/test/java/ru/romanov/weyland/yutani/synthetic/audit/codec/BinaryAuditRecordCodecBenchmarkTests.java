@@ -0,0 +1,173 @@
+package ru.romanov.weyland.yutani.synthetic.audit.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.romanov.weyland.yutani.synthetic.config.SyntheticConfig;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.AuditSpanDTO;
+import ru.romanov.weyland.yutani.synthetic.model.AuditLevel;
+import ru.romanov.weyland.yutani.synthetic.trace.TraceContext;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryAuditRecordCodecBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(BinaryAuditRecordCodecBenchmarkTests.class);
+    private static final int RECORDS = 10_000;
+    private static final int ROUNDS = 5;
+    private static final List<String> METHODS = List.of(
+            "CommandService.processCommand", "CommandService.enqueueCommand",
+            "SyntheticRestController.sendCommand", "SyntheticRestController.getStatus");
+
+    ObjectMapper objectMapper = new SyntheticConfig().objectMapper();
+
+    @Test
+    void binaryRecordsAreSmallerThanJson() throws Exception {
+        BinaryAuditRecordEncoder encoder = new BinaryAuditRecordEncoder();
+
+        for (AuditDTO record : records().subList(0, 100)) {
+            assertThat(encoder.encode(record).length)
+                    .isLessThan(objectMapper.writeValueAsString(record).getBytes(StandardCharsets.UTF_8).length);
+        }
+    }
+
+    // Замер пропускной способности запускается только профилем benchmarks
+    @Test
+    @Tag("benchmark")
+    void binaryEncodingCost() throws Exception {
+        List<AuditDTO> records = records();
+
+        long jsonBytes = 0;
+        long binaryBytes = 0;
+        long jsonNanos = Long.MAX_VALUE;
+        long binaryNanos = Long.MAX_VALUE;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long bytes = 0;
+            for (AuditDTO record : records) {
+                bytes += objectMapper.writeValueAsString(record).getBytes(StandardCharsets.UTF_8).length;
+            }
+            jsonNanos = Math.min(jsonNanos, System.nanoTime() - start);
+            jsonBytes = bytes;
+
+            BinaryAuditRecordEncoder encoder = new BinaryAuditRecordEncoder();
+            start = System.nanoTime();
+            bytes = 0;
+            for (AuditDTO record : records) {
+                bytes += encoder.encode(record).length;
+            }
+            binaryNanos = Math.min(binaryNanos, System.nanoTime() - start);
+            binaryBytes = bytes;
+        }
+
+        log.info("Аудит JSON: {} байт/зап, {} нс/зап; двоичный: {} байт/зап, {} нс/зап",
+                jsonBytes / RECORDS, jsonNanos / RECORDS, binaryBytes / RECORDS, binaryNanos / RECORDS);
+    }
+
+    @Test
+    void decoderRestoresEncodedRecords() {
+        BinaryAuditRecordEncoder encoder = new BinaryAuditRecordEncoder();
+        BinaryAuditRecordDecoder decoder = new BinaryAuditRecordDecoder();
+
+        for (AuditDTO record : records().subList(0, 100)) {
+            AuditDTO decoded = decoder.decode(encoder.encode(record), record.methodName());
+            assertThat(decoded).isEqualTo(AuditDTO.builder()
+                    .timestamp(record.timestamp().truncatedTo(ChronoUnit.MILLIS))
+                    .methodName(record.methodName())
+                    .description(record.description())
+                    .parameters(record.parameters())
+                    .result(record.result())
+                    .status(record.status())
+                    .errorMessage(record.errorMessage())
+                    .executionTimeMs(record.executionTimeMs())
+                    .level(record.level())
+                    .build());
+        }
+    }
+
+    @Test
+    void recordsFromDifferentProducersDecodeWithOneDecoder() {
+        BinaryAuditRecordEncoder first = new BinaryAuditRecordEncoder();
+        BinaryAuditRecordEncoder second = new BinaryAuditRecordEncoder();
+        BinaryAuditRecordDecoder decoder = new BinaryAuditRecordDecoder();
+        List<AuditDTO> records = records().subList(0, 8);
+
+        for (int i = 0; i < records.size(); i++) {
+            AuditDTO record = records.get(i);
+            byte[] payload = (i % 2 == 0 ? first : second).encode(record);
+
+            assertThat(decoder.decode(payload, null).methodName()).isEqualTo(record.methodName());
+        }
+    }
+
+    @Test
+    void spanNamesDoNotDependOnEarlierRecords() {
+        BinaryAuditRecordEncoder encoder = new BinaryAuditRecordEncoder();
+        AuditDTO record = records().getFirst().toBuilder()
+                .spans(List.of(
+                        new AuditSpanDTO("CommandService.getCommand", "SUCCESS", null, 10, 20, null),
+                        new AuditSpanDTO(records().getFirst().methodName(), "SUCCESS", null, 40, 15, List.of(
+                                new AuditSpanDTO("CommandService.getCommand", "SUCCESS", null, 45, 5, null)))))
+                .build();
+        encoder.encode(record);
+
+        AuditDTO decoded = new BinaryAuditRecordDecoder().decode(encoder.encode(record), null);
+
+        assertThat(decoded.spans()).extracting(AuditSpanDTO::methodName)
+                .containsExactly("CommandService.getCommand", record.methodName());
+        assertThat(decoded.spans().get(1).children()).extracting(AuditSpanDTO::methodName)
+                .containsExactly("CommandService.getCommand");
+    }
+
+    @Test
+    void decoderRestoresChildSpans() {
+        BinaryAuditRecordEncoder encoder = new BinaryAuditRecordEncoder();
+        TraceContext trace = TraceContext.newRoot();
+        AuditDTO record = records().get(1).toBuilder()
+                .timestamp(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS))
+                .spans(List.of(
+                        new AuditSpanDTO("BishopPrototypeService.checkPowerCore", "SUCCESS", null, 120, 4_300, List.of(
+                                new AuditSpanDTO("CommandService.processCommand", "FAILED", "Очередь команд переполнена",
+                                        180, 950, null))),
+                        new AuditSpanDTO("CommandService.getCommand", "TIMEOUT", null, 4_500, 35, null)))
+                .traceId(trace.traceId())
+                .spanId(trace.spanId())
+                .build();
+
+        AuditDTO decoded = new BinaryAuditRecordDecoder().decode(encoder.encode(record), record.methodName());
+
+        assertThat(decoded).isEqualTo(record);
+        assertThat(BinaryAuditRecordDecoder.supports("binary-v1")).isTrue();
+        assertThat(BinaryAuditRecordDecoder.supports(encoder.format())).isTrue();
+    }
+
+    private static List<AuditDTO> records() {
+        List<AuditDTO> records = new ArrayList<>(RECORDS);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < RECORDS; i++) {
+            boolean failed = i % 10 == 0;
+            records.add(AuditDTO.builder()
+                    .timestamp(now.plusNanos(i * 1_000_000L))
+                    .methodName(METHODS.get(i % METHODS.size()))
+                    .description("Обработка команды синтетика")
+                    .parameters("[{\"id\":\"" + i + "\",\"description\":\"Проверка систем\",\"priority\":\"COMMON\",\"author\":\"Bishop\"}]")
+                    .result(failed ? null : "\"Команда добавлена в очередь выполнения: " + i + "\"")
+                    .status(failed ? "FAILED" : "SUCCESS")
+                    .errorMessage(failed ? "Очередь команд переполнена" : null)
+                    .executionTimeMs(i % 200)
+                    .level(AuditLevel.values()[i % AuditLevel.values().length])
+                    .build());
+        }
+        return records;
+    }
+}
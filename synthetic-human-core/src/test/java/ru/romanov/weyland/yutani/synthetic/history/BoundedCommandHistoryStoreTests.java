@@ -0,0 +1,120 @@
+package ru.romanov.weyland.yutani.synthetic.history;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedCommandHistoryStoreTests {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    List<String> evicted = new CopyOnWriteArrayList<>();
+
+    @Test
+    void sizeBoundEvictsOnlyTerminalCommandsInCompletionOrder() {
+        BoundedCommandHistoryStore store = store(2, Duration.ofHours(1));
+        Command first = command("first");
+        Command second = command("second");
+        Command third = command("third");
+
+        store.put(first);
+        store.put(second);
+        store.put(third);
+        assertThat(store.size()).isEqualTo(3);
+        assertThat(evicted).isEmpty();
+
+        store.markTerminal(second);
+        assertThat(evicted).containsExactly("second");
+
+        store.markTerminal(first);
+        assertThat(store.get("first")).isSameAs(first);
+
+        store.put(command("fourth"));
+        assertThat(evicted).containsExactly("second", "first");
+        assertThat(store.get("third")).isSameAs(third);
+        assertThat(evictions("size")).isEqualTo(2);
+    }
+
+    @Test
+    void pendingCommandsAreNeverEvicted() {
+        BoundedCommandHistoryStore store = store(1, Duration.ZERO);
+
+        store.put(command("first"));
+        store.put(command("second"));
+        store.sweep();
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(evicted).isEmpty();
+    }
+
+    @Test
+    void sweepEvictsExpiredCommandsWithoutNewTraffic() throws InterruptedException {
+        BoundedCommandHistoryStore store = store(100, Duration.ofMillis(20));
+        Command command = command("expired");
+        store.put(command);
+        store.markTerminal(command);
+        assertThat(store.get("expired")).isSameAs(command);
+
+        Thread.sleep(40);
+        store.sweep();
+
+        assertThat(store.get("expired")).isNull();
+        assertThat(evicted).containsExactly("expired");
+        assertThat(evictions("ttl")).isEqualTo(1);
+    }
+
+    @Test
+    void sweeperRunsOnSchedule() throws InterruptedException {
+        BoundedCommandHistoryStore store = store(100, Duration.ofMillis(10));
+        store.startSweeper(Duration.ofMillis(10));
+        try {
+            Command command = command("scheduled");
+            store.put(command);
+            store.markTerminal(command);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (store.size() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(store.size()).isZero();
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void terminalListenersRunBeforeEviction() {
+        BoundedCommandHistoryStore store = store(0, Duration.ofHours(1));
+        List<String> order = new CopyOnWriteArrayList<>();
+        store.onTerminal(command -> order.add("terminal:" + command.getId()));
+        store.onEviction(command -> order.add("evicted:" + command.getId()));
+
+        Command command = command("done");
+        store.put(command);
+        store.markTerminal(command);
+
+        assertThat(order).containsExactly("terminal:done", "evicted:done");
+    }
+
+    private BoundedCommandHistoryStore store(int maxSize, Duration ttl) {
+        BoundedCommandHistoryStore store = new BoundedCommandHistoryStore(maxSize, ttl, meterRegistry);
+        store.onEviction(command -> evicted.add(command.getId()));
+        return store;
+    }
+
+    private double evictions(String reason) {
+        return meterRegistry.get("synthetic.history.evictions").tag("reason", reason).counter().count();
+    }
+
+    private static Command command(String id) {
+        return new Command(id, "Проверка систем", Priority.COMMON, "Bishop", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,85 @@
+package ru.romanov.weyland.yutani.synthetic.history;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.model.CommandStatus;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommandStatusIndexTests {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void transitionsMoveCountsAndIdsBetweenStatuses() {
+        CommandStatusIndex index = new CommandStatusIndex(true, meterRegistry);
+        Command first = command("first");
+        Command second = command("second");
+
+        index.onAdded(first);
+        index.onAdded(second);
+        assertThat(index.count(CommandStatus.PENDING)).isEqualTo(2);
+        assertThat(index.countActive()).isEqualTo(2);
+
+        index.onTransition(first, CommandStatus.PENDING, CommandStatus.EXECUTING);
+        index.onTransition(first, CommandStatus.EXECUTING, CommandStatus.COMPLETED);
+        first.setStatus(CommandStatus.COMPLETED);
+
+        assertThat(index.count(CommandStatus.PENDING)).isEqualTo(1);
+        assertThat(index.count(CommandStatus.EXECUTING)).isZero();
+        assertThat(index.count(CommandStatus.COMPLETED)).isEqualTo(1);
+        assertThat(index.countActive()).isEqualTo(1);
+        assertThat(index.ids(CommandStatus.COMPLETED)).containsExactly("first");
+        assertThat(index.ids(CommandStatus.PENDING)).containsExactly("second");
+        assertThat(gauge(CommandStatus.COMPLETED)).isEqualTo(1);
+    }
+
+    @Test
+    void sameStatusTransitionIsIgnored() {
+        CommandStatusIndex index = new CommandStatusIndex(true, meterRegistry);
+        Command command = command("same");
+
+        index.onAdded(command);
+        index.onTransition(command, CommandStatus.PENDING, CommandStatus.PENDING);
+
+        assertThat(index.count(CommandStatus.PENDING)).isEqualTo(1);
+        assertThat(index.ids(CommandStatus.PENDING)).containsExactly("same");
+    }
+
+    @Test
+    void removalUsesCurrentStatus() {
+        CommandStatusIndex index = new CommandStatusIndex(true, meterRegistry);
+        Command command = command("evicted");
+        index.onAdded(command);
+        index.onTransition(command, CommandStatus.PENDING, CommandStatus.FAILED);
+        command.setStatus(CommandStatus.FAILED);
+
+        index.onRemoved(command);
+
+        assertThat(index.count(CommandStatus.FAILED)).isZero();
+        assertThat(index.ids(CommandStatus.FAILED)).isEmpty();
+        assertThat(gauge(CommandStatus.FAILED)).isZero();
+    }
+
+    @Test
+    void idsAreNotTrackedWhenDisabled() {
+        CommandStatusIndex index = new CommandStatusIndex(false, meterRegistry);
+        index.onAdded(command("untracked"));
+
+        assertThat(index.isTrackingIds()).isFalse();
+        assertThat(index.count(CommandStatus.PENDING)).isEqualTo(1);
+        assertThat(index.ids(CommandStatus.PENDING)).isEmpty();
+    }
+
+    private double gauge(CommandStatus status) {
+        return meterRegistry.get("synthetic.commands.by.status").tag("status", status.name()).gauge().value();
+    }
+
+    private static Command command(String id) {
+        return new Command(id, "Проверка систем", Priority.COMMON, "Bishop", LocalDateTime.now());
+    }
+}
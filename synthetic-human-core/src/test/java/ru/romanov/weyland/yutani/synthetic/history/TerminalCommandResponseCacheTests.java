@@ -0,0 +1,84 @@
+package ru.romanov.weyland.yutani.synthetic.history;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.romanov.weyland.yutani.synthetic.config.SyntheticConfig;
+import ru.romanov.weyland.yutani.synthetic.history.TerminalCommandResponseCache.CachedResponse;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.model.CommandStatus;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TerminalCommandResponseCacheTests {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    TerminalCommandResponseCache cache = new TerminalCommandResponseCache(new SyntheticConfig().objectMapper(), meterRegistry);
+
+    @Test
+    void nonTerminalCommandsBypassCache() {
+        Command command = command("active");
+
+        assertThat(cache.get("active", _ -> command)).isNull();
+        assertThat(lookups("bypass")).isEqualTo(1);
+    }
+
+    @Test
+    void terminalCommandIsSerializedOnce() {
+        Command command = command("done");
+        command.setStatus(CommandStatus.COMPLETED);
+        AtomicInteger loads = new AtomicInteger();
+        cache.onTerminal(command);
+
+        CachedResponse first = cache.get("done", _ -> {
+            loads.incrementAndGet();
+            return command;
+        });
+        CachedResponse second = cache.get("done", _ -> {
+            loads.incrementAndGet();
+            return command;
+        });
+
+        assertThat(first).isNotNull().isSameAs(second);
+        assertThat(first.etag()).matches("\"[0-9a-f]{32}\"");
+        assertThat(loads).hasValue(1);
+        assertThat(lookups("miss")).isEqualTo(1);
+        assertThat(lookups("hit")).isEqualTo(1);
+        assertThat(cache.hitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    void evictedCommandLeavesCache() {
+        Command command = command("evicted");
+        cache.onTerminal(command);
+        cache.onEvicted(command);
+
+        assertThat(cache.get("evicted", _ -> command)).isNull();
+        assertThat(meterRegistry.get("synthetic.command.response.cache.size").gauge().value()).isZero();
+    }
+
+    @Test
+    void ifNoneMatchUsesWeakComparison() {
+        CachedResponse response = new CachedResponse(new byte[]{1}, "\"abc\"");
+
+        assertThat(response.matches("\"abc\"")).isTrue();
+        assertThat(response.matches("W/\"abc\"")).isTrue();
+        assertThat(response.matches("\"xyz\", W/\"abc\"")).isTrue();
+        assertThat(response.matches("*")).isTrue();
+        assertThat(response.matches("\"xyz\"")).isFalse();
+        assertThat(response.matches("abc")).isFalse();
+        assertThat(response.matches(" ")).isFalse();
+        assertThat(response.matches(null)).isFalse();
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("synthetic.command.response.cache.requests").tag("result", result).counter().count();
+    }
+
+    private static Command command(String id) {
+        return new Command(id, "Проверка систем", Priority.COMMON, "Bishop", LocalDateTime.now());
+    }
+}
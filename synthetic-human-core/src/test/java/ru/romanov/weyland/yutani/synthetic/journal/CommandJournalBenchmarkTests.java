@@ -0,0 +1,185 @@
+package ru.romanov.weyland.yutani.synthetic.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.model.CommandStatus;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+import ru.romanov.weyland.yutani.synthetic.service.CommandService;
+import ru.romanov.weyland.yutani.synthetic.service.CommandServiceFixture;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommandJournalBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(CommandJournalBenchmarkTests.class);
+
+    private static final int THREADS = 8;
+    private static final int COMMANDS_PER_THREAD = 2_000;
+    private static final int SEGMENT_SIZE = 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void concurrentAppendsAreAllReplayed() throws Exception {
+        Path journalDirectory = directory.resolve("concurrent");
+        CommandJournal journal = newJournal(journalDirectory);
+        journal.replay();
+        journal.start();
+        try {
+            measure(command -> journal.appendAccepted(List.of(command)).get(5, TimeUnit.SECONDS));
+        } finally {
+            journal.close();
+        }
+
+        CommandJournal reopened = newJournal(journalDirectory);
+        try {
+            assertThat(reopened.replay()).hasSize(THREADS * COMMANDS_PER_THREAD);
+        } finally {
+            reopened.close();
+        }
+    }
+
+    // Замер пропускной способности запускается только профилем benchmarks
+    @Test
+    @Tag("benchmark")
+    void groupCommitThroughput() throws Exception {
+        double baseline = measure(_ -> {});
+
+        CommandJournal journal = newJournal(directory.resolve("bench"));
+        journal.replay();
+        journal.start();
+        double journaled;
+        try {
+            journaled = measure(command -> journal.appendAccepted(List.of(command)).get(5, TimeUnit.SECONDS));
+        } finally {
+            journal.close();
+        }
+
+        log.info("Журнал команд: без журнала {} ком/с, с durable-accept {} ком/с ({} потоков)",
+                Math.round(baseline), Math.round(journaled), THREADS);
+        assertThat(journaled).isPositive();
+    }
+
+    @Test
+    void replayReturnsOnlyUnfinishedCommands() throws Exception {
+        Path journalDirectory = directory.resolve("replay");
+        CommandJournal journal = newJournal(journalDirectory);
+        journal.replay();
+        journal.start();
+
+        List<Command> commands = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            commands.add(newCommand(i));
+        }
+        journal.appendAccepted(commands).get(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 50; i++) {
+            journal.appendStatus(commands.get(i).getId(), CommandStatus.EXECUTING);
+            journal.appendStatus(commands.get(i).getId(), CommandStatus.COMPLETED);
+        }
+        journal.appendStatus(commands.get(50).getId(), CommandStatus.EXECUTING);
+        journal.close();
+
+        CommandJournal reopened = newJournal(journalDirectory);
+        try {
+            List<Command> recovered = reopened.replay();
+
+            assertThat(recovered).extracting(Command::getId)
+                    .containsExactlyElementsOf(commands.subList(50, 100).stream().map(Command::getId).toList());
+            assertThat(recovered).allMatch(command -> command.getStatus() == CommandStatus.PENDING);
+        } finally {
+            reopened.close();
+        }
+    }
+
+    // Остановка прерывает выполняющуюся команду: терминальный статус не журналируется, и команда повторяется
+    @Test
+    void commandInterruptedByShutdownIsReplayed() throws Exception {
+        Path journalDirectory = directory.resolve("shutdown");
+        CommandJournal journal = newJournal(journalDirectory);
+        CommandServiceFixture fixture = new CommandServiceFixture().withJournal(journal);
+        Command command = CommandServiceFixture.command("interrupted", "Bishop", Priority.COMMON);
+        try {
+            CommandService service = fixture.start();
+            service.submitCommand(command, null);
+            awaitStatus(command, CommandStatus.EXECUTING);
+
+            fixture.stop();
+            awaitStatus(command, CommandStatus.FAILED);
+        } finally {
+            fixture.stop();
+            journal.close();
+        }
+
+        CommandJournal reopened = newJournal(journalDirectory);
+        try {
+            assertThat(reopened.replay())
+                    .singleElement()
+                    .satisfies(recovered -> {
+                        assertThat(recovered.getId()).isEqualTo("interrupted");
+                        assertThat(recovered.getStatus()).isEqualTo(CommandStatus.PENDING);
+                    });
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private double measure(CommandSink sink) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < COMMANDS_PER_THREAD; i++) {
+                        sink.accept(newCommand(thread * COMMANDS_PER_THREAD + i));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            return THREADS * COMMANDS_PER_THREAD / seconds;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitStatus(Command command, CommandStatus status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (command.getStatus() != status && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(command.getStatus()).isEqualTo(status);
+    }
+
+    private CommandJournal newJournal(Path path) throws Exception {
+        return new CommandJournal(path, SEGMENT_SIZE, 512, true, new SimpleMeterRegistry());
+    }
+
+    private static Command newCommand(int number) {
+        return new Command(String.format("Тестовая команда #%d", number), Priority.COMMON, "Bishop", LocalDateTime.now());
+    }
+
+    @FunctionalInterface
+    private interface CommandSink {
+        void accept(Command command) throws Exception;
+    }
+}
@@ -0,0 +1,303 @@
+package ru.romanov.weyland.yutani.synthetic.rest.out;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.romanov.weyland.yutani.synthetic.audit.AuditFileStore;
+import ru.romanov.weyland.yutani.synthetic.config.SyntheticConfig;
+import ru.romanov.weyland.yutani.synthetic.dto.CommandStatusEventDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.CommandSubmissionDTO;
+import ru.romanov.weyland.yutani.synthetic.exception.CommandAdmissionRejectedException;
+import ru.romanov.weyland.yutani.synthetic.exception.CommandIdConflictException;
+import ru.romanov.weyland.yutani.synthetic.exception.CommandQueueOverflowException;
+import ru.romanov.weyland.yutani.synthetic.history.TerminalCommandResponseCache.CachedResponse;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.model.CommandStatus;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+import ru.romanov.weyland.yutani.synthetic.rest.advice.GlobalExceptionHandler;
+import ru.romanov.weyland.yutani.synthetic.service.CommandEventStreamService;
+import ru.romanov.weyland.yutani.synthetic.service.CommandService;
+import ru.romanov.weyland.yutani.synthetic.service.CommandServiceFixture;
+import ru.romanov.weyland.yutani.synthetic.service.SyntheticMetricsSnapshotService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class SyntheticRestControllerTests {
+
+    private static final String BASE_PATH = "/api/v1/synthetic";
+    private static final String COMMAND_JSON = """
+            {"description": "Проверка систем", "priority": "COMMON", "author": "Bishop"}
+            """;
+    private static final String ETAG = "\"4bf92f3577b34da6a3ce929d0e0e4736\"";
+
+    ObjectMapper objectMapper = new SyntheticConfig().objectMapper();
+    CommandService commandService = mock(CommandService.class);
+    SyntheticMetricsSnapshotService metricsSnapshotService = mock(SyntheticMetricsSnapshotService.class);
+    AuditFileStore auditFileStore = null;
+    CommandEventStreamService eventStreamService = new CommandEventStreamService(Duration.ofSeconds(5), 100);
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = buildMockMvc(commandService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventStreamService.destroy();
+    }
+
+    @Test
+    void eventStreamEmitsCurrentStatusAndCompletesOnTerminalEvent() throws Exception {
+        Command command = command("streamed");
+        when(commandService.getCommand("streamed")).thenReturn(command);
+
+        MvcResult result = mockMvc.perform(get(BASE_PATH + "/command/streamed/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        eventStreamService.onStatusChanged(new CommandStatusEventDTO(
+                "streamed", CommandStatus.PENDING, CommandStatus.EXECUTING, LocalDateTime.now()));
+        eventStreamService.onStatusChanged(new CommandStatusEventDTO(
+                "streamed", CommandStatus.EXECUTING, CommandStatus.COMPLETED, LocalDateTime.now()));
+
+        result.getAsyncResult(5_000);
+        String body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(body)
+                .contains("id:streamed:PENDING")
+                .contains("id:streamed:EXECUTING")
+                .contains("id:streamed:COMPLETED")
+                .contains("event:status");
+    }
+
+    @Test
+    void eventStreamForUnknownCommandIsNotFound() throws Exception {
+        mockMvc.perform(get(BASE_PATH + "/command/missing/events"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void longPollReturnsCommandOnceItCompletes() throws Exception {
+        Command command = command("awaited");
+        CompletableFuture<Command> completion = new CompletableFuture<>();
+        when(commandService.getCommand("awaited")).thenReturn(command);
+        when(commandService.awaitCompletion("awaited")).thenReturn(completion);
+
+        MvcResult result = mockMvc.perform(get(BASE_PATH + "/command/awaited").param("waitMs", "10000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        Command completed = command("awaited");
+        completed.setStatus(CommandStatus.COMPLETED);
+        completion.complete(completed);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("awaited"))
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    // Ожидающий получает команду в момент перехода в терминальный статус: результат должен быть уже записан
+    @Test
+    void longPollBodyContainsExecutionResult() throws Exception {
+        CommandServiceFixture fixture = new CommandServiceFixture();
+        try {
+            CommandService service = fixture.start();
+            MockMvc realMockMvc = buildMockMvc(service);
+            service.submitCommand(CommandServiceFixture.command("critical", "Bishop", Priority.CRITICAL), null);
+
+            MvcResult result = realMockMvc.perform(get(BASE_PATH + "/command/critical").param("waitMs", "10000"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            realMockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value("COMPLETED"))
+                    .andExpect(jsonPath("$.executionResult").value("КРИТИЧЕСКАЯ КОМАНДА ВЫПОЛНЕНА: Проверка систем"))
+                    .andExpect(jsonPath("$.executedAt").isNotEmpty());
+        } finally {
+            fixture.stop();
+        }
+    }
+
+    @Test
+    void longPollReturnsCurrentStateWhenWaitExpires() throws Exception {
+        Command command = command("slow");
+        when(commandService.getCommand("slow")).thenReturn(command);
+        when(commandService.awaitCompletion("slow")).thenReturn(new CompletableFuture<>());
+
+        MvcResult result = mockMvc.perform(get(BASE_PATH + "/command/slow").param("waitMs", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    void longPollForUnknownCommandIsNotFound() throws Exception {
+        MvcResult result = mockMvc.perform(get(BASE_PATH + "/command/missing").param("waitMs", "10"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void admissionRejectionIsTooManyRequestsWithRetryAfter() throws Exception {
+        when(commandService.submitCommand(any(Command.class), isNull()))
+                .thenThrow(new CommandAdmissionRejectedException("Очередь не успеет разобраться", Duration.ofSeconds(7)));
+
+        mockMvc.perform(post(BASE_PATH + "/command")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(COMMAND_JSON))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"))
+                .andExpect(jsonPath("$.code").value("ADMISSION_REJECTED"));
+    }
+
+    @Test
+    void queueOverflowIsServiceUnavailableWithRetryAfter() throws Exception {
+        when(commandService.submitCommand(any(Command.class), isNull()))
+                .thenThrow(new CommandQueueOverflowException("Очередь команд переполнена", Duration.ofSeconds(3)));
+
+        mockMvc.perform(post(BASE_PATH + "/command")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(COMMAND_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"))
+                .andExpect(jsonPath("$.code").value("QUEUE_OVERFLOW"));
+    }
+
+    @Test
+    void clientIdConflictIsConflict() throws Exception {
+        when(commandService.submitCommand(any(Command.class), isNull()))
+                .thenThrow(new CommandIdConflictException("Идентификатор команды уже занят другим автором"));
+
+        mockMvc.perform(post(BASE_PATH + "/command")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(COMMAND_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.code").value("COMMAND_ID_CONFLICT"));
+    }
+
+    @Test
+    void replayedSubmissionIsOkWithReplayHeader() throws Exception {
+        Command original = command("replayed");
+        when(commandService.submitCommand(any(Command.class), eq("key-1")))
+                .thenReturn(new CommandSubmissionDTO(original, true, "Команда уже принята ранее"));
+
+        mockMvc.perform(post(BASE_PATH + "/command")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(COMMAND_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.commandId").value("replayed"));
+    }
+
+    @Test
+    void terminalCommandIsServedFromCacheWithETag() throws Exception {
+        when(commandService.getCachedCommandResponse("done")).thenReturn(cachedResponse("done"));
+
+        mockMvc.perform(get(BASE_PATH + "/command/done"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(jsonPath("$.id").value("done"))
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws Exception {
+        when(commandService.getCachedCommandResponse("done")).thenReturn(cachedResponse("done"));
+
+        for (String ifNoneMatch : new String[]{ETAG, "W/" + ETAG, "\"other\", " + ETAG, "*"}) {
+            MvcResult result = mockMvc.perform(get(BASE_PATH + "/command/done")
+                            .header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                    .andReturn();
+            assertThat(result.getResponse().getContentAsByteArray()).isEmpty();
+        }
+    }
+
+    @Test
+    void staleIfNoneMatchReturnsBody() throws Exception {
+        when(commandService.getCachedCommandResponse("done")).thenReturn(cachedResponse("done"));
+
+        mockMvc.perform(get(BASE_PATH + "/command/done").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(jsonPath("$.id").value("done"));
+    }
+
+    @Test
+    void activeCommandIsServedWithoutETag() throws Exception {
+        when(commandService.getCommand("active")).thenReturn(command("active"));
+
+        mockMvc.perform(get(BASE_PATH + "/command/active").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.id").value("active"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    void unknownCommandIsNotFound() throws Exception {
+        mockMvc.perform(get(BASE_PATH + "/command/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    private MockMvc buildMockMvc(CommandService service) {
+        SyntheticRestController controller = new SyntheticRestController(
+                service, eventStreamService, metricsSnapshotService, auditFileStore);
+        ReflectionTestUtils.setField(controller, "maxLongPollWait", Duration.ofSeconds(30));
+
+        return MockMvcBuilders.standaloneSetup(controller)
+                .setMessageConverters(
+                        new ByteArrayHttpMessageConverter(),
+                        new StringHttpMessageConverter(StandardCharsets.UTF_8),
+                        new MappingJackson2HttpMessageConverter(objectMapper))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private CachedResponse cachedResponse(String id) throws Exception {
+        Command command = command(id);
+        command.setStatus(CommandStatus.COMPLETED);
+        return new CachedResponse(objectMapper.writeValueAsBytes(command), ETAG);
+    }
+
+    private static Command command(String id) {
+        return new Command(id, "Проверка систем", Priority.COMMON, "Bishop", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,137 @@
+package ru.romanov.weyland.yutani.synthetic.scheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommandSchedulerTests {
+
+    List<String> executed = new CopyOnWriteArrayList<>();
+    List<String> rejected = new CopyOnWriteArrayList<>();
+    CountDownLatch gate = new CountDownLatch(1);
+    CommandScheduler scheduler;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        gate.countDown();
+        if (scheduler != null) {
+            scheduler.shutdown(Duration.ofSeconds(1));
+        }
+    }
+
+    @Test
+    void criticalLaneIsServedBeforeCommon() throws Exception {
+        scheduler = scheduler(Executors.newFixedThreadPool(1), Duration.ofMinutes(1), 10, this::blockOnFirst);
+
+        scheduler.offer(command("first", Priority.COMMON));
+        awaitExecuted(1);
+        scheduler.offer(command("common", Priority.COMMON));
+        scheduler.offer(command("critical", Priority.CRITICAL));
+        gate.countDown();
+
+        awaitExecuted(3);
+        assertThat(executed).containsExactly("first", "critical", "common");
+    }
+
+    @Test
+    void agedCommonCommandOvertakesCritical() throws Exception {
+        scheduler = scheduler(Executors.newFixedThreadPool(1), Duration.ZERO, 10, this::blockOnFirst);
+
+        scheduler.offer(command("first", Priority.COMMON));
+        awaitExecuted(1);
+        scheduler.offer(command("critical", Priority.CRITICAL));
+        scheduler.offer(command("common", Priority.COMMON));
+        gate.countDown();
+
+        awaitExecuted(3);
+        assertThat(executed).containsExactly("first", "common", "critical");
+    }
+
+    @Test
+    void fullLaneRejectsOffer() throws Exception {
+        scheduler = scheduler(Executors.newFixedThreadPool(1), Duration.ofMinutes(1), 1, this::blockOnFirst);
+
+        assertThat(scheduler.offer(command("first", Priority.COMMON))).isTrue();
+        awaitExecuted(1);
+        assertThat(scheduler.offer(command("queued", Priority.COMMON))).isTrue();
+        assertThat(scheduler.offer(command("overflow", Priority.COMMON))).isFalse();
+
+        boolean[] accepted = scheduler.offerAll(List.of(command("batch-common", Priority.COMMON),
+                command("batch-critical", Priority.CRITICAL)));
+        assertThat(accepted).containsExactly(false, true);
+    }
+
+    @Test
+    void rejectedDispatchCompletesCommandAndReleasesWorker() throws Exception {
+        ExecutorService closed = Executors.newSingleThreadExecutor();
+        closed.shutdown();
+        scheduler = scheduler(closed, Duration.ofMinutes(1), 10, command -> executed.add(command.getDescription()));
+
+        scheduler.offer(command("lost", Priority.COMMON));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.getPendingCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(rejected).containsExactly("lost");
+        assertThat(executed).isEmpty();
+        assertThat(scheduler.getPendingCount()).isZero();
+        assertThat(scheduler.getBusyWorkers()).isZero();
+    }
+
+    private void blockOnFirst(Command command) {
+        executed.add(command.getDescription());
+        if (command.getDescription().equals("first")) {
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void awaitExecuted(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executed.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(executed).hasSizeGreaterThanOrEqualTo(count);
+    }
+
+    private CommandScheduler scheduler(ExecutorService workers, Duration agingThreshold, int capacity,
+                                       Consumer<Command> task) {
+        CommandScheduler created = CommandScheduler.builder()
+                .workers(workers)
+                .workerCount(1)
+                .reservedCriticalWorkers(0)
+                .criticalCapacity(capacity)
+                .commonCapacity(capacity)
+                .agingThreshold(agingThreshold)
+                .initialServiceTime(Duration.ofMillis(10))
+                .task(task)
+                .rejectedTask(command -> rejected.add(command.getDescription()))
+                .meterRegistry(new SimpleMeterRegistry())
+                .build();
+        created.start();
+        return created;
+    }
+
+    // Описание служит меткой команды в проверках порядка
+    private static Command command(String label, Priority priority) {
+        return new Command(label, priority, "Bishop", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,164 @@
+package ru.romanov.weyland.yutani.synthetic.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.romanov.weyland.yutani.synthetic.admission.AuthorRateLimiter;
+import ru.romanov.weyland.yutani.synthetic.dto.response.BatchCommandItemDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.response.BatchCommandSummaryDTO;
+import ru.romanov.weyland.yutani.synthetic.exception.CommandValidationException;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.model.CommandStatus;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CommandServiceBatchTests {
+
+    CommandServiceFixture fixture = new CommandServiceFixture();
+
+    @AfterEach
+    void tearDown() {
+        fixture.stop();
+    }
+
+    @Test
+    void invalidItemsAreRejectedWithoutFailingTheBatch() {
+        CommandService service = fixture.start();
+        Command blank = CommandServiceFixture.command("blank", "Bishop", Priority.COMMON);
+        blank.setDescription(" ");
+
+        List<BatchCommandItemDTO> items = service.processCommandBatch(Arrays.asList(
+                CommandServiceFixture.command("first", "Bishop", Priority.COMMON),
+                null,
+                blank,
+                CommandServiceFixture.command("second", "Bishop", Priority.CRITICAL)));
+
+        assertThat(items).extracting(BatchCommandItemDTO::index).containsExactly(0, 1, 2, 3);
+        assertThat(items).extracting(BatchCommandItemDTO::status)
+                .containsExactly("ACCEPTED", "REJECTED", "REJECTED", "ACCEPTED");
+        assertThat(items.get(1).code()).isEqualTo("VALIDATION_ERROR");
+        assertThat(items.get(2).code()).isEqualTo("VALIDATION_ERROR");
+        assertThat(items.get(2).message()).contains("description");
+        assertThat(service.getCommand("blank")).isNull();
+        assertThat(batchItems("accepted")).isEqualTo(2);
+        assertThat(batchItems("rejected")).isEqualTo(2);
+    }
+
+    @Test
+    void summaryCountsRejectedItemsByCode() {
+        CommandService service = fixture.start();
+        service.submitCommand(CommandServiceFixture.command("known", "Bishop", Priority.COMMON), null);
+
+        List<BatchCommandItemDTO> items = service.processCommandBatch(Arrays.asList(
+                CommandServiceFixture.command("first", "Bishop", Priority.COMMON),
+                null,
+                CommandServiceFixture.command("first", "Bishop", Priority.COMMON),
+                CommandServiceFixture.command("known", "Bishop", Priority.COMMON),
+                null));
+
+        BatchCommandSummaryDTO summary = service.summarizeBatch(items);
+
+        assertThat(summary.total()).isEqualTo(5);
+        assertThat(summary.accepted()).isEqualTo(1);
+        assertThat(summary.rejected()).isEqualTo(4);
+        assertThat(summary.rejectedByCode()).containsExactly(
+                Map.entry("DUPLICATE", 1),
+                Map.entry("DUPLICATE_IN_BATCH", 1),
+                Map.entry("VALIDATION_ERROR", 2));
+    }
+
+    // Оффер пакета идет под одной блокировкой, поэтому в полосу на одно место попадает ровно одна команда
+    @Test
+    void overflowRejectsOnlyItemsThatDoNotFit() {
+        CommandService service = fixture
+                .with(settings -> settings.maxPoolSize(1).maxQueueSize(1))
+                .start();
+
+        List<Command> commands = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            commands.add(CommandServiceFixture.command("common-" + i, "Bishop", Priority.COMMON));
+        }
+
+        List<BatchCommandItemDTO> items = service.processCommandBatch(commands);
+
+        assertThat(items.getFirst().isAccepted()).isTrue();
+        assertThat(items.subList(1, items.size()))
+                .allSatisfy(item -> assertThat(item.code()).isEqualTo("QUEUE_OVERFLOW"));
+        assertThat(commands.subList(1, commands.size()))
+                .allSatisfy(command -> {
+                    assertThat(command.getStatus()).isEqualTo(CommandStatus.FAILED);
+                    assertThat(command.getExecutionResult()).startsWith("ОТКЛОНЕНА");
+                });
+    }
+
+    @Test
+    void rateLimitedItemsAreRejectedPerAuthor() {
+        fixture.rateLimiter = new AuthorRateLimiter(true, 1, Map.of(),
+                Duration.ofMinutes(1), Duration.ofMinutes(10), fixture.meterRegistry);
+        CommandService service = fixture.start();
+
+        List<BatchCommandItemDTO> items = service.processCommandBatch(List.of(
+                CommandServiceFixture.command("Bishop", Priority.CRITICAL),
+                CommandServiceFixture.command("Bishop", Priority.CRITICAL),
+                CommandServiceFixture.command("Ash", Priority.CRITICAL)));
+
+        assertThat(items).extracting(BatchCommandItemDTO::status)
+                .containsExactly("ACCEPTED", "REJECTED", "ACCEPTED");
+        assertThat(items.get(1).code()).isEqualTo("RATE_LIMITED");
+    }
+
+    @Test
+    void admissionRejectedItemsDoNotConsumeAuthorQuota() {
+        fixture.rateLimiter = new AuthorRateLimiter(true, 1, Map.of(),
+                Duration.ofMinutes(1), Duration.ofMinutes(10), fixture.meterRegistry);
+        CommandService service = fixture
+                .with(settings -> settings.admissionEnabled(true).drainTimeSlo(Duration.ZERO))
+                .start();
+
+        List<BatchCommandItemDTO> items = service.processCommandBatch(List.of(
+                CommandServiceFixture.command("Bishop", Priority.COMMON),
+                CommandServiceFixture.command("Bishop", Priority.CRITICAL)));
+
+        assertThat(items).extracting(BatchCommandItemDTO::code).containsExactly("ADMISSION_REJECTED", null);
+        assertThat(items.get(1).isAccepted()).isTrue();
+    }
+
+    @Test
+    void overflowRejectedItemsRefundAuthorQuota() {
+        fixture.rateLimiter = new AuthorRateLimiter(true, 2, Map.of(),
+                Duration.ofMinutes(1), Duration.ofMinutes(10), fixture.meterRegistry);
+        CommandService service = fixture
+                .with(settings -> settings.maxPoolSize(1).maxQueueSize(1))
+                .start();
+
+        List<BatchCommandItemDTO> items = service.processCommandBatch(List.of(
+                CommandServiceFixture.command("Bishop", Priority.COMMON),
+                CommandServiceFixture.command("Bishop", Priority.COMMON)));
+
+        assertThat(items.get(1).code()).isEqualTo("QUEUE_OVERFLOW");
+        assertThat(service.getAuthorRateUsage("Bishop").used()).isEqualTo(1);
+    }
+
+    @Test
+    void oversizedBatchIsRejectedAsAWhole() {
+        CommandService service = fixture.with(settings -> settings.maxBatchSize(2)).start();
+
+        List<Command> commands = Collections.nCopies(3, CommandServiceFixture.command("Bishop", Priority.COMMON));
+
+        assertThatThrownBy(() -> service.processCommandBatch(commands))
+                .isInstanceOf(CommandValidationException.class);
+        assertThat(service.getTotalCommandsCount()).isZero();
+    }
+
+    private double batchItems(String outcome) {
+        return fixture.meterRegistry.get("synthetic.commands.batch.items").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,87 @@
+package ru.romanov.weyland.yutani.synthetic.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import ru.romanov.weyland.yutani.synthetic.admission.AuthorRateLimiter;
+import ru.romanov.weyland.yutani.synthetic.admission.IdempotencyCache;
+import ru.romanov.weyland.yutani.synthetic.config.SyntheticConfig;
+import ru.romanov.weyland.yutani.synthetic.history.BoundedCommandHistoryStore;
+import ru.romanov.weyland.yutani.synthetic.history.CommandHistoryStore;
+import ru.romanov.weyland.yutani.synthetic.journal.CommandJournal;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.model.CommandExecutorMode;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.UnaryOperator;
+
+// Собирает CommandService без контекста Spring: параметры задаются через CommandServiceSettings
+public class CommandServiceFixture {
+
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final List<Object> events = new CopyOnWriteArrayList<>();
+
+    CommandHistoryStore history = new BoundedCommandHistoryStore(10_000, Duration.ofHours(1), meterRegistry);
+    AuthorRateLimiter rateLimiter = new AuthorRateLimiter(false, 100, Map.of(),
+            Duration.ofMinutes(1), Duration.ofMinutes(10), meterRegistry);
+    IdempotencyCache idempotencyCache = new IdempotencyCache(10_000, Duration.ofHours(1), meterRegistry);
+    CommandJournal journal;
+
+    CommandServiceSettings settings = CommandServiceSettings.builder()
+            .maxQueueSize(100)
+            .maxCriticalQueueSize(100)
+            .agingThreshold(Duration.ofSeconds(5))
+            .executorMode(CommandExecutorMode.POOL)
+            .virtualMaxConcurrency(10)
+            .maxPoolSize(4)
+            .keepAliveTime(60L)
+            .criticalReservedWorkers(1)
+            .shutdownTimeout(Duration.ZERO)
+            .admissionEnabled(false)
+            .drainTimeSlo(Duration.ofSeconds(30))
+            .criticalDrainTimeSlo(Duration.ofSeconds(5))
+            .initialServiceTime(Duration.ofSeconds(2))
+            .trackStatusIds(true)
+            .maxBatchSize(5000)
+            .journalAcceptTimeout(Duration.ofSeconds(5))
+            .responseCacheEnabled(true)
+            .build();
+
+    CommandService service;
+
+    CommandServiceFixture with(UnaryOperator<CommandServiceSettings.CommandServiceSettingsBuilder> customizer) {
+        settings = customizer.apply(settings.toBuilder()).build();
+        return this;
+    }
+
+    public CommandServiceFixture withJournal(CommandJournal journal) {
+        this.journal = journal;
+        return this;
+    }
+
+    public CommandService start() {
+        service = new CommandService(settings, meterRegistry, new SyntheticConfig().objectMapper(), history,
+                rateLimiter, idempotencyCache, Validation.buildDefaultValidatorFactory().getValidator(), events::add, journal);
+        service.init();
+        return service;
+    }
+
+    // Останавливает сервис без ожидания: shutdownTimeout в фикстуре нулевой
+    public void stop() {
+        if (service != null) {
+            service.destroy();
+        }
+    }
+
+    public static Command command(String author, Priority priority) {
+        return new Command("Проверка систем", priority, author, LocalDateTime.now());
+    }
+
+    public static Command command(String id, String author, Priority priority) {
+        return new Command(id, "Проверка систем", priority, author, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,157 @@
+package ru.romanov.weyland.yutani.synthetic.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.romanov.weyland.yutani.synthetic.dto.CommandSubmissionDTO;
+import ru.romanov.weyland.yutani.synthetic.dto.response.BatchCommandItemDTO;
+import ru.romanov.weyland.yutani.synthetic.exception.CommandIdConflictException;
+import ru.romanov.weyland.yutani.synthetic.exception.CommandQueueOverflowException;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.model.CommandStatus;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CommandServiceIdempotencyTests {
+
+    CommandServiceFixture fixture = new CommandServiceFixture();
+
+    @AfterEach
+    void tearDown() {
+        fixture.stop();
+    }
+
+    @Test
+    void resubmittedClientIdReplaysOriginalCommand() {
+        CommandService service = fixture.start();
+        Command original = CommandServiceFixture.command("client-1", "Bishop", Priority.CRITICAL);
+
+        CommandSubmissionDTO first = service.submitCommand(original, null);
+        CommandSubmissionDTO second = service.submitCommand(
+                CommandServiceFixture.command("client-1", "Bishop", Priority.CRITICAL), null);
+
+        assertThat(first.duplicate()).isFalse();
+        assertThat(second.duplicate()).isTrue();
+        assertThat(second.command()).isSameAs(original);
+        assertThat(service.getTotalCommandsCount()).isEqualTo(1);
+    }
+
+    @Test
+    void clientIdOfAnotherAuthorIsConflict() {
+        CommandService service = fixture.start();
+        service.submitCommand(CommandServiceFixture.command("client-1", "Bishop", Priority.CRITICAL), null);
+
+        assertThatThrownBy(() -> service.submitCommand(
+                CommandServiceFixture.command("client-1", "Ash", Priority.CRITICAL), null))
+                .isInstanceOf(CommandIdConflictException.class);
+        assertThat(service.getCommand("client-1").getAuthor()).isEqualTo("Bishop");
+    }
+
+    @Test
+    void idempotencyKeyIsScopedToAuthor() {
+        CommandService service = fixture.start();
+        Command original = CommandServiceFixture.command("Bishop", Priority.CRITICAL);
+
+        service.submitCommand(original, "key-1");
+        CommandSubmissionDTO replay = service.submitCommand(
+                CommandServiceFixture.command("Bishop", Priority.CRITICAL), "key-1");
+        CommandSubmissionDTO otherAuthor = service.submitCommand(
+                CommandServiceFixture.command("Ash", Priority.CRITICAL), "key-1");
+
+        assertThat(replay.duplicate()).isTrue();
+        assertThat(replay.command()).isSameAs(original);
+        assertThat(otherAuthor.duplicate()).isFalse();
+        assertThat(service.getTotalCommandsCount()).isEqualTo(2);
+    }
+
+    // Параллельные повторы одного идентификатора регистрируют команду ровно один раз
+    @Test
+    void concurrentDuplicatesAreRegisteredOnce() throws Exception {
+        CommandService service = fixture.start();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<CommandSubmissionDTO>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return service.submitCommand(
+                            CommandServiceFixture.command("shared", "Bishop", Priority.CRITICAL), null);
+                }));
+            }
+            start.countDown();
+
+            int accepted = 0;
+            for (Future<CommandSubmissionDTO> future : futures) {
+                if (!future.get().duplicate()) {
+                    accepted++;
+                }
+            }
+
+            assertThat(accepted).isEqualTo(1);
+            assertThat(service.getTotalCommandsCount()).isEqualTo(1);
+            long indexed = Arrays.stream(CommandStatus.values()).mapToLong(service::getCommandsCount).sum();
+            assertThat(indexed).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void batchReportsRepeatedAndKnownIds() {
+        CommandService service = fixture.start();
+        service.submitCommand(CommandServiceFixture.command("known", "Bishop", Priority.CRITICAL), null);
+        service.submitCommand(CommandServiceFixture.command("foreign", "Ash", Priority.CRITICAL), null);
+
+        List<BatchCommandItemDTO> items = service.processCommandBatch(List.of(
+                CommandServiceFixture.command("fresh", "Bishop", Priority.CRITICAL),
+                CommandServiceFixture.command("fresh", "Bishop", Priority.CRITICAL),
+                CommandServiceFixture.command("known", "Bishop", Priority.CRITICAL),
+                CommandServiceFixture.command("foreign", "Bishop", Priority.CRITICAL)));
+
+        assertThat(items).extracting(BatchCommandItemDTO::status)
+                .containsExactly("ACCEPTED", "REJECTED", "DUPLICATE", "REJECTED");
+        assertThat(items).extracting(BatchCommandItemDTO::code)
+                .containsExactly(null, "DUPLICATE_IN_BATCH", null, "COMMAND_ID_CONFLICT");
+        assertThat(service.getTotalCommandsCount()).isEqualTo(3);
+    }
+
+    // Отклоненная при переполнении команда не остается в истории: повтор с тем же идентификатором не считается дубликатом
+    @Test
+    void overflowRejectedClientIdCanBeRetried() {
+        CommandService service = fixture
+                .with(settings -> settings.maxPoolSize(1).maxQueueSize(1))
+                .start();
+
+        String rejectedId = null;
+        for (int i = 0; i < 3 && rejectedId == null; i++) {
+            String id = "client-" + i;
+            try {
+                service.submitCommand(CommandServiceFixture.command(id, "Bishop", Priority.COMMON), null);
+            } catch (CommandQueueOverflowException e) {
+                rejectedId = id;
+            }
+        }
+
+        assertThat(rejectedId).isNotNull();
+        assertThat(service.getCommand(rejectedId)).isNull();
+        int accepted = service.getTotalCommandsCount();
+
+        String retriedId = rejectedId;
+        assertThatThrownBy(() -> service.submitCommand(
+                CommandServiceFixture.command(retriedId, "Bishop", Priority.COMMON), null))
+                .isInstanceOf(CommandQueueOverflowException.class);
+        assertThat(service.getTotalCommandsCount()).isEqualTo(accepted);
+        assertThat(service.getCommandStatsByAuthor()).containsEntry("Bishop", accepted);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.romanov.weyland.yutani.synthetic.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import ru.romanov.weyland.yutani.synthetic.exception.CommandQueueOverflowException;
+import ru.romanov.weyland.yutani.synthetic.model.Command;
+import ru.romanov.weyland.yutani.synthetic.model.CommandExecutorMode;
+import ru.romanov.weyland.yutani.synthetic.model.CommandStatus;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommandServiceOverflowTests {
+
+    CommandServiceFixture fixture = new CommandServiceFixture();
+
+    @AfterEach
+    void tearDown() {
+        fixture.stop();
+    }
+
+    // Один воркер и одно место в полосе: из трех команд хотя бы одна не помещается
+    @ParameterizedTest
+    @EnumSource(CommandExecutorMode.class)
+    void overflowIsReportedAsQueueOverflowInEveryExecutorMode(CommandExecutorMode mode) {
+        CommandService service = fixture
+                .with(settings -> settings.executorMode(mode).virtualMaxConcurrency(1).maxPoolSize(1).maxQueueSize(1))
+                .start();
+
+        List<RuntimeException> failures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            try {
+                service.processCommand(CommandServiceFixture.command("Bishop", Priority.COMMON));
+            } catch (RuntimeException e) {
+                failures.add(e);
+            }
+        }
+
+        assertThat(failures)
+                .isNotEmpty()
+                .allSatisfy(failure -> assertThat(failure).isInstanceOf(CommandQueueOverflowException.class));
+    }
+
+    @Test
+    void overflowRejectedCommandIsTerminal() {
+        CommandService service = fixture
+                .with(settings -> settings.maxPoolSize(1).maxQueueSize(1))
+                .start();
+
+        Command rejected = null;
+        for (int i = 0; i < 3 && rejected == null; i++) {
+            Command command = CommandServiceFixture.command("Bishop", Priority.COMMON);
+            try {
+                service.processCommand(command);
+            } catch (CommandQueueOverflowException e) {
+                rejected = command;
+            }
+        }
+
+        assertThat(rejected).isNotNull();
+        assertThat(rejected.getStatus()).isEqualTo(CommandStatus.FAILED);
+        assertThat(rejected.getExecutionResult()).startsWith("ОТКЛОНЕНА");
+    }
+}
@@ -0,0 +1,117 @@
+package ru.romanov.weyland.yutani.synthetic.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.romanov.weyland.yutani.synthetic.dto.response.SyntheticMetricsResponseDTO;
+import ru.romanov.weyland.yutani.synthetic.model.Priority;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SyntheticMetricsSnapshotServiceTests {
+
+    CommandServiceFixture fixture = new CommandServiceFixture();
+    SyntheticMetricsSnapshotService snapshotService;
+
+    @AfterEach
+    void tearDown() {
+        if (snapshotService != null) {
+            snapshotService.destroy();
+        }
+        fixture.stop();
+    }
+
+    @Test
+    void authorStatsViewFollowsLiveCounters() {
+        CommandService service = fixture.start();
+        Map<String, Integer> view = service.getAuthorStatsView();
+
+        service.processCommand(CommandServiceFixture.command("Bishop", Priority.COMMON));
+        service.processCommand(CommandServiceFixture.command("Bishop", Priority.CRITICAL));
+        service.processCommand(CommandServiceFixture.command("Ripley", Priority.COMMON));
+
+        assertThat(view).containsExactlyInAnyOrderEntriesOf(Map.of("Bishop", 2, "Ripley", 1));
+        assertThat(service.getCommandStatsByAuthor()).isSameAs(view);
+        assertThatThrownBy(() -> view.put("Bishop", 0)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void snapshotChangesOnlyOnRefresh() {
+        CommandService service = fixture.start();
+        snapshotService = snapshotService(service, Duration.ofHours(1));
+        service.processCommand(CommandServiceFixture.command("Bishop", Priority.COMMON));
+
+        SyntheticMetricsResponseDTO before = snapshotService.current();
+        service.processCommand(CommandServiceFixture.command("Bishop", Priority.COMMON));
+
+        assertThat(snapshotService.current()).isSameAs(before);
+        assertThat(before.commandsByAuthor()).isEmpty();
+
+        snapshotService.refresh();
+
+        assertThat(snapshotService.current().totalCommandsProcessed()).isEqualTo(2);
+        assertThat(snapshotService.current().commandsByAuthor()).containsExactlyEntriesOf(Map.of("Bishop", 2));
+    }
+
+    @Test
+    void snapshotAuthorStatsAreDetachedFromLiveCounters() {
+        CommandService service = fixture.start();
+        snapshotService = snapshotService(service, Duration.ofHours(1));
+        service.processCommand(CommandServiceFixture.command("Bishop", Priority.COMMON));
+        snapshotService.refresh();
+
+        Map<String, Integer> captured = snapshotService.current().commandsByAuthor();
+        service.processCommand(CommandServiceFixture.command("Ripley", Priority.COMMON));
+
+        assertThat(captured).containsExactlyEntriesOf(Map.of("Bishop", 1));
+        assertThatThrownBy(() -> captured.put("Ripley", 1)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void ageGaugeIsResetByRefresh() throws InterruptedException {
+        snapshotService = snapshotService(fixture.start(), Duration.ofHours(1));
+
+        Thread.sleep(50);
+        double stale = ageMillis();
+        snapshotService.refresh();
+
+        assertThat(stale).isGreaterThanOrEqualTo(50);
+        assertThat(ageMillis()).isGreaterThanOrEqualTo(0).isLessThan(stale);
+    }
+
+    @Test
+    void snapshotIsRefreshedOnSchedule() throws InterruptedException {
+        CommandService service = fixture.start();
+        snapshotService = snapshotService(service, Duration.ofMillis(20));
+
+        service.processCommand(CommandServiceFixture.command("Bishop", Priority.COMMON));
+
+        awaitUntil(() -> snapshotService.current().totalCommandsProcessed() == 1);
+        assertThat(snapshotService.current().commandsByAuthor()).containsExactlyEntriesOf(Map.of("Bishop", 1));
+    }
+
+    private SyntheticMetricsSnapshotService snapshotService(CommandService service, Duration refreshInterval) {
+        SyntheticMetricsSnapshotService snapshots = new SyntheticMetricsSnapshotService(service, fixture.meterRegistry);
+        ReflectionTestUtils.setField(snapshots, "refreshInterval", refreshInterval);
+        snapshots.init();
+        return snapshots;
+    }
+
+    private double ageMillis() {
+        return fixture.meterRegistry.get("synthetic.metrics.snapshot.age").gauge().value();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
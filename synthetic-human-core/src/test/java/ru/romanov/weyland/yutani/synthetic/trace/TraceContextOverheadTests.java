@@ -0,0 +1,113 @@
+package ru.romanov.weyland.yutani.synthetic.trace;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.IntUnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TraceContextOverheadTests {
+
+    private static final Logger log = LoggerFactory.getLogger(TraceContextOverheadTests.class);
+    private static final int CALLS = 200_000;
+    private static final int ROUNDS = 5;
+    private static final String INCOMING = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+    @Test
+    void parseRejectsMalformedHeaders() {
+        TraceContext parsed = TraceContext.parse(INCOMING);
+
+        assertThat(parsed).isNotNull();
+        assertThat(parsed.traceId()).isEqualTo("4bf92f3577b34da6a3ce929d0e0e4736");
+        assertThat(parsed.spanId()).isEqualTo("00f067aa0ba902b7");
+        assertThat(parsed.sampled()).isTrue();
+        assertThat(parsed.toTraceparent()).isEqualTo(INCOMING);
+
+        assertThat(TraceContext.parse(null)).isNull();
+        assertThat(TraceContext.parse("00-00000000000000000000000000000000-00f067aa0ba902b7-01")).isNull();
+        assertThat(TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01")).isNull();
+        assertThat(TraceContext.parse("ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01")).isNull();
+        assertThat(TraceContext.parse("00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01")).isNull();
+        assertThat(TraceContext.parse(INCOMING + "-extra")).isNull();
+        assertThat(TraceContext.parse("01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-extra")).isNotNull();
+    }
+
+    @Test
+    void childKeepsTraceAndLinksParent() {
+        TraceContext root = TraceContext.newRoot();
+        TraceContext child = root.child();
+
+        assertThat(root.traceId()).hasSize(32).matches("[0-9a-f]+");
+        assertThat(root.spanId()).hasSize(16).matches("[0-9a-f]+");
+        assertThat(child.traceId()).isEqualTo(root.traceId());
+        assertThat(child.parentSpanId()).isEqualTo(root.spanId());
+        assertThat(child.spanId()).isNotEqualTo(root.spanId());
+        assertThat(TraceContext.parse(child.toTraceparent())).isEqualTo(
+                new TraceContext(child.traceId(), child.spanId(), null, true));
+    }
+
+    @Test
+    void holderExposesContextOnlyUntilCleared() throws InterruptedException {
+        TraceContext context = TraceContext.parse(INCOMING).child();
+
+        TraceContextHolder.set(context);
+        try {
+            assertThat(TraceContextHolder.current()).isSameAs(context);
+
+            TraceContext[] seenByWorker = new TraceContext[1];
+            Thread worker = Thread.ofPlatform().start(() -> seenByWorker[0] = TraceContextHolder.current());
+            worker.join();
+            assertThat(seenByWorker[0]).isNull();
+        } finally {
+            TraceContextHolder.clear();
+        }
+
+        assertThat(TraceContextHolder.current()).isNull();
+    }
+
+    // Замер накладных расходов запускается только профилем benchmarks
+    @Test
+    @Tag("benchmark")
+    void propagationOverheadPerRequest() {
+        long baselineNanos = measure(i -> i + 1);
+        long requestNanos = measure(i -> {
+            TraceContext incoming = TraceContext.parse(INCOMING);
+            TraceContext context = incoming != null ? incoming.child() : TraceContext.newRoot();
+            TraceContextHolder.set(context);
+            try {
+                return context.toTraceparent().length() + i;
+            } finally {
+                TraceContextHolder.clear();
+            }
+        });
+        long hopNanos = measure(i -> {
+            TraceContext worker = TraceContext.newRoot().child();
+            TraceContextHolder.set(worker);
+            try {
+                return TraceContextHolder.current().spanId().length() + i;
+            } finally {
+                TraceContextHolder.clear();
+            }
+        });
+
+        log.info("Трассировка: пустой вызов {} нс, входящий запрос {} нс, переход в воркер {} нс на вызов",
+                baselineNanos / CALLS, requestNanos / CALLS, hopNanos / CALLS);
+    }
+
+    private static long measure(IntUnaryOperator call) {
+        long best = Long.MAX_VALUE;
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < CALLS; i++) {
+                sink += call.applyAsInt(i);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        assertThat(sink).isNotNegative();
+        return best;
+    }
+}